@@ -1,8 +1,10 @@
 package com.example.DPMHC_backend.config;
 
 //this is a testing comment
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -14,8 +16,16 @@ import java.util.concurrent.Executor;
 @EnableScheduling
 public class AsyncConfig {
 
+    // Virtual-thread mode: one virtual thread per task instead of a pool; blocking work is bounded by the
+    // connection limit in front of each Hikari pool rather than by pool sizes here (see VirtualThreadConfig)
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Bean(name = "notificationTaskExecutor")
     public Executor notificationTaskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("notification-async-", 0);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(10);
@@ -26,8 +36,73 @@ public class AsyncConfig {
         return executor;
     }
 
+    // Email outbox delivery; small on purpose - each pass already batches over one SMTP connection
+    @Bean(name = "emailTaskExecutor")
+    public Executor emailTaskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("email-outbox-", 0); // dispatchDue already runs one pass at a time
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("email-outbox-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Domain event consumers get their own pools so a slow consumer cannot starve the others
+    @Bean(name = "notificationEventExecutor")
+    public Executor notificationEventExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("event-notification-", 0);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("event-notification-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "realtimeEventExecutor")
+    public Executor realtimeEventExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("event-realtime-", 0);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("event-realtime-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Background cache refreshes; rejected refreshes are skipped and the stale value keeps being served
+    @Bean(name = "cacheRefreshExecutor")
+    public Executor cacheRefreshExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("cache-refresh-", 4);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.initialize();
+        return executor;
+    }
+
     @Bean(name = "scheduledTaskExecutor")
     public Executor scheduledTaskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("scheduled-task-", 0);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(4);
@@ -36,4 +111,15 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    // A positive limit rejects tasks beyond it, like a saturated pool would; 0 means unbounded
+    private Executor virtualThreadExecutor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        if (concurrencyLimit > 0) {
+            executor.setConcurrencyLimit(concurrencyLimit);
+            executor.setRejectTasksWhenLimitReached(true);
+        }
+        return executor;
+    }
 }
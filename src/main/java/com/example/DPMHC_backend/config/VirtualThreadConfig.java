@@ -0,0 +1,50 @@
+package com.example.DPMHC_backend.config;
+
+import com.example.DPMHC_backend.config.database.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual-thread execution mode, active with spring.threads.virtual.enabled=true
+ * Servlet requests are dispatched to a virtual thread each instead of the Undertow worker pool; the XNIO I/O
+ * threads stay as they are. @Async executors and STOMP channels switch in AsyncConfig and WebSocketConfig, and
+ * Boot moves @Scheduled onto virtual threads itself. Every Hikari pool is fronted by a semaphore so unbounded
+ * request concurrency cannot stampede the pools.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadUndertowCustomizer() {
+        return factory -> factory.addDeploymentInfoCustomizers(deploymentInfo -> deploymentInfo.setExecutor(
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory())));
+    }
+
+    /**
+     * Wraps pool beans (the prod pool, the dev master); dev replica pools are wrapped in DatabaseConfiguration
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    log.info("Limiting {} to {} concurrent connection holders", beanName, pool.getMaximumPoolSize());
+                    return ConnectionLimitingDataSource.forPool(pool);
+                }
+                return bean;
+            }
+        };
+    }
+}
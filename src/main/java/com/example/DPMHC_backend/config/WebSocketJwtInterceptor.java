@@ -1,5 +1,6 @@
 package com.example.DPMHC_backend.config;
 
+import com.example.DPMHC_backend.security.JwtClaims;
 import com.example.DPMHC_backend.security.JwtService;
 import com.example.DPMHC_backend.model.User;
 import com.example.DPMHC_backend.repository.UserRepository;
@@ -46,10 +47,11 @@ public class WebSocketJwtInterceptor implements ChannelInterceptor {
                     
                     try {
                         // Validate and extract user from JWT
-                        String userEmail = jwtService.extractEmail(token);
+                        JwtClaims claims = jwtService.parseClaims(token);
+                        String userEmail = claims.email();
                         log.info("Extracted email from JWT: {}", userEmail);
                         
-                        if (!jwtService.isTokenExpired(token)) {
+                        if (!claims.isExpired()) {
                             log.info("JWT token is valid");
                             
                             // Load user from database
@@ -0,0 +1,80 @@
+package com.example.DPMHC_backend.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-namespace generation numbers kept in Redis (socialmedia:cache-gen:{cacheName})
+ * Generational caches embed the current generation in every key, so bumping it with one INCR
+ * orphans the whole namespace; orphaned entries expire by TTL instead of being scanned and deleted.
+ * Nodes keep the generation locally and re-read it after the refresh interval or on a clear broadcast.
+ */
+@Slf4j
+public class CacheGenerationRegistry {
+
+    private static final String GENERATION_KEY_PREFIX = "socialmedia:cache-gen:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Set<String> generationalCacheNames;
+    private final long refreshIntervalMillis;
+
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    private record Generation(long value, long loadedAt) {
+    }
+
+    public CacheGenerationRegistry(RedisTemplate<String, Object> redisTemplate, Set<String> generationalCacheNames,
+                                   Duration refreshInterval) {
+        this.redisTemplate = redisTemplate;
+        this.generationalCacheNames = generationalCacheNames;
+        this.refreshIntervalMillis = refreshInterval.toMillis();
+    }
+
+    public boolean isGenerational(String cacheName) {
+        return generationalCacheNames.contains(cacheName);
+    }
+
+    public long current(String cacheName) {
+        Generation generation = generations.get(cacheName);
+        long now = System.currentTimeMillis();
+        if (generation == null || now - generation.loadedAt() > refreshIntervalMillis) {
+            generation = load(cacheName, generation, now);
+        }
+        return generation.value();
+    }
+
+    /**
+     * Invalidate the whole namespace with a single INCR
+     */
+    public long bump(String cacheName) {
+        Long value = redisTemplate.opsForValue().increment(GENERATION_KEY_PREFIX + cacheName);
+        long generation = value != null ? value : 0L;
+        generations.put(cacheName, new Generation(generation, System.currentTimeMillis()));
+        log.info("🔄 Cache namespace {} moved to generation {}", cacheName, generation);
+        return generation;
+    }
+
+    /**
+     * Drop the local copy so the next access re-reads the generation (another node bumped it)
+     */
+    public void refresh(String cacheName) {
+        generations.remove(cacheName);
+    }
+
+    private Generation load(String cacheName, Generation previous, long now) {
+        try {
+            Object value = redisTemplate.opsForValue().get(GENERATION_KEY_PREFIX + cacheName);
+            Generation loaded = new Generation(value instanceof Number number ? number.longValue() : 0L, now);
+            generations.put(cacheName, loaded);
+            return loaded;
+        } catch (Exception e) {
+            log.debug("Could not read cache generation for {}: {}", cacheName, e.getMessage());
+            return previous != null ? previous : new Generation(0L, now);
+        }
+    }
+}
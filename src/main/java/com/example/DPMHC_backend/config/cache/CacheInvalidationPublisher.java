@@ -0,0 +1,56 @@
+package com.example.DPMHC_backend.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Broadcasts L1 invalidations to the other nodes over Redis pub/sub.
+ * Messages carry the sending node's ID so a node ignores its own broadcasts.
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    public static final String CHANNEL = "socialmedia:cache-invalidation";
+
+    static final String FIELD_ORIGIN = "origin";
+    static final String FIELD_CACHE = "cache";
+    static final String FIELD_KEY = "key";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName, key);
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, null);
+    }
+
+    private void publish(String cacheName, String key) {
+        Map<String, Object> message = new HashMap<>();
+        message.put(FIELD_ORIGIN, nodeId);
+        message.put(FIELD_CACHE, cacheName);
+        if (key != null) {
+            message.put(FIELD_KEY, key);
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (Exception e) {
+            // Other nodes fall back to the short L1 TTL
+            log.debug("Could not broadcast cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+}
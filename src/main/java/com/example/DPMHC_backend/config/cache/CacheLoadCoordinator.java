@@ -0,0 +1,275 @@
+package com.example.DPMHC_backend.config.cache;
+
+import com.example.DPMHC_backend.dto.cache.CacheEnvelope;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Stampede-protected cache loading for expensive hydration paths
+ * - single-flight: one loader per key per node, concurrent callers await its future
+ * - cross-node: a short Redis lock elects one loader, other nodes poll the cache until it is filled
+ * - probabilistic early refresh (XFetch): hot keys are recomputed in the background shortly before freshUntil
+ * - stale-while-revalidate: past freshUntil the old value is served while one background refresh runs
+ */
+@Component
+@Slf4j
+public class CacheLoadCoordinator {
+
+    private static final String LOCK_KEY_PREFIX = "socialmedia:cache-lock:";
+
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final CacheManager cacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper redisObjectMapper;
+    private final Executor refreshExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.cache.stampede.lock-ttl-ms:10000}")
+    private long lockTtlMs;
+
+    @Value("${app.cache.stampede.lock-wait-ms:3000}")
+    private long lockWaitMs;
+
+    @Value("${app.cache.stampede.poll-ms:50}")
+    private long pollMs;
+
+    @Value("${app.cache.stampede.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    public CacheLoadCoordinator(CacheManager cacheManager,
+                                RedisTemplate<String, Object> redisTemplate,
+                                ObjectMapper redisObjectMapper,
+                                @Qualifier("cacheRefreshExecutor") Executor refreshExecutor,
+                                MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.redisObjectMapper = redisObjectMapper;
+        this.refreshExecutor = refreshExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Return the cached value, loading it at most once across concurrent callers on a miss.
+     * The loader runs on the caller's thread for misses and on cacheRefreshExecutor for refreshes,
+     * so it should go through the service proxy to get its own transaction and routing.
+     * Null results are returned but not cached.
+     */
+    public <T> T getOrLoad(String cacheName, String key, TypeReference<T> type, Duration freshFor, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+
+        CacheEnvelope envelope = read(cache, key);
+        T value = unwrap(envelope, type);
+        if (value != null) {
+            long now = System.currentTimeMillis();
+            if (now >= envelope.getFreshUntil()) {
+                record(cacheName, "stale");
+                refreshAsync(cache, key, freshFor, loader);
+            } else if (shouldRefreshEarly(envelope, now)) {
+                record(cacheName, "early_refresh");
+                refreshAsync(cache, key, freshFor, loader);
+            } else {
+                record(cacheName, "hit");
+            }
+            return value;
+        }
+
+        record(cacheName, "miss");
+        return loadSingleFlight(cache, key, type, freshFor, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadSingleFlight(Cache cache, String key, TypeReference<T> type, Duration freshFor, Supplier<T> loader) {
+        String flightKey = cache.getName() + "::" + key;
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, mine);
+
+        if (existing != null) {
+            record(cache.getName(), "coalesced");
+            try {
+                T value = (T) existing.get(lockWaitMs, TimeUnit.MILLISECONDS);
+                if (value != null) {
+                    return value;
+                }
+                // The in-flight task was a refresh that yielded to another node's lock
+                return loadWithLock(cache, key, type, freshFor, loader);
+            } catch (TimeoutException e) {
+                log.debug("Timed out waiting for in-flight load of {}, loading directly", flightKey);
+                return loader.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return loader.get();
+            }
+        }
+
+        try {
+            T value = loadWithLock(cache, key, type, freshFor, loader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, mine);
+        }
+    }
+
+    private <T> T loadWithLock(Cache cache, String key, TypeReference<T> type, Duration freshFor, Supplier<T> loader) {
+        String lockKey = LOCK_KEY_PREFIX + cache.getName() + ":" + key;
+        String token = UUID.randomUUID().toString();
+        if (tryLock(lockKey, token)) {
+            try {
+                return computeAndStore(cache, key, freshFor, loader);
+            } finally {
+                unlock(lockKey, token);
+            }
+        }
+
+        // Another node is loading this key - give it a moment to fill the cache
+        record(cache.getName(), "lock_wait");
+        long deadline = System.currentTimeMillis() + lockWaitMs;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(pollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            T value = unwrap(read(cache, key), type);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        record(cache.getName(), "lock_timeout");
+        return computeAndStore(cache, key, freshFor, loader);
+    }
+
+    private <T> void refreshAsync(Cache cache, String key, Duration freshFor, Supplier<T> loader) {
+        String flightKey = cache.getName() + "::" + key;
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(flightKey, mine) != null) {
+            return; // already being refreshed or loaded on this node
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                String lockKey = LOCK_KEY_PREFIX + cache.getName() + ":" + key;
+                String token = UUID.randomUUID().toString();
+                try {
+                    if (tryLock(lockKey, token)) {
+                        try {
+                            mine.complete(computeAndStore(cache, key, freshFor, loader));
+                        } finally {
+                            unlock(lockKey, token);
+                        }
+                    } else {
+                        mine.complete(null); // another node holds the lock and is refreshing
+                    }
+                } catch (Exception e) {
+                    log.warn("Background refresh of {} failed: {}", flightKey, e.getMessage());
+                    mine.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(flightKey, mine);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(flightKey, mine);
+            mine.complete(null);
+            log.debug("Refresh executor saturated, skipping background refresh of {}", flightKey);
+        }
+    }
+
+    private <T> T computeAndStore(Cache cache, String key, Duration freshFor, Supplier<T> loader) {
+        long start = System.currentTimeMillis();
+        T value = loader.get();
+        long now = System.currentTimeMillis();
+        if (value != null) {
+            cache.put(key, new CacheEnvelope(value, now, now - start, now + freshFor.toMillis()));
+        }
+        return value;
+    }
+
+    /**
+     * XFetch: refresh with rising probability as freshUntil approaches, earlier for slower loaders
+     */
+    private boolean shouldRefreshEarly(CacheEnvelope envelope, long now) {
+        double delta = Math.max(envelope.getComputeMillis(), 1);
+        double random = ThreadLocalRandom.current().nextDouble();
+        return now - delta * earlyRefreshBeta * Math.log(random) >= envelope.getFreshUntil();
+    }
+
+    private CacheEnvelope read(Cache cache, String key) {
+        try {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper == null || wrapper.get() == null) {
+                return null;
+            }
+            return redisObjectMapper.convertValue(wrapper.get(), CacheEnvelope.class);
+        } catch (Exception e) {
+            log.debug("Unreadable entry {} in cache {}, treating as miss: {}", key, cache.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private <T> T unwrap(CacheEnvelope envelope, TypeReference<T> type) {
+        if (envelope == null || envelope.getValue() == null) {
+            return null;
+        }
+        try {
+            return redisObjectMapper.convertValue(envelope.getValue(), type);
+        } catch (IllegalArgumentException e) {
+            log.debug("Cached value does not match {}, treating as miss: {}", type.getType(), e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey, token, Duration.ofMillis(lockTtlMs));
+            return !Boolean.FALSE.equals(acquired);
+        } catch (Exception e) {
+            log.debug("Cache load lock unavailable, loading without it: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (Exception e) {
+            log.debug("Could not release cache load lock {}: {}", lockKey, e.getMessage());
+        }
+    }
+
+    private void record(String cacheName, String outcome) {
+        meterRegistry.counter("cache.load.requests", "cache", cacheName, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.DPMHC_backend.config.cache;
+
+import com.example.DPMHC_backend.service.CacheWarmupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prepares the caches before the node reports ready
+ * Incompatible entries are dropped lazily by the versioned cache codec, so the cache is no longer flushed on boot;
+ * the optional flush remains as an escape hatch and uses SCAN + UNLINK instead of KEYS + DEL.
+ * Application runners complete before Spring Boot publishes ReadinessState.ACCEPTING_TRAFFIC,
+ * so the warm-up below finishes (or times out) before the readiness probe goes green.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@Slf4j
+public class CacheStartupInitializer implements ApplicationRunner {
+
+    private static final int UNLINK_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheWarmupService cacheWarmupService;
+
+    @Value("${app.cache.flush-on-startup:false}")
+    private boolean flushOnStartup;
+
+    @Value("${app.cache.warmup.on-startup:true}")
+    private boolean warmUpOnStartup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (flushOnStartup) {
+            clearAllCaches();
+        }
+        if (warmUpOnStartup) {
+            try {
+                cacheWarmupService.warmUp();
+            } catch (Exception e) {
+                log.warn("⚠️ Cache warm-up on startup failed, serving cold: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Remove every key with the socialmedia prefix without blocking Redis
+     */
+    private void clearAllCaches() {
+        long removed = 0;
+        List<String> batch = new ArrayList<>(UNLINK_BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions()
+                .match("socialmedia:*")
+                .count(UNLINK_BATCH_SIZE)
+                .build())) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= UNLINK_BATCH_SIZE) {
+                    removed += unlink(batch);
+                }
+            }
+            removed += unlink(batch);
+            log.info("🧹 Flushed {} Redis cache keys on startup", removed);
+        } catch (Exception e) {
+            log.warn("⚠️ Could not clear Redis caches on startup: {}", e.getMessage());
+        }
+    }
+
+    private long unlink(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long count = redisTemplate.unlink(keys);
+        keys.clear();
+        return count != null ? count : 0;
+    }
+}
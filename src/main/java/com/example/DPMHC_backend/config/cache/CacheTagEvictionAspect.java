@@ -0,0 +1,88 @@
+package com.example.DPMHC_backend.config.cache;
+
+import com.example.DPMHC_backend.config.cache.annotation.EvictCacheTag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies {@link EvictCacheTag} after a successful invocation.
+ * Inside a transaction the eviction is deferred to afterCommit so readers cannot re-cache
+ * the pre-commit state between the eviction and the commit.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheTagEvictionAspect {
+
+    private final TwoLevelCacheManager cacheManager;
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expressionCache = new ConcurrentHashMap<>();
+
+    @AfterReturning(
+            pointcut = "@annotation(com.example.DPMHC_backend.config.cache.annotation.EvictCacheTag) || " +
+                       "@annotation(com.example.DPMHC_backend.config.cache.annotation.EvictCacheTags)",
+            returning = "result")
+    public void evictTags(JoinPoint joinPoint, Object result) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Set<EvictCacheTag> annotations = AnnotatedElementUtils.findMergedRepeatableAnnotations(method, EvictCacheTag.class);
+
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                null, method, joinPoint.getArgs(), parameterNameDiscoverer);
+        context.setVariable("result", result);
+
+        Set<String> tags = new LinkedHashSet<>();
+        for (EvictCacheTag annotation : annotations) {
+            Object id = expressionCache.computeIfAbsent(annotation.id(), parser::parseExpression).getValue(context);
+            if (id != null) {
+                tags.add(CacheTagIndex.tag(annotation.type(), id));
+            }
+        }
+        if (tags.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(tags);
+                }
+            });
+        } else {
+            evict(tags);
+        }
+    }
+
+    private void evict(Set<String> tags) {
+        for (String tag : tags) {
+            try {
+                cacheManager.evictTag(tag);
+            } catch (Exception e) {
+                log.warn("Cache tag eviction failed for {}: {}", tag, e.getMessage());
+            }
+        }
+    }
+}
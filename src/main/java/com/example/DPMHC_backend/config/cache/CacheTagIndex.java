@@ -0,0 +1,95 @@
+package com.example.DPMHC_backend.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Redis-backed tag index for cache entries
+ * Every put into a tagged cache adds "cacheName::key" to the set socialmedia:cache-tags:{type}:{id},
+ * where the ID is the leading numeric segment of the key ("42:page:0:size:20" -> post:42).
+ * Evicting a tag removes every entry in the set, replacing wildcard keys that Redis eviction cannot match.
+ */
+@Slf4j
+public class CacheTagIndex {
+
+    public static final String TAG_POST = "post";
+    public static final String TAG_COMMENT = "comment";
+    public static final String TAG_CHAT = "chat";
+    public static final String TAG_MESSAGE = "message";
+    public static final String TAG_USER_POSTS = "user-posts";
+    public static final String TAG_USER_CHATS = "user-chats";
+
+    private static final String TAG_KEY_PREFIX = "socialmedia:cache-tags:";
+    private static final String MEMBER_SEPARATOR = "::";
+    private static final Pattern LEADING_ID = Pattern.compile("^(\\d+)(?:[:_\\-].*)?$");
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Map<String, String> tagTypesByCache;
+    private final Duration tagTtl;
+
+    public CacheTagIndex(RedisTemplate<String, Object> redisTemplate, Map<String, String> tagTypesByCache, Duration tagTtl) {
+        this.redisTemplate = redisTemplate;
+        this.tagTypesByCache = tagTypesByCache;
+        this.tagTtl = tagTtl;
+    }
+
+    public boolean isTagged(String cacheName) {
+        return tagTypesByCache.containsKey(cacheName);
+    }
+
+    public static String tag(String type, Object id) {
+        return type + ":" + id;
+    }
+
+    /**
+     * Index a freshly cached entry under its tag; keys without a leading ID are not indexed
+     */
+    public void register(String cacheName, Object key) {
+        String type = tagTypesByCache.get(cacheName);
+        if (type == null) {
+            return;
+        }
+        Matcher matcher = LEADING_ID.matcher(String.valueOf(key));
+        if (!matcher.matches()) {
+            return;
+        }
+        String tagKey = TAG_KEY_PREFIX + tag(type, matcher.group(1));
+        try {
+            redisTemplate.opsForSet().add(tagKey, cacheName + MEMBER_SEPARATOR + key);
+            // Outlive the longest entry TTL so the set never forgets a live entry
+            redisTemplate.expire(tagKey, tagTtl);
+        } catch (Exception e) {
+            log.debug("Could not index cache entry {}::{} under {}: {}", cacheName, key, tagKey, e.getMessage());
+        }
+    }
+
+    Set<Object> members(String tag) {
+        Set<Object> members = redisTemplate.opsForSet().members(TAG_KEY_PREFIX + tag);
+        return members != null ? members : Set.of();
+    }
+
+    /**
+     * Remove only the members that were evicted, so entries tagged concurrently stay indexed
+     */
+    void remove(String tag, Set<Object> members) {
+        if (!members.isEmpty()) {
+            redisTemplate.opsForSet().remove(TAG_KEY_PREFIX + tag, members.toArray());
+        }
+    }
+
+    static String cacheNameOf(String member) {
+        int separator = member.indexOf(MEMBER_SEPARATOR);
+        return separator > 0 ? member.substring(0, separator) : null;
+    }
+
+    static String keyOf(String member) {
+        int separator = member.indexOf(MEMBER_SEPARATOR);
+        return separator > 0 ? member.substring(separator + MEMBER_SEPARATOR.length()) : null;
+    }
+}
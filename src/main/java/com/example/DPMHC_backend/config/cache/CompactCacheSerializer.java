@@ -0,0 +1,163 @@
+package com.example.DPMHC_backend.config.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary cache value codec: Smile with embedded type info, deflated above a size threshold
+ * Layout: [MAGIC][FORMAT_VERSION][schemaVersion][flags][payload]. Values without the magic byte are legacy JSON
+ * entries and are read with the JSON serializer; entries from another format or schema version decode as a cache miss,
+ * so a deploy only drops what it cannot read instead of flushing Redis.
+ */
+@Slf4j
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    public static final byte MAGIC = (byte) 0xCA;
+    public static final byte FORMAT_VERSION = 2;
+
+    private static final byte FLAG_DEFLATED = 0x01;
+    private static final int HEADER_LENGTH = 4;
+
+    private final ObjectMapper smileMapper;
+    private final GenericJackson2JsonRedisSerializer legacySerializer;
+    private final int compressionThreshold;
+    private final byte schemaVersion;
+
+    @SuppressWarnings("deprecation") // EVERYTHING is needed so final JDK collections (List.of, Stream.toList) carry a type id
+    public CompactCacheSerializer(ObjectMapper redisObjectMapper, int compressionThreshold, int schemaVersion) {
+        this.smileMapper = new ObjectMapper(new SmileFactory());
+        this.smileMapper.registerModule(new JavaTimeModule());
+        this.smileMapper.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // Tolerate fields removed between deploys instead of dropping the entry
+        this.smileMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        // Type info lives only in this private mapper - the shared redisObjectMapper stays untyped for the REST API
+        this.smileMapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder()
+                        .allowIfSubType("com.example.DPMHC_backend.")
+                        .allowIfSubType("java.util.")
+                        .allowIfSubType("java.lang.")
+                        .allowIfSubType("java.time.")
+                        .build(),
+                ObjectMapper.DefaultTyping.EVERYTHING,
+                JsonTypeInfo.As.PROPERTY);
+        this.legacySerializer = new GenericJackson2JsonRedisSerializer(redisObjectMapper);
+        this.compressionThreshold = compressionThreshold;
+        this.schemaVersion = (byte) schemaVersion;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            byte[] payload = smileMapper.writeValueAsBytes(value);
+            byte flags = 0;
+            if (compressionThreshold > 0 && payload.length >= compressionThreshold) {
+                byte[] deflated = deflate(payload);
+                if (deflated.length < payload.length) {
+                    payload = deflated;
+                    flags |= FLAG_DEFLATED;
+                }
+            }
+            byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+            bytes[0] = MAGIC;
+            bytes[1] = FORMAT_VERSION;
+            bytes[2] = schemaVersion;
+            bytes[3] = flags;
+            System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+            return bytes;
+        } catch (Exception e) {
+            throw new SerializationException("Could not encode cache value of type " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            try {
+                return legacySerializer.deserialize(bytes);
+            } catch (SerializationException e) {
+                log.debug("Dropping unreadable legacy cache entry: {}", e.getMessage());
+                return null;
+            }
+        }
+        if (!isCompatible(bytes)) {
+            log.debug("Skipping cache entry written with codec/schema version {}/{}",
+                    bytes.length > 1 ? bytes[1] : -1, bytes.length > 2 ? bytes[2] : -1);
+            return null;
+        }
+        try {
+            byte[] payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+            if ((bytes[3] & FLAG_DEFLATED) != 0) {
+                payload = inflate(payload);
+            }
+            return smileMapper.readValue(payload, Object.class);
+        } catch (Exception e) {
+            // An entry that no longer matches its class is a miss, not an error
+            log.debug("Dropping undecodable cache entry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Whether the raw value was written by this codec at the current format and schema version
+     */
+    public boolean isCompatible(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC
+                && bytes[1] == FORMAT_VERSION && bytes[2] == schemaVersion;
+    }
+
+    private byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] input) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated compressed cache entry");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
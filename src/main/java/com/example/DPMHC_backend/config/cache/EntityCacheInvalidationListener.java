@@ -0,0 +1,140 @@
+package com.example.DPMHC_backend.config.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cross-node invalidation for the Hibernate second-level cache
+ * After a cached entity is updated or deleted, the id is broadcast on socialmedia:entity-invalidation
+ * and every other node evicts it from its local region (plus the natural-id region if the natural ID changed).
+ */
+@Component
+@Slf4j
+public class EntityCacheInvalidationListener
+        implements PostCommitUpdateEventListener, PostCommitDeleteEventListener, MessageListener {
+
+    public static final String CHANNEL = "socialmedia:entity-invalidation";
+
+    private static final String FIELD_ENTITY = "entity";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NATURAL_ID = "naturalId";
+    private static final String FIELD_ORIGIN = "origin";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    public EntityCacheInvalidationListener(EntityManagerFactory entityManagerFactory,
+                                           RedisTemplate<String, Object> redisTemplate,
+                                           @Qualifier("cacheInvalidationListenerContainer")
+                                           RedisMessageListenerContainer listenerContainer) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId(), naturalIdChanged(event));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId(), event.getPersister().hasNaturalIdentifier());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Rolled back - nothing changed in the database
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Rolled back - nothing changed in the database
+    }
+
+    private boolean naturalIdChanged(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        if (!persister.hasNaturalIdentifier()) {
+            return false;
+        }
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true; // not computed - assume the worst
+        }
+        for (int naturalIdProperty : persister.getNaturalIdentifierProperties()) {
+            for (int dirtyProperty : dirty) {
+                if (naturalIdProperty == dirtyProperty) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void publish(EntityPersister persister, Object id, boolean naturalIdChanged) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, Map.of(
+                    FIELD_ENTITY, persister.getEntityName(),
+                    FIELD_ID, id,
+                    FIELD_NATURAL_ID, naturalIdChanged,
+                    FIELD_ORIGIN, nodeId));
+        } catch (Exception e) {
+            // Other nodes fall back to the region TTL
+            log.warn("Could not broadcast L2 invalidation for {}#{}: {}", persister.getEntityName(), id, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (!(body instanceof Map<?, ?> payload) || nodeId.equals(payload.get(FIELD_ORIGIN))) {
+                return;
+            }
+            String entityName = String.valueOf(payload.get(FIELD_ENTITY));
+            Object id = payload.get(FIELD_ID);
+            if (id instanceof Number number) {
+                id = number.longValue(); // JSON narrows small ids to Integer; all cached entities use Long ids
+            }
+            Class<?> entityClass = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityName).getMappedClass();
+            sessionFactory.getCache().evictEntityData(entityClass, id);
+            if (Boolean.TRUE.equals(payload.get(FIELD_NATURAL_ID))) {
+                sessionFactory.getCache().evictNaturalIdData(entityClass);
+            }
+            log.debug("Evicted L2 entry {}#{} changed on another node", entityName, id);
+        } catch (Exception e) {
+            log.warn("Ignoring malformed L2 invalidation message: {}", e.getMessage());
+        }
+    }
+}
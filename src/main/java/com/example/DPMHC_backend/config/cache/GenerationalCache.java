@@ -0,0 +1,86 @@
+package com.example.DPMHC_backend.config.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Prefixes every key with the namespace generation ("g3:" + key) and turns clear() into a generation bump
+ */
+public class GenerationalCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheGenerationRegistry generationRegistry;
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    public GenerationalCache(Cache delegate, CacheGenerationRegistry generationRegistry,
+                             CacheInvalidationPublisher invalidationPublisher) {
+        this.delegate = delegate;
+        this.generationRegistry = generationRegistry;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    private String versioned(Object key) {
+        return "g" + generationRegistry.current(getName()) + ":" + key;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(versioned(key));
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(versioned(key), type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(versioned(key), valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(versioned(key), value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(versioned(key), value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(versioned(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(versioned(key));
+    }
+
+    /**
+     * O(1) namespace flush: bump the generation and tell other nodes to re-read it
+     */
+    @Override
+    public void clear() {
+        generationRegistry.bump(getName());
+        invalidationPublisher.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        clear();
+        return true;
+    }
+}
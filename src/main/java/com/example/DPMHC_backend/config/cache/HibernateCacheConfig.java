@@ -0,0 +1,75 @@
+package com.example.DPMHC_backend.config.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache: JCache regions backed by Caffeine, one per hot reference entity
+ * Regions are node-local; updates and deletes are broadcast by {@link EntityCacheInvalidationListener}
+ * and the TTL bounds staleness if a broadcast is missed.
+ */
+@Configuration
+@Slf4j
+public class HibernateCacheConfig {
+
+    public static final List<String> ENTITY_REGIONS = List.of(
+            "entity-users",
+            "entity-chats",
+            "entity-chat-participants");
+
+    @Value("${app.hibernate.l2.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.hibernate.l2.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateJCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        for (String region : ENTITY_REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(Duration.ofSeconds(ttlSeconds).toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region, configuration);
+        }
+
+        log.info("🗄️ Hibernate L2 regions {} configured (max {}, ttl {}s)", ENTITY_REGIONS, maxSize, ttlSeconds);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(CacheManager hibernateJCacheManager) {
+        return properties -> applySecondLevelCache(properties, hibernateJCacheManager);
+    }
+
+    /**
+     * L2 settings for an entity manager factory; also used by the master/replica factory, which Boot's
+     * customizers never reach
+     */
+    public static void applySecondLevelCache(Map<String, Object> properties, CacheManager hibernateJCacheManager) {
+        properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+        properties.put(AvailableSettings.USE_QUERY_CACHE, "false");
+        properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+        properties.put(ConfigSettings.CACHE_MANAGER, hibernateJCacheManager);
+        // Internal regions (e.g. update timestamps) are created with provider defaults
+        properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create");
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.DPMHC_backend.config.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache writer decorator recording the encoded size of every stored value as cache.value.size{cache}
+ * The writer is the only layer that sees both the cache name and the serialized bytes.
+ */
+public class MeteredRedisCacheWriter implements RedisCacheWriter {
+
+    private static final double[] SIZE_BUCKETS = {256, 1024, 4096, 16384, 65536, 262144, 1048576};
+
+    private final RedisCacheWriter delegate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> sizeSummaries;
+
+    public MeteredRedisCacheWriter(RedisCacheWriter delegate, MeterRegistry meterRegistry) {
+        this(delegate, meterRegistry, new ConcurrentHashMap<>());
+    }
+
+    private MeteredRedisCacheWriter(RedisCacheWriter delegate, MeterRegistry meterRegistry,
+                                    Map<String, DistributionSummary> sizeSummaries) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.sizeSummaries = sizeSummaries;
+    }
+
+    private void recordSize(String name, byte[] value) {
+        if (value == null) {
+            return;
+        }
+        sizeSummaries.computeIfAbsent(name, cacheName -> DistributionSummary.builder("cache.value.size")
+                        .description("Encoded size of values written to the Redis cache")
+                        .baseUnit("bytes")
+                        .tag("cache", cacheName)
+                        .serviceLevelObjectives(SIZE_BUCKETS)
+                        .register(meterRegistry))
+                .record(value.length);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return delegate.get(name, key, ttl);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Supplier<byte[]> valueLoader, Duration ttl, boolean timeToIdleEnabled) {
+        return delegate.get(name, key, valueLoader, ttl, timeToIdleEnabled);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key) {
+        return delegate.retrieve(name, key);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+        recordSize(name, value);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        recordSize(name, value);
+        return delegate.store(name, key, value, ttl);
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        byte[] existing = delegate.putIfAbsent(name, key, value, ttl);
+        if (existing == null) {
+            recordSize(name, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegate.remove(name, key);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegate.clean(name, pattern);
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new MeteredRedisCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector),
+                meterRegistry, sizeSummaries);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+}
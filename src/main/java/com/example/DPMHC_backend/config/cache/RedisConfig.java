@@ -6,22 +6,28 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Redis Cache Configuration
@@ -44,6 +50,36 @@ public class RedisConfig {
     @Value("${spring.data.redis.database:0}")
     private int redisDatabase;
 
+    @Value("${app.cache.l1.enabled:true}")
+    private boolean l1Enabled;
+
+    @Value("${app.cache.l1.caches:followStatus,followerCount,followingCount,user-blocks,user-mutual-blocks,user-blocked-ids,comment-counts,user-likes}")
+    private Set<String> l1CacheNames;
+
+    @Value("${app.cache.l1.max-size:10000}")
+    private long l1MaxSize;
+
+    @Value("${app.cache.l1.ttl-seconds:30}")
+    private long l1TtlSeconds;
+
+    @Value("${app.cache.tags.ttl-minutes:60}")
+    private long tagTtlMinutes;
+
+    @Value("${app.cache.generational.caches:posts,user-posts,public-posts,post-details}")
+    private Set<String> generationalCacheNames;
+
+    @Value("${app.cache.generational.refresh-seconds:5}")
+    private long generationRefreshSeconds;
+
+    @Value("${app.cache.codec:smile}")
+    private String cacheCodec;
+
+    @Value("${app.cache.codec.compression-threshold-bytes:2048}")
+    private int compressionThresholdBytes;
+
+    @Value("${app.cache.schema-version:1}")
+    private int cacheSchemaVersion;
+
     /**
      * Redis connection factory with optimized settings
      */
@@ -107,17 +143,83 @@ public class RedisConfig {
     }
 
     /**
-     * Cache manager with cache-specific TTL configurations and Java 8 time support
+     * Two-level cache manager: in-process Caffeine L1 for hot small caches in front of the Redis L2
      */
     @Bean
     @Primary
-    public CacheManager cacheManager(LettuceConnectionFactory connectionFactory, ObjectMapper redisObjectMapper) {
+    public TwoLevelCacheManager cacheManager(LettuceConnectionFactory connectionFactory, ObjectMapper redisObjectMapper,
+                                             RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
+        RedisCacheManager redisCacheManager = redisCacheManager(connectionFactory, redisObjectMapper, meterRegistry);
+
+        // Caches whose entries are indexed by tag; the key's leading ID becomes the tag ID
+        Map<String, String> tagTypesByCache = Map.of(
+                "post-comments", CacheTagIndex.TAG_POST,
+                "comment-replies", CacheTagIndex.TAG_COMMENT,
+                "comment-likes", CacheTagIndex.TAG_COMMENT,
+                "chat-messages", CacheTagIndex.TAG_CHAT,
+                "chat-lists", CacheTagIndex.TAG_USER_CHATS,
+                "message-details", CacheTagIndex.TAG_MESSAGE,
+                "user-posts", CacheTagIndex.TAG_USER_POSTS,
+                "postsByUser", CacheTagIndex.TAG_USER_POSTS);
+        CacheTagIndex tagIndex = new CacheTagIndex(redisTemplate, tagTypesByCache, Duration.ofMinutes(tagTtlMinutes));
+
+        CacheGenerationRegistry generationRegistry = new CacheGenerationRegistry(
+                redisTemplate, generationalCacheNames, Duration.ofSeconds(generationRefreshSeconds));
+
+        Set<String> l1Caches = l1Enabled ? l1CacheNames : Set.of();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(
+                redisCacheManager,
+                new CacheInvalidationPublisher(redisTemplate),
+                redisTemplate,
+                tagIndex,
+                generationRegistry,
+                meterRegistry,
+                l1Caches,
+                l1MaxSize,
+                Duration.ofSeconds(l1TtlSeconds));
+
+        log.info("🧊 Two-level cache manager configured: L1 for {} (max {}, ttl {}s), Redis L2 for all caches",
+                l1Caches, l1MaxSize, l1TtlSeconds);
+        return cacheManager;
+    }
+
+    /**
+     * Receives L1 invalidations broadcast by other nodes
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(LettuceConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(CacheInvalidationPublisher.CHANNEL));
+        return container;
+    }
+
+    /**
+     * Cache value codec: compact Smile (default) or plain JSON
+     * The RedisTemplate keeps JSON - it also carries locks, counters and tag sets that scripts read
+     */
+    private RedisSerializer<Object> cacheValueSerializer(ObjectMapper redisObjectMapper) {
+        if ("json".equalsIgnoreCase(cacheCodec)) {
+            log.info("📝 Cache values encoded as JSON");
+            return new GenericJackson2JsonRedisSerializer(redisObjectMapper);
+        }
+        log.info("📦 Cache values encoded as Smile v{} schema {} (deflate above {} bytes)",
+                CompactCacheSerializer.FORMAT_VERSION, cacheSchemaVersion, compressionThresholdBytes);
+        return new CompactCacheSerializer(redisObjectMapper, compressionThresholdBytes, cacheSchemaVersion);
+    }
+
+    /**
+     * Redis L2 cache manager with cache-specific TTL configurations and Java 8 time support
+     */
+    private RedisCacheManager redisCacheManager(LettuceConnectionFactory connectionFactory, ObjectMapper redisObjectMapper,
+                                                MeterRegistry meterRegistry) {
         // Default cache configuration with socialmedia prefix and Java 8 time support (reduced TTL for memory optimization)
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .serializeKeysWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
                         .fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer(redisObjectMapper)))
+                        .fromSerializer(cacheValueSerializer(redisObjectMapper)))
                 .entryTtl(Duration.ofMinutes(10))  // Reduced from 30 to 10 minutes
                 .prefixCacheNameWith("socialmedia:")
                 .disableCachingNullValues();
@@ -177,10 +279,17 @@ public class RedisConfig {
         cacheConfigurations.put("system-stats", defaultConfig.entryTtl(Duration.ofMinutes(10)));
         cacheConfigurations.put("admin-data", defaultConfig.entryTtl(Duration.ofMinutes(30)));
 
-        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
+        // SCAN-based clean() instead of KEYS; per-cache statistics feed the cache.* meters bound by TwoLevelCacheManager
+        RedisCacheWriter cacheWriter = new MeteredRedisCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000)),
+                meterRegistry);
+
+        RedisCacheManager cacheManager = RedisCacheManager.builder(cacheWriter)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
+                .enableStatistics()
                 .build();
+        cacheManager.afterPropertiesSet(); // Not a bean of its own - load the initial cache configurations here
 
         log.info("🏗️ Redis cache manager configured with {} cache types", cacheConfigurations.size());
         return cacheManager;
@@ -0,0 +1,183 @@
+package com.example.DPMHC_backend.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache with a bounded in-process L1 (Caffeine) in front of the Redis L2 cache.
+ * Reads try L1, then L2 (populating L1); writes and evictions go to both levels and
+ * broadcast an invalidation so other nodes drop their L1 copy.
+ * L1 keys are the string form of the cache key, matching how RedisCache builds its keys.
+ */
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final Cache l2;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> l1;
+    private final CacheInvalidationPublisher invalidationPublisher;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+
+    public TwoLevelCache(String name, Cache l2, com.github.benmanes.caffeine.cache.Cache<String, Object> l1,
+                         CacheInvalidationPublisher invalidationPublisher, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.l2 = l2;
+        this.l1 = l1;
+        this.invalidationPublisher = invalidationPublisher;
+        this.l1Hits = counter(meterRegistry, "l1", "hit");
+        this.l1Misses = counter(meterRegistry, "l1", "miss");
+        this.l2Hits = counter(meterRegistry, "l2", "hit");
+        this.l2Misses = counter(meterRegistry, "l2", "miss");
+        Gauge.builder("cache.l1.size", l1, cache -> cache.estimatedSize())
+                .description("Entries held in the in-process L1 cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("cache.level.gets")
+                .description("Two-level cache lookups by level and outcome")
+                .tag("cache", name)
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l2.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String l1Key = l1Key(key);
+        Object local = l1.getIfPresent(l1Key);
+        if (local != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(local);
+        }
+        l1Misses.increment();
+
+        ValueWrapper remote = l2.get(key);
+        if (remote != null && remote.get() != null) {
+            l2Hits.increment();
+            l1.put(l1Key, remote.get());
+        } else {
+            l2Misses.increment();
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String l1Key = l1Key(key);
+        Object local = l1.getIfPresent(l1Key);
+        if (local != null) {
+            l1Hits.increment();
+            return (T) local;
+        }
+        l1Misses.increment();
+
+        T value = l2.get(key, valueLoader);
+        if (value != null) {
+            l1.put(l1Key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        l2.put(key, value);
+        String l1Key = l1Key(key);
+        if (value != null) {
+            l1.put(l1Key, value);
+        }
+        invalidationPublisher.publishEvict(name, l1Key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = l2.putIfAbsent(key, value);
+        String l1Key = l1Key(key);
+        Object current = existing != null ? existing.get() : value;
+        if (current != null) {
+            l1.put(l1Key, current);
+        }
+        if (existing == null) {
+            invalidationPublisher.publishEvict(name, l1Key);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        String l1Key = l1Key(key);
+        l1.invalidate(l1Key);
+        invalidationPublisher.publishEvict(name, l1Key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = l2.evictIfPresent(key);
+        String l1Key = l1Key(key);
+        l1.invalidate(l1Key);
+        invalidationPublisher.publishEvict(name, l1Key);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        l1.invalidateAll();
+        invalidationPublisher.publishClear(name);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = l2.invalidate();
+        l1.invalidateAll();
+        invalidationPublisher.publishClear(name);
+        return invalidated;
+    }
+
+    /**
+     * Apply an invalidation received from another node - L1 only, L2 is shared
+     */
+    void invalidateLocal(String l1Key) {
+        if (l1Key == null) {
+            l1.invalidateAll();
+        } else {
+            l1.invalidate(l1Key);
+        }
+    }
+
+    static String l1Key(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.DPMHC_backend.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Composite cache manager: Redis stays the shared L2, and caches listed in app.cache.l1.caches
+ * get a size-bounded, TTL'd Caffeine L1 in front of it. Other caches are served by Redis directly.
+ * Generational caches carry a namespace generation in every key so clear() is a single INCR.
+ * Caches with a tag type are wrapped so their entries are indexed for {@link #evictTag(String)}.
+ * Also listens on the invalidation channel and drops L1 entries changed on other nodes.
+ * Every Redis cache is bound to the standard cache.gets/puts/evictions meters as it is created.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager l2CacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheTagIndex tagIndex;
+    private final CacheGenerationRegistry generationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> l1CacheNames;
+    private final long l1MaxSize;
+    private final Duration l1Ttl;
+
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private final Map<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+    private final Map<String, RedisCache> redisCaches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager l2CacheManager,
+                                CacheInvalidationPublisher invalidationPublisher,
+                                RedisTemplate<String, Object> redisTemplate,
+                                CacheTagIndex tagIndex,
+                                CacheGenerationRegistry generationRegistry,
+                                MeterRegistry meterRegistry,
+                                Set<String> l1CacheNames,
+                                long l1MaxSize,
+                                Duration l1Ttl) {
+        this.l2CacheManager = l2CacheManager;
+        this.invalidationPublisher = invalidationPublisher;
+        this.redisTemplate = redisTemplate;
+        this.tagIndex = tagIndex;
+        this.generationRegistry = generationRegistry;
+        this.meterRegistry = meterRegistry;
+        this.l1CacheNames = l1CacheNames;
+        this.l1MaxSize = l1MaxSize;
+        this.l1Ttl = l1Ttl;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::buildCache);
+    }
+
+    private Cache buildCache(String name) {
+        Cache cache = l2CacheManager.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        if (cache instanceof RedisCache redisCache) {
+            redisCaches.put(name, redisCache);
+            new RedisCacheMetrics(redisCache, Tags.of("cacheManager", "cacheManager")).bindTo(meterRegistry);
+        }
+        if (l1CacheNames.contains(name)) {
+            TwoLevelCache twoLevelCache = new TwoLevelCache(
+                    name,
+                    cache,
+                    Caffeine.newBuilder()
+                            .maximumSize(l1MaxSize)
+                            .expireAfterWrite(l1Ttl)
+                            .build(),
+                    invalidationPublisher,
+                    meterRegistry);
+            twoLevelCaches.put(name, twoLevelCache);
+            cache = twoLevelCache;
+        }
+        if (generationRegistry.isGenerational(name)) {
+            cache = new GenerationalCache(cache, generationRegistry, invalidationPublisher);
+        }
+        if (tagIndex.isTagged(name)) {
+            cache = new TaggingCache(cache, tagIndex);
+        }
+        return cache;
+    }
+
+    /**
+     * Evict every entry indexed under the tag (e.g. "post:42") across all tagged caches
+     *
+     * @return number of entries evicted
+     */
+    public int evictTag(String tag) {
+        Set<Object> members = tagIndex.members(tag);
+        int evicted = 0;
+        for (Object member : members) {
+            String cacheName = CacheTagIndex.cacheNameOf(member.toString());
+            String key = CacheTagIndex.keyOf(member.toString());
+            Cache cache = cacheName != null ? getCache(cacheName) : null;
+            if (cache != null) {
+                cache.evict(key);
+                evicted++;
+            }
+        }
+        tagIndex.remove(tag, members);
+        log.debug("Evicted {} cache entries tagged {}", evicted, tag);
+        return evicted;
+    }
+
+    /**
+     * Redis-level statistics (gets, hits, misses, puts, deletes) of a cache, null if it is not a Redis cache
+     */
+    public CacheStatistics getStatistics(String name) {
+        getCache(name);
+        RedisCache redisCache = redisCaches.get(name);
+        return redisCache != null ? redisCache.getStatistics() : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return l2CacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (!(body instanceof Map<?, ?> payload)) {
+                return;
+            }
+            if (invalidationPublisher.getNodeId().equals(payload.get(CacheInvalidationPublisher.FIELD_ORIGIN))) {
+                return;
+            }
+            String cacheName = String.valueOf(payload.get(CacheInvalidationPublisher.FIELD_CACHE));
+            Object key = payload.get(CacheInvalidationPublisher.FIELD_KEY);
+            if (key == null && generationRegistry.isGenerational(cacheName)) {
+                generationRegistry.refresh(cacheName);
+            }
+            TwoLevelCache cache = twoLevelCaches.get(cacheName);
+            if (cache != null) {
+                cache.invalidateLocal(key != null ? key.toString() : null);
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+        }
+    }
+}
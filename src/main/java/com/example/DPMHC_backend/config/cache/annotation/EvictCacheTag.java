@@ -0,0 +1,25 @@
+package com.example.DPMHC_backend.config.cache.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Evict every cached entry registered under a tag (e.g. all cached pages of post 42)
+ * once the annotated method returns successfully - after commit when a transaction is active.
+ * The tag is {@code type + ":" + id}; a null id skips the eviction.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(EvictCacheTags.class)
+@Documented
+public @interface EvictCacheTag {
+
+    /**
+     * Tag type, one of the types in {@link com.example.DPMHC_backend.config.cache.CacheTagIndex}
+     */
+    String type();
+
+    /**
+     * SpEL expression for the tagged ID; method parameters and #result are available
+     */
+    String id();
+}
@@ -0,0 +1,14 @@
+package com.example.DPMHC_backend.config.cache.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Container for repeated {@link EvictCacheTag} annotations
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EvictCacheTags {
+
+    EvictCacheTag[] value();
+}
@@ -1,5 +1,6 @@
 package com.example.DPMHC_backend.config.database;
 
+import com.example.DPMHC_backend.config.cache.HibernateCacheConfig;
 import com.example.DPMHC_backend.config.database.health.DatabaseHealthMonitor;
 import com.example.DPMHC_backend.config.database.DatabaseProperties;
 import com.example.DPMHC_backend.config.database.routing.RoutingDataSource;
@@ -7,6 +8,9 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,10 +18,12 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import jakarta.persistence.EntityManagerFactory;
+import javax.cache.CacheManager;
 import javax.sql.DataSource;
 import java.util.HashMap;
 import java.util.Map;
@@ -37,6 +43,9 @@ public class DatabaseConfiguration {
     private final DatabaseProperties databaseProperties;
     private final DatabaseHealthMonitor healthMonitor;
     
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
     /**
      * Create master database connection pool
      */
@@ -103,7 +112,12 @@ public class DatabaseConfiguration {
         Map<DatabaseType, DataSource> dataSources = new HashMap<>();
         
         if (databaseProperties.getSlaves() != null) {
-            for (int i = 0; i < databaseProperties.getSlaves().size() && i < 2; i++) {
+            if (databaseProperties.getSlaves().size() > DatabaseType.MAX_SLAVES) {
+                log.warn("{} slaves configured, only the first {} are used", 
+                        databaseProperties.getSlaves().size(), DatabaseType.MAX_SLAVES);
+            }
+            
+            for (int i = 0; i < databaseProperties.getSlaves().size() && i < DatabaseType.MAX_SLAVES; i++) {
                 DatabaseProperties.Slave slave = databaseProperties.getSlaves().get(i);
                 
                 if (slave.isEnabled()) {
@@ -150,7 +164,9 @@ public class DatabaseConfiguration {
                     DatabaseType dbType = DatabaseType.getSlaveType(i);
                     config.setPoolName(slave.getName() != null ? slave.getName() : dbType.name() + "CP");
                     
-                    dataSources.put(dbType, new HikariDataSource(config));
+                    HikariDataSource pool = new HikariDataSource(config);
+                    // Replica pools are not beans, so the virtual-thread connection limit is applied here
+                    dataSources.put(dbType, virtualThreads ? ConnectionLimitingDataSource.forPool(pool) : pool);
                     log.info("Created slave connection pool: {}", dbType);
                 }
             }
@@ -207,7 +223,8 @@ public class DatabaseConfiguration {
      */
     @Bean
     @Primary
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(ConfigurableListableBeanFactory beanFactory,
+                                                                       CacheManager hibernateJCacheManager) {
         log.info("Creating entity manager factory");
         
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
@@ -234,12 +251,14 @@ public class DatabaseConfiguration {
         properties.setProperty("hibernate.connection.autocommit", "false");
         properties.setProperty("hibernate.current_session_context_class", "org.springframework.orm.hibernate5.SpringSessionContext");
         
-        // Cache settings
-        properties.setProperty("hibernate.cache.use_second_level_cache", "false");
-        properties.setProperty("hibernate.cache.use_query_cache", "false");
-        
         em.setJpaProperties(properties);
         
+        // Let Hibernate obtain entity listeners (e.g. UserAuthorityListener) as Spring beans
+        em.getJpaPropertyMap().put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory));
+        
+        // Cache settings: entity L2 regions as in the auto-configured factory, query cache off
+        HibernateCacheConfig.applySecondLevelCache(em.getJpaPropertyMap(), hibernateJCacheManager);
+        
         return em;
     }
     
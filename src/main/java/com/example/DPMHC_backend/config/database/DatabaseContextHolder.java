@@ -4,6 +4,10 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Thread-local storage for database routing context
+ * Works as-is on virtual threads, which each carry their own thread locals. A request or task started on a
+ * fresh virtual thread also starts with an empty context, so a routing or user context left behind cannot
+ * leak into the next request the way it can on pooled worker threads. ScopedValue would bound the context
+ * lexically but is still a preview API in Java 21.
  */
 @Slf4j
 public class DatabaseContextHolder {
@@ -16,7 +20,6 @@ public class DatabaseContextHolder {
      * Set the database type for current thread
      */
     public static void setDatabaseType(DatabaseType databaseType) {
-        log.debug("Switching to database: {}", databaseType);
         contextHolder.set(databaseType);
     }
     
@@ -19,6 +19,7 @@ public class DatabaseProperties {
     private ConnectionPool connectionPool;
     private HealthCheck healthCheck;
     private LoadBalancing loadBalancing;
+    private Replication replication = new Replication();
     
     @Data
     public static class Master {
@@ -70,7 +71,17 @@ public class DatabaseProperties {
     public static class LoadBalancing {
         private String defaultStrategy = "ROUND_ROBIN";
         private boolean userSpecificRouting = true;
-        private long userAffinityTimeoutMs = 300000; // 5 minutes
         private boolean enableMetrics = true;
+        private int virtualNodesPerReplica = 100; // points per replica on the user affinity hash ring
+        private long latencyDecayMs = 5000; // time constant of the per-replica latency EWMA
     }
-}
\ No newline at end of file
+    
+    @Data
+    public static class Replication {
+        private boolean lagCheckEnabled = true;
+        private long lagCheckIntervalMs = 1000;
+        private long maxLagMs = 2000; // replicas further behind get no reads
+        private String heartbeatTable = "replication_heartbeat";
+        private long readYourWritesWindowMs = 5000; // after a write, the user's reads need a caught-up replica
+    }
+}
@@ -2,28 +2,39 @@ package com.example.DPMHC_backend.config.database;
 
 /**
  * Enum to represent different database types in master-slave configuration
+ * Slaves are numbered in the order of app.database.slaves, so adding a replica is a configuration change only.
  */
 public enum DatabaseType {
     MASTER,
     SLAVE_1,
-    SLAVE_2;
+    SLAVE_2,
+    SLAVE_3,
+    SLAVE_4,
+    SLAVE_5,
+    SLAVE_6,
+    SLAVE_7,
+    SLAVE_8;
     
     /**
-     * Get database type based on routing decision
+     * Highest number of replicas that can be configured
+     */
+    public static final int MAX_SLAVES = values().length - 1;
+    
+    /**
+     * Get the slave type for a zero-based index into app.database.slaves
      */
     public static DatabaseType getSlaveType(int slaveIndex) {
-        return switch (slaveIndex) {
-            case 0 -> SLAVE_1;
-            case 1 -> SLAVE_2;
-            default -> SLAVE_1; // Default fallback
-        };
+        if (slaveIndex < 0 || slaveIndex >= MAX_SLAVES) {
+            throw new IllegalArgumentException("Slave index " + slaveIndex + " out of range, at most " + MAX_SLAVES + " slaves");
+        }
+        return values()[slaveIndex + 1];
     }
     
     /**
      * Check if this is a slave database
      */
     public boolean isSlave() {
-        return this == SLAVE_1 || this == SLAVE_2;
+        return this != MASTER;
     }
     
     /**
@@ -32,4 +43,4 @@ public enum DatabaseType {
     public boolean isMaster() {
         return this == MASTER;
     }
-}
\ No newline at end of file
+}
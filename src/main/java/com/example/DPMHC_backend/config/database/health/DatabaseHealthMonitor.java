@@ -3,6 +3,8 @@ package com.example.DPMHC_backend.config.database.health;
 import com.example.DPMHC_backend.config.database.DatabaseProperties;
 import com.example.DPMHC_backend.config.database.DatabaseType;
 import com.example.DPMHC_backend.config.database.routing.DatabaseLoadBalancer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
@@ -12,13 +14,20 @@ import org.springframework.stereotype.Service;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for monitoring database health and managing failover
+ * Also measures replication lag with a heartbeat row: master stamps NOW(6) every lag-check interval and each
+ * replica's lag is how far its replicated copy of the stamp is behind the previous one master wrote. Both values
+ * come from master's clock, so clock skew between the servers and this node does not enter the comparison.
  * Only enabled for development profile (master-slave setup)
  */
 @Service
@@ -29,11 +38,14 @@ public class DatabaseHealthMonitor {
     
     private final DatabaseLoadBalancer loadBalancer;
     private final DatabaseProperties databaseProperties;
+    private final MeterRegistry meterRegistry;
     
     private Map<DatabaseType, DataSource> dataSources;
     private final Map<DatabaseType, AtomicInteger> failureCount = new ConcurrentHashMap<>();
     private final Map<DatabaseType, AtomicInteger> recoveryCount = new ConcurrentHashMap<>();
     private final Map<DatabaseType, Long> lastHealthCheckTime = new ConcurrentHashMap<>();
+    private volatile boolean heartbeatTableReady = false;
+    private volatile Long lastMasterStamp;
     
     /**
      * Initialize health monitoring for all databases
@@ -45,6 +57,14 @@ public class DatabaseHealthMonitor {
             failureCount.put(type, new AtomicInteger(0));
             recoveryCount.put(type, new AtomicInteger(0));
             lastHealthCheckTime.put(type, System.currentTimeMillis());
+            if (type.isSlave() && dataSources.containsKey(type)) {
+                Gauge.builder("db.replication.lag", loadBalancer,
+                                lb -> lb.getReplicationLag(type) != null ? lb.getReplicationLag(type) : Double.NaN)
+                        .description("Replication lag of a replica in milliseconds")
+                        .baseUnit("milliseconds")
+                        .tag("database", type.name())
+                        .register(meterRegistry);
+            }
         }
         
         log.info("Database health monitoring initialized for {} databases", dataSources.size());
@@ -70,6 +90,100 @@ public class DatabaseHealthMonitor {
         }
     }
     
+    /**
+     * Scheduled replication lag measurement for all replicas
+     */
+    @Scheduled(fixedDelayString = "#{@databaseProperties.replication.lagCheckIntervalMs}")
+    public void measureReplicationLag() {
+        if (dataSources == null || !databaseProperties.getReplication().isLagCheckEnabled()) {
+            return;
+        }
+        
+        // Replicas are compared with the previous stamp, which a healthy replica has had a whole interval to replay
+        Long previousStamp = lastMasterStamp;
+        lastMasterStamp = writeHeartbeat(dataSources.get(DatabaseType.MASTER));
+        if (previousStamp == null || lastMasterStamp == null) {
+            return;
+        }
+        
+        for (Map.Entry<DatabaseType, DataSource> entry : dataSources.entrySet()) {
+            DatabaseType type = entry.getKey();
+            if (!type.isSlave() || !loadBalancer.isHealthy(type)) {
+                continue;
+            }
+            Long replicaStamp = readHeartbeat(type, entry.getValue());
+            if (replicaStamp != null) {
+                loadBalancer.updateReplicationLag(type, Math.max(0, previousStamp - replicaStamp), replicaStamp);
+            } else {
+                loadBalancer.clearReplicationLag(type);
+            }
+        }
+    }
+    
+    /**
+     * Stamp the heartbeat row on master, creating the table on first use
+     * Returns the stamp as master wrote it (epoch ms on master's clock), null when it could not be written.
+     * The stamp was taken after startedAt on our clock, which bounds master's clock offset from above.
+     */
+    private Long writeHeartbeat(DataSource master) {
+        if (master == null) {
+            return null;
+        }
+        String table = databaseProperties.getReplication().getHeartbeatTable();
+        
+        try (Connection connection = master.getConnection(); Statement statement = connection.createStatement()) {
+            if (!heartbeatTableReady) {
+                statement.execute("CREATE TABLE IF NOT EXISTS " + table +
+                        " (id INT PRIMARY KEY, ts TIMESTAMP(6) NOT NULL)");
+                heartbeatTableReady = true;
+            }
+            long startedAt = System.currentTimeMillis();
+            statement.executeUpdate("REPLACE INTO " + table + " (id, ts) VALUES (1, NOW(6))");
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            Long stamp = selectHeartbeat(connection);
+            if (stamp != null) {
+                loadBalancer.updateMasterClockOffset(stamp - startedAt);
+            }
+            return stamp;
+        } catch (SQLException e) {
+            log.warn("Could not write replication heartbeat: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Heartbeat stamp a replica has replayed, null when it cannot be read (e.g. heartbeat not replicated yet)
+     * The query's round trip, timed once a connection is in hand, is the replica's latency sample for balancing.
+     */
+    private Long readHeartbeat(DatabaseType type, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            long startNanos = System.nanoTime();
+            Long stamp = selectHeartbeat(connection);
+            loadBalancer.recordLatency(type, System.nanoTime() - startNanos);
+            return stamp;
+        } catch (SQLException e) {
+            log.debug("Could not read replication heartbeat on {}: {}", type, e.getMessage());
+            return null;
+        }
+    }
+    
+    private Long selectHeartbeat(Connection connection) throws SQLException {
+        String table = databaseProperties.getReplication().getHeartbeatTable();
+        
+        try (PreparedStatement statement = connection.prepareStatement("SELECT ts FROM " + table + " WHERE id = 1")) {
+            statement.setQueryTimeout(databaseProperties.getHealthCheck().getTimeoutMs() / 1000);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                Timestamp stamp = resultSet.getTimestamp(1);
+                return stamp != null ? stamp.getTime() : null;
+            }
+        }
+    }
+    
     /**
      * Check health of a specific database
      */
@@ -173,6 +287,7 @@ public class DatabaseHealthMonitor {
                 .recoveryCount(recoveryCount.getOrDefault(type, new AtomicInteger(0)).get())
                 .lastHealthCheckTime(lastHealthCheckTime.getOrDefault(type, 0L))
                 .connectionCount(loadBalancer.getConnectionCount(type))
+                .replicationLagMs(loadBalancer.getReplicationLag(type))
                 .build();
     }
     
@@ -182,7 +297,7 @@ public class DatabaseHealthMonitor {
     public Map<DatabaseType, HealthStats> getAllHealthStats() {
         Map<DatabaseType, HealthStats> stats = new ConcurrentHashMap<>();
         
-        for (DatabaseType type : DatabaseType.values()) {
+        for (DatabaseType type : dataSources != null ? dataSources.keySet() : List.of(DatabaseType.MASTER)) {
             stats.put(type, getHealthStats(type));
         }
         
@@ -229,5 +344,6 @@ public class DatabaseHealthMonitor {
         private long lastHealthCheckTime;
         private int connectionCount;
         private long responseTimeMs;
+        private Long replicationLagMs;
     }
 }
\ No newline at end of file
@@ -8,8 +8,11 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * REST controller for database monitoring and management
@@ -33,8 +36,7 @@ public class DatabaseMonitoringController {
         Map<DatabaseType, DatabaseHealthMonitor.HealthStats> allStats = healthMonitor.getAllHealthStats();
         
         boolean masterHealthy = loadBalancer.isHealthy(DatabaseType.MASTER);
-        boolean anySlavesHealthy = loadBalancer.isHealthy(DatabaseType.SLAVE_1) || 
-                                 loadBalancer.isHealthy(DatabaseType.SLAVE_2);
+        boolean anySlavesHealthy = loadBalancer.getReplicas().stream().anyMatch(loadBalancer::isHealthy);
         
         response.put("overall_status", masterHealthy && anySlavesHealthy ? "HEALTHY" : 
                     masterHealthy ? "DEGRADED" : "CRITICAL");
@@ -98,6 +100,9 @@ public class DatabaseMonitoringController {
         
         response.put("connection_counts", loadBalancer.getAllConnectionCounts());
         response.put("health_statuses", loadBalancer.getAllHealthStatuses());
+        response.put("latency_ewma_ms", loadBalancer.getReplicas().stream()
+                .filter(type -> loadBalancer.getLatencyEwmaMs(type) != null)
+                .collect(Collectors.toMap(type -> type, loadBalancer::getLatencyEwmaMs)));
         response.put("timestamp", System.currentTimeMillis());
         
         return ResponseEntity.ok(response);
@@ -126,19 +131,12 @@ public class DatabaseMonitoringController {
     
     /**
      * Clear user affinity mappings (for load balancer reset)
+     * Affinity now comes from a consistent hash ring and keeps no per-user state, so there is nothing to clear.
      */
     @PostMapping("/load-balancing/clear-affinity")
     public ResponseEntity<Map<String, Object>> clearUserAffinity(@RequestParam(required = false) String userId) {
-        if (userId != null) {
-            loadBalancer.clearUserAffinity(userId);
-        } else {
-            // Clear all user affinities - would need method in loadBalancer
-        }
-        
         Map<String, Object> response = new HashMap<>();
-        response.put("message", userId != null ? 
-                    "Cleared affinity for user: " + userId : 
-                    "Cleared all user affinities");
+        response.put("message", "User affinity is derived from consistent hashing, nothing to clear");
         response.put("timestamp", System.currentTimeMillis());
         
         return ResponseEntity.ok(response);
@@ -151,7 +149,10 @@ public class DatabaseMonitoringController {
     public ResponseEntity<Map<String, Object>> getDatabaseConfig() {
         Map<String, Object> response = new HashMap<>();
         
-        response.put("databases", new String[]{"MASTER", "SLAVE_1", "SLAVE_2"});
+        List<DatabaseType> databases = new ArrayList<>();
+        databases.add(DatabaseType.MASTER);
+        databases.addAll(loadBalancer.getReplicas());
+        response.put("databases", databases);
         response.put("load_balancing_strategies", new String[]{
             "ROUND_ROBIN", "USER_SPECIFIC", "LEAST_CONNECTIONS", "HEALTH_BASED"
         });
@@ -1,70 +1,125 @@
 package com.example.DPMHC_backend.config.database.routing;
 
+import com.example.DPMHC_backend.config.database.DatabaseProperties;
 import com.example.DPMHC_backend.config.database.DatabaseType;
 import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 /**
  * Load balancer for distributing read operations across slave databases
+ * Works over however many replicas app.database.slaves enables. Replicas that are down or lag more than
+ * app.database.replication.max-lag-ms receive no reads. Read latency per replica is tracked as an EWMA of the
+ * heartbeat probe's query round trip, which unlike whole service calls measures only the database. HEALTH_BASED
+ * picks the better of two random replicas by latency times in-flight reads, and USER_SPECIFIC places users on a
+ * consistent hash ring so adding or losing a replica only moves its own share.
  * Only enabled for development profile (master-slave setup)
  */
 @Component
 @Profile("dev")
+@RequiredArgsConstructor
 @Slf4j
 public class DatabaseLoadBalancer {
     
+    private final DatabaseProperties databaseProperties;
+    
     private final AtomicInteger roundRobinCounter = new AtomicInteger(0);
-    private final Map<String, Integer> userAffinityMap = new ConcurrentHashMap<>();
     private final Map<DatabaseType, Integer> connectionCounts = new ConcurrentHashMap<>();
     private final Map<DatabaseType, Boolean> healthStatus = new ConcurrentHashMap<>();
+    private final Map<DatabaseType, Long> replicationLagMs = new ConcurrentHashMap<>();
+    private final Map<DatabaseType, Long> appliedUpTo = new ConcurrentHashMap<>();
+    private final Map<DatabaseType, LatencyEwma> latencies = new ConcurrentHashMap<>();
+    private volatile long masterClockOffsetMs = 0L;
+    
+    private List<DatabaseType> replicas = List.of();
+    private NavigableMap<Integer, DatabaseType> affinityRing = new TreeMap<>();
     
-    // Initialize health status
-    {
-        healthStatus.put(DatabaseType.SLAVE_1, true);
-        healthStatus.put(DatabaseType.SLAVE_2, true);
-        connectionCounts.put(DatabaseType.SLAVE_1, 0);
-        connectionCounts.put(DatabaseType.SLAVE_2, 0);
+    /**
+     * Register the enabled replicas, numbered in configuration order like the connection pools
+     */
+    @PostConstruct
+    public void init() {
+        List<DatabaseType> configured = new ArrayList<>();
+        List<DatabaseProperties.Slave> slaves = databaseProperties.getSlaves();
+        if (slaves != null) {
+            for (int i = 0; i < slaves.size() && i < DatabaseType.MAX_SLAVES; i++) {
+                if (slaves.get(i).isEnabled()) {
+                    configured.add(DatabaseType.getSlaveType(i));
+                }
+            }
+        }
+        
+        NavigableMap<Integer, DatabaseType> ring = new TreeMap<>();
+        int virtualNodes = Math.max(1, databaseProperties.getLoadBalancing().getVirtualNodesPerReplica());
+        for (DatabaseType type : configured) {
+            healthStatus.put(type, true);
+            connectionCounts.put(type, 0);
+            latencies.put(type, new LatencyEwma());
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(mix((type.name() + "#" + i).hashCode()), type);
+            }
+        }
+        
+        replicas = List.copyOf(configured);
+        affinityRing = ring;
+        log.info("Load balancing reads across {} replicas: {}", replicas.size(), replicas);
     }
     
     /**
      * Select appropriate slave database based on strategy
      */
     public DatabaseType selectSlave(ReadOnlyDB.LoadBalanceStrategy strategy, String userId) {
-        // Check if any slaves are healthy
-        if (!isAnySlaveHealthy()) {
-            log.warn("No healthy slaves available, falling back to master");
+        return selectSlave(strategy, userId, this::isEligible);
+    }
+    
+    /**
+     * Select a slave that has replayed every write committed up to writtenAt (master clock, epoch ms), master if none has
+     */
+    public DatabaseType selectCaughtUpSlave(ReadOnlyDB.LoadBalanceStrategy strategy, String userId, long writtenAt) {
+        return selectSlave(strategy, userId, type -> isCaughtUp(type, writtenAt));
+    }
+    
+    private DatabaseType selectSlave(ReadOnlyDB.LoadBalanceStrategy strategy, String userId, Predicate<DatabaseType> usable) {
+        // Check if any slaves are usable
+        if (replicas.stream().noneMatch(usable)) {
+            log.debug("No usable slaves available, falling back to master");
             return DatabaseType.MASTER;
         }
         
         return switch (strategy) {
-            case ROUND_ROBIN -> roundRobinSelection();
-            case USER_SPECIFIC -> userSpecificSelection(userId);
-            case LEAST_CONNECTIONS -> leastConnectionsSelection();
-            case HEALTH_BASED -> healthBasedSelection();
+            case ROUND_ROBIN -> roundRobinSelection(usable);
+            case USER_SPECIFIC -> userSpecificSelection(userId, usable);
+            case LEAST_CONNECTIONS -> leastConnectionsSelection(usable);
+            case HEALTH_BASED -> healthBasedSelection(usable);
         };
     }
     
     /**
      * Round robin selection between healthy slaves
      */
-    private DatabaseType roundRobinSelection() {
-        int attempts = 0;
-        while (attempts < 2) { // Max 2 attempts to find healthy slave
-            int index = roundRobinCounter.getAndIncrement() % 2;
-            DatabaseType selectedType = DatabaseType.getSlaveType(index);
+    private DatabaseType roundRobinSelection(Predicate<DatabaseType> usable) {
+        int size = replicas.size();
+        for (int attempts = 0; attempts < size; attempts++) { // At most one pass over the replicas
+            DatabaseType selectedType = replicas.get(Math.floorMod(roundRobinCounter.getAndIncrement(), size));
             
-            if (isHealthy(selectedType)) {
+            if (usable.test(selectedType)) {
                 log.debug("Round robin selected: {}", selectedType);
                 return selectedType;
             }
-            attempts++;
         }
         
         log.warn("No healthy slaves found in round robin, falling back to master");
@@ -73,29 +128,21 @@ public class DatabaseLoadBalancer {
     
     /**
      * User-specific selection for better cache locality
+     * The user's point on the hash ring picks the replica; if it is unusable the next one clockwise takes over.
      */
-    private DatabaseType userSpecificSelection(String userId) {
+    private DatabaseType userSpecificSelection(String userId, Predicate<DatabaseType> usable) {
         if (userId == null) {
-            return roundRobinSelection();
+            return roundRobinSelection(usable);
         }
         
-        // Get or create user affinity
-        int slaveIndex = userAffinityMap.computeIfAbsent(userId, this::calculateUserAffinityIndex);
-        
-        DatabaseType selectedType = DatabaseType.getSlaveType(slaveIndex);
-        
-        if (isHealthy(selectedType)) {
-            log.debug("User {} routed to: {}", userId, selectedType);
-            return selectedType;
-        }
-        
-        // If preferred slave is unhealthy, try the other one
-        int alternativeIndex = (slaveIndex + 1) % 2;
-        DatabaseType alternativeType = DatabaseType.getSlaveType(alternativeIndex);
-        
-        if (isHealthy(alternativeType)) {
-            log.debug("User {} routed to alternative: {}", userId, alternativeType);
-            return alternativeType;
+        int point = mix(userId.hashCode());
+        for (NavigableMap<Integer, DatabaseType> arc : List.of(affinityRing.tailMap(point, true), affinityRing.headMap(point, false))) {
+            for (DatabaseType selectedType : arc.values()) {
+                if (usable.test(selectedType)) {
+                    log.debug("User {} routed to: {}", userId, selectedType);
+                    return selectedType;
+                }
+            }
         }
         
         log.warn("No healthy slaves for user {}, falling back to master", userId);
@@ -105,12 +152,12 @@ public class DatabaseLoadBalancer {
     /**
      * Select slave with least connections
      */
-    private DatabaseType leastConnectionsSelection() {
+    private DatabaseType leastConnectionsSelection(Predicate<DatabaseType> usable) {
         DatabaseType selected = null;
         int minConnections = Integer.MAX_VALUE;
         
-        for (DatabaseType type : new DatabaseType[]{DatabaseType.SLAVE_1, DatabaseType.SLAVE_2}) {
-            if (isHealthy(type)) {
+        for (DatabaseType type : replicas) {
+            if (usable.test(type)) {
                 int connections = connectionCounts.getOrDefault(type, 0);
                 if (connections < minConnections) {
                     minConnections = connections;
@@ -130,26 +177,124 @@ public class DatabaseLoadBalancer {
     
     /**
      * Health-based selection prioritizing healthier slaves
+     * Power of two choices: of two random usable replicas, take the one with the lower latency times in-flight
+     * reads. Cheaper than scanning for the global best and avoids herding onto one replica between samples.
      */
-    private DatabaseType healthBasedSelection() {
-        // For now, just return any healthy slave
-        // In production, you might want to implement more sophisticated health scoring
-        for (DatabaseType type : new DatabaseType[]{DatabaseType.SLAVE_1, DatabaseType.SLAVE_2}) {
-            if (isHealthy(type)) {
-                log.debug("Health-based selected: {}", type);
-                return type;
-            }
+    private DatabaseType healthBasedSelection(Predicate<DatabaseType> usable) {
+        List<DatabaseType> candidates = replicas.stream().filter(usable).toList();
+        if (candidates.isEmpty()) {
+            log.warn("No healthy slaves found in health-based selection, falling back to master");
+            return DatabaseType.MASTER;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
         }
         
-        log.warn("No healthy slaves found in health-based selection, falling back to master");
-        return DatabaseType.MASTER;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        DatabaseType a = candidates.get(first);
+        DatabaseType b = candidates.get(second);
+        DatabaseType selected = loadScore(a) <= loadScore(b) ? a : b;
+        
+        log.debug("Health-based selected: {} out of {} and {}", selected, a, b);
+        return selected;
+    }
+    
+    /**
+     * Expected cost of sending one more read to a replica; replicas without samples yet score 0 so they get probed
+     */
+    private double loadScore(DatabaseType type) {
+        LatencyEwma latency = latencies.get(type);
+        double latencyMs = latency != null ? latency.valueMs() : 0;
+        return latencyMs * (connectionCounts.getOrDefault(type, 0) + 1);
+    }
+    
+    /**
+     * Record the round trip of a probe query against the given database
+     */
+    public void recordLatency(DatabaseType type, long durationNanos) {
+        LatencyEwma latency = latencies.get(type);
+        if (latency != null) {
+            latency.update(durationNanos / 1_000_000.0, System.currentTimeMillis(),
+                    databaseProperties.getLoadBalancing().getLatencyDecayMs());
+        }
+    }
+    
+    public Double getLatencyEwmaMs(DatabaseType type) {
+        LatencyEwma latency = latencies.get(type);
+        return latency != null && latency.hasSamples() ? latency.valueMs() : null;
     }
     
     /**
-     * Check if any slave is healthy
+     * Replicas enabled in configuration, in configuration order
      */
-    private boolean isAnySlaveHealthy() {
-        return isHealthy(DatabaseType.SLAVE_1) || isHealthy(DatabaseType.SLAVE_2);
+    public List<DatabaseType> getReplicas() {
+        return replicas;
+    }
+    
+    /**
+     * Healthy and, when lag is known, within app.database.replication.max-lag-ms
+     */
+    public boolean isEligible(DatabaseType type) {
+        if (!isHealthy(type)) {
+            return false;
+        }
+        Long lag = replicationLagMs.get(type);
+        return lag == null || lag <= databaseProperties.getReplication().getMaxLagMs();
+    }
+    
+    /**
+     * Eligible and known to have replayed everything committed on master up to the given master clock time
+     */
+    public boolean isCaughtUp(DatabaseType type, long writtenAt) {
+        Long applied = appliedUpTo.get(type);
+        return isEligible(type) && applied != null && applied >= writtenAt;
+    }
+    
+    /**
+     * Record a replication lag measurement
+     * appliedUpTo is the master heartbeat stamp the replica has replayed, so it is on master's clock like the lag.
+     */
+    public void updateReplicationLag(DatabaseType type, long lagMs, long appliedUpTo) {
+        Long previous = replicationLagMs.put(type, lagMs);
+        this.appliedUpTo.put(type, appliedUpTo);
+        
+        long maxLag = databaseProperties.getReplication().getMaxLagMs();
+        boolean wasLagging = previous != null && previous > maxLag;
+        if (wasLagging != lagMs > maxLag) {
+            log.info("Database {} replication lag {}ms - {} reads", type, lagMs, lagMs > maxLag ? "excluded from" : "back in");
+        }
+    }
+    
+    /**
+     * Record how far master's clock is ahead of ours, measured when stamping the heartbeat
+     * The offset is an upper bound, so converted times never fall before the master time they stand for.
+     */
+    public void updateMasterClockOffset(long offsetMs) {
+        masterClockOffsetMs = offsetMs;
+    }
+    
+    /**
+     * Current time on master's clock (epoch ms), this clock until the first heartbeat has been stamped
+     */
+    public long currentMasterTime() {
+        return System.currentTimeMillis() + masterClockOffsetMs;
+    }
+    
+    /**
+     * Forget the lag of a replica whose lag could not be measured
+     */
+    public void clearReplicationLag(DatabaseType type) {
+        replicationLagMs.remove(type);
+        appliedUpTo.remove(type);
+    }
+    
+    public Long getReplicationLag(DatabaseType type) {
+        return replicationLagMs.get(type);
     }
     
     /**
@@ -192,13 +337,6 @@ public class DatabaseLoadBalancer {
         return connectionCounts.getOrDefault(type, 0);
     }
     
-    /**
-     * Clear user affinity (useful for testing or cache cleanup)
-     */
-    public void clearUserAffinity(String userId) {
-        userAffinityMap.remove(userId);
-    }
-    
     /**
      * Get all health statuses for monitoring
      */
@@ -218,8 +356,7 @@ public class DatabaseLoadBalancer {
      */
     public void resetConnectionCounts() {
         connectionCounts.clear();
-        connectionCounts.put(DatabaseType.SLAVE_1, 0);
-        connectionCounts.put(DatabaseType.SLAVE_2, 0);
+        replicas.forEach(type -> connectionCounts.put(type, 0));
         // Note: We don't reset master here as it might have ongoing connections
         log.info("Connection counts reset for testing purposes");
     }
@@ -232,14 +369,21 @@ public class DatabaseLoadBalancer {
         stats.put("databaseType", type);
         stats.put("connectionCount", getConnectionCount(type));
         stats.put("healthy", isHealthy(type));
+        stats.put("replicationLagMs", replicationLagMs.get(type));
+        stats.put("latencyEwmaMs", getLatencyEwmaMs(type));
         return stats;
     }
     
     /**
-     * Helper method to calculate user affinity index
+     * Spread String hash codes over the ring (murmur3 finalizer)
      */
-    private Integer calculateUserAffinityIndex(String userId) {
-        return Math.abs(userId.hashCode()) % 2;
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
     }
     
     /**
@@ -248,4 +392,31 @@ public class DatabaseLoadBalancer {
     private Integer safeDecrementConnection(Integer current, Integer decrement) {
         return Math.max(0, current + decrement);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Exponentially weighted moving average of read latency, decaying with time rather than sample count
+     */
+    private static final class LatencyEwma {
+        
+        private double valueMs;
+        private long updatedAt;
+        
+        private synchronized void update(double sampleMs, long now, long decayMs) {
+            if (updatedAt == 0) {
+                valueMs = sampleMs;
+            } else {
+                double weight = Math.exp(-Math.max(1, now - updatedAt) / (double) Math.max(1, decayMs));
+                valueMs = valueMs * weight + sampleMs * (1 - weight);
+            }
+            updatedAt = now;
+        }
+        
+        private synchronized double valueMs() {
+            return valueMs;
+        }
+        
+        private synchronized boolean hasSamples() {
+            return updatedAt != 0;
+        }
+    }
+}
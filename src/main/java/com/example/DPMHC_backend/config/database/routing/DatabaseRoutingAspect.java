@@ -1,23 +1,43 @@
 package com.example.DPMHC_backend.config.database.routing;
 
 import com.example.DPMHC_backend.config.database.DatabaseContextHolder;
+import com.example.DPMHC_backend.config.database.DatabaseProperties;
 import com.example.DPMHC_backend.config.database.DatabaseType;
 import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
 import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * AOP Aspect for database routing based on annotations
+ * Runs on every repository and service call, so the hot path does no reflection, string formatting or logging:
+ * pointcuts match on annotation types without binding them, which Spring AOP would otherwise re-evaluate through
+ * AspectJ reflection on every call, and the annotations are resolved once per method and target class instead.
+ * Routing telemetry goes to the db.routing timer and db.routing.fallbacks counter. Only failures are logged.
  * Only enabled for development profile (master-slave setup)
  */
 @Aspect
@@ -27,227 +47,295 @@ import java.lang.reflect.Method;
 @RequiredArgsConstructor
 @Slf4j
 public class DatabaseRoutingAspect {
-    
+
     private final DatabaseLoadBalancer loadBalancer;
-    
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final DatabaseProperties databaseProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<MethodClassKey, RoutingMetadata> routingMetadata = new ConcurrentHashMap<>();
+    private final Map<DatabaseType, Timer> readSuccessTimers = new EnumMap<>(DatabaseType.class);
+    private final Map<DatabaseType, Timer> readFailureTimers = new EnumMap<>(DatabaseType.class);
+    private Timer writeSuccessTimer;
+    private Timer writeFailureTimer;
+    private Counter unhealthyFallbacks;
+    private Counter retryFallbacks;
+    private boolean metricsEnabled;
+
     /**
-     * Intercept methods annotated with @WriteDB
+     * Register every routing meter up front so recording is a map lookup
      */
-    @Around("@annotation(writeDB)")
-    public Object routeToMasterDatabase(ProceedingJoinPoint joinPoint, WriteDB writeDB) throws Throwable {
-        String methodName = joinPoint.getSignature().toShortString();
-        log.info("🔴 WRITE Operation → Database: MASTER | Method: {}", methodName);
-        
-        DatabaseType previousType = DatabaseContextHolder.getDatabaseType();
-        long startTime = System.currentTimeMillis();
-        
-        try {
-            // Always route write operations to master
-            DatabaseContextHolder.setDatabaseType(DatabaseType.MASTER);
-            loadBalancer.incrementConnectionCount(DatabaseType.MASTER);
-            
-            Object result = joinPoint.proceed();
-            
-            long executionTime = System.currentTimeMillis() - startTime;
-            log.info("✅ WRITE Success → Database: MASTER | Method: {} | Duration: {}ms", 
-                    methodName, executionTime);
-            return result;
-            
-        } catch (Exception e) {
-            long executionTime = System.currentTimeMillis() - startTime;
-            log.error("❌ WRITE Failed → Database: MASTER | Method: {} | Duration: {}ms | Error: {}", 
-                    methodName, executionTime, e.getMessage());
-            throw e;
-        } finally {
-            loadBalancer.decrementConnectionCount(DatabaseType.MASTER);
-            
-            // Restore previous context if it was different
-            if (previousType != DatabaseType.MASTER) {
-                DatabaseContextHolder.setDatabaseType(previousType);
-            }
+    @PostConstruct
+    public void init() {
+        metricsEnabled = databaseProperties.getLoadBalancing() == null
+                || databaseProperties.getLoadBalancing().isEnableMetrics();
+
+        for (DatabaseType type : DatabaseType.values()) {
+            readSuccessTimers.put(type, routingTimer("read", type, "success"));
+            readFailureTimers.put(type, routingTimer("read", type, "failure"));
         }
+        writeSuccessTimer = routingTimer("write", DatabaseType.MASTER, "success");
+        writeFailureTimer = routingTimer("write", DatabaseType.MASTER, "failure");
+        unhealthyFallbacks = fallbackCounter("unhealthy");
+        retryFallbacks = fallbackCounter("retry");
     }
-    
+
+    /**
+     * Intercept methods annotated with @WriteDB
+     */
+    @Around("@annotation(com.example.DPMHC_backend.config.database.annotation.WriteDB)")
+    public Object routeToMasterDatabase(ProceedingJoinPoint joinPoint) throws Throwable {
+        return executeOnMaster(joinPoint);
+    }
+
     /**
      * Intercept methods annotated with @ReadOnlyDB
      */
-    @Around("@annotation(readOnlyDB)")
-    public Object routeToSlaveDatabase(ProceedingJoinPoint joinPoint, ReadOnlyDB readOnlyDB) throws Throwable {
-        String methodName = joinPoint.getSignature().toShortString();
-        
+    @Around("@annotation(com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB)")
+    public Object routeToSlaveDatabase(ProceedingJoinPoint joinPoint) throws Throwable {
+        return routeRead(joinPoint, routingOf(joinPoint).methodReadOnly());
+    }
+
+    /**
+     * Run a read on the replica the annotation's strategy picks, retrying on master if allowed
+     */
+    private Object routeRead(ProceedingJoinPoint joinPoint, ReadOnlyDB readOnlyDB) throws Throwable {
         DatabaseType previousType = DatabaseContextHolder.getDatabaseType();
         DatabaseType selectedType = null;
-        long startTime = System.currentTimeMillis();
-        
+        long startNanos = System.nanoTime();
+
         try {
             // Check if we should force read from master (for strong consistency)
             if (DatabaseContextHolder.isForceReadFromMaster()) {
                 selectedType = DatabaseType.MASTER;
-                log.info("🟡 READ Operation → Database: MASTER (Forced) | Method: {} | Strategy: FORCE_MASTER", 
-                        methodName);
             } else {
                 // Select appropriate database based on strategy
                 String userId = readOnlyDB.userSpecific() ? DatabaseContextHolder.getUserContext() : null;
-                selectedType = loadBalancer.selectSlave(readOnlyDB.strategy(), userId);
-                
+                selectedType = selectReadDatabase(readOnlyDB.strategy(), userId);
+
                 // Fallback to master if no healthy slaves and fallback is enabled
-                if (selectedType.isSlave() && !loadBalancer.isHealthy(selectedType) && readOnlyDB.fallbackToMaster()) {
+                if (selectedType.isSlave() && !loadBalancer.isEligible(selectedType) && readOnlyDB.fallbackToMaster()) {
                     selectedType = DatabaseType.MASTER;
-                    log.warn("🟠 READ Operation → Database: MASTER (Fallback) | Method: {} | Strategy: {} | Reason: Slave {} unhealthy", 
-                            methodName, readOnlyDB.strategy(), selectedType);
-                } else {
-                    String dbIcon = selectedType.isSlave() ? "🔵" : "🟡";
-                    log.info("{} READ Operation → Database: {} | Method: {} | Strategy: {}", 
-                            dbIcon, selectedType, methodName, readOnlyDB.strategy());
+                    countFallback(unhealthyFallbacks);
                 }
             }
-            
+
             DatabaseContextHolder.setDatabaseType(selectedType);
             loadBalancer.incrementConnectionCount(selectedType);
-            
+
             Object result = joinPoint.proceed();
-            
-            long executionTime = System.currentTimeMillis() - startTime;
-            String dbIcon = selectedType.isSlave() ? "🔵" : "🟡";
-            log.info("✅ READ Success → Database: {} | Method: {} | Duration: {}ms", 
-                    selectedType, methodName, executionTime);
+            record(readSuccessTimers.get(selectedType), System.nanoTime() - startNanos);
             return result;
-            
+
         } catch (Exception e) {
-            long executionTime = System.currentTimeMillis() - startTime;
-            log.error("❌ READ Failed → Database: {} | Method: {} | Duration: {}ms | Error: {}", 
-                    selectedType, methodName, executionTime, e.getMessage());
-            
+            if (selectedType != null) {
+                record(readFailureTimers.get(selectedType), System.nanoTime() - startNanos);
+            }
+            log.error("❌ READ Failed → Database: {} | Method: {} | Error: {}",
+                    selectedType, joinPoint.getSignature().toShortString(), e.getMessage());
+
             // If operation failed on slave and fallback is enabled, try master
             if (selectedType != null && selectedType.isSlave() && readOnlyDB.fallbackToMaster()) {
-                log.warn("🔄 READ Retry → Database: MASTER | Method: {} | Reason: Slave {} failed", 
-                        methodName, selectedType);
+                countFallback(retryFallbacks);
+                long retryNanos = System.nanoTime();
                 try {
                     DatabaseContextHolder.setDatabaseType(DatabaseType.MASTER);
                     Object result = joinPoint.proceed();
-                    long retryTime = System.currentTimeMillis() - startTime;
-                    log.info("✅ READ Success (Retry) → Database: MASTER | Method: {} | Total Duration: {}ms", 
-                            methodName, retryTime);
+                    record(readSuccessTimers.get(DatabaseType.MASTER), System.nanoTime() - retryNanos);
                     return result;
                 } catch (Exception masterException) {
-                    long totalTime = System.currentTimeMillis() - startTime;
-                    log.error("❌ READ Failed (Final) → Database: MASTER | Method: {} | Total Duration: {}ms | Error: {}", 
-                            methodName, totalTime, masterException.getMessage());
+                    record(readFailureTimers.get(DatabaseType.MASTER), System.nanoTime() - retryNanos);
+                    log.error("❌ READ Failed (Final) → Database: MASTER | Method: {} | Error: {}",
+                            joinPoint.getSignature().toShortString(), masterException.getMessage());
                     throw masterException;
                 }
             }
-            
+
             throw e;
         } finally {
             if (selectedType != null) {
                 loadBalancer.decrementConnectionCount(selectedType);
             }
-            
+
             // Restore previous context
             if (previousType != selectedType) {
                 DatabaseContextHolder.setDatabaseType(previousType);
             }
         }
     }
-    
+
     /**
      * Intercept class-level annotations
      */
-    @Around("@within(readOnlyDB) && execution(public * *(..))")
-    public Object routeClassLevelReadOnly(ProceedingJoinPoint joinPoint, ReadOnlyDB readOnlyDB) throws Throwable {
-        // Check if method has its own annotation (method-level takes precedence)
-        Method method = getMethod(joinPoint);
-        if (method != null && (method.isAnnotationPresent(ReadOnlyDB.class) || method.isAnnotationPresent(WriteDB.class))) {
+    @Around("@within(com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB) && execution(public * *(..))")
+    public Object routeClassLevelReadOnly(ProceedingJoinPoint joinPoint) throws Throwable {
+        RoutingMetadata routing = routingOf(joinPoint);
+        // Method-level annotation takes precedence
+        if (routing.methodLevel()) {
             return joinPoint.proceed();
         }
-        
-        return routeToSlaveDatabase(joinPoint, readOnlyDB);
-    }
-    
-    @Around("@within(writeDB) && execution(public * *(..))")
-    public Object routeClassLevelWrite(ProceedingJoinPoint joinPoint, WriteDB writeDB) throws Throwable {
-        // Check if method has its own annotation (method-level takes precedence)
-        Method method = getMethod(joinPoint);
-        if (method != null && (method.isAnnotationPresent(ReadOnlyDB.class) || method.isAnnotationPresent(WriteDB.class))) {
+
+        return routeRead(joinPoint, routing.classReadOnly());
+    }
+
+    @Around("@within(com.example.DPMHC_backend.config.database.annotation.WriteDB) && execution(public * *(..))")
+    public Object routeClassLevelWrite(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Method-level annotation takes precedence
+        if (routingOf(joinPoint).methodLevel()) {
             return joinPoint.proceed();
         }
-        
-        return routeToMasterDatabase(joinPoint, writeDB);
+
+        return executeOnMaster(joinPoint);
     }
-    
+
     /**
      * Handle transactional methods without explicit routing annotations
      */
-    @Around("@annotation(transactional) && !@annotation(com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB) && !@annotation(com.example.DPMHC_backend.config.database.annotation.WriteDB)")
-    public Object routeTransactionalMethod(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
-        String methodName = joinPoint.getSignature().toShortString();
-        long startTime = System.currentTimeMillis();
-        
+    @Around("@annotation(org.springframework.transaction.annotation.Transactional) && !@annotation(com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB) && !@annotation(com.example.DPMHC_backend.config.database.annotation.WriteDB)")
+    public Object routeTransactionalMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!routingOf(joinPoint).transactionalReadOnly()) {
+            return executeOnMaster(joinPoint);
+        }
+
         // Route based on transaction readOnly property
-        if (transactional.readOnly()) {
-            String userId = DatabaseContextHolder.getUserContext();
-            DatabaseType selectedType = loadBalancer.selectSlave(ReadOnlyDB.LoadBalanceStrategy.ROUND_ROBIN, userId);
-            
-            log.info("🔵 READ (@Transactional) → Database: {} | Method: {} | Strategy: ROUND_ROBIN", 
-                    selectedType, methodName);
-            
-            DatabaseType previousType = DatabaseContextHolder.getDatabaseType();
-            
-            try {
-                DatabaseContextHolder.setDatabaseType(selectedType);
-                loadBalancer.incrementConnectionCount(selectedType);
-                Object result = joinPoint.proceed();
-                
-                long executionTime = System.currentTimeMillis() - startTime;
-                log.info("✅ READ Success (@Transactional) → Database: {} | Method: {} | Duration: {}ms", 
-                        selectedType, methodName, executionTime);
-                return result;
-            } catch (Exception e) {
-                long executionTime = System.currentTimeMillis() - startTime;
-                log.error("❌ READ Failed (@Transactional) → Database: {} | Method: {} | Duration: {}ms | Error: {}", 
-                        selectedType, methodName, executionTime, e.getMessage());
-                throw e;
-            } finally {
-                loadBalancer.decrementConnectionCount(selectedType);
-                DatabaseContextHolder.setDatabaseType(previousType);
-            }
-        } else {
-            log.info("🔴 WRITE (@Transactional) → Database: MASTER | Method: {}", methodName);
-            
-            DatabaseType previousType = DatabaseContextHolder.getDatabaseType();
-            
-            try {
-                DatabaseContextHolder.setDatabaseType(DatabaseType.MASTER);
-                loadBalancer.incrementConnectionCount(DatabaseType.MASTER);
-                Object result = joinPoint.proceed();
-                
-                long executionTime = System.currentTimeMillis() - startTime;
-                log.info("✅ WRITE Success (@Transactional) → Database: MASTER | Method: {} | Duration: {}ms", 
-                        methodName, executionTime);
-                return result;
-            } catch (Exception e) {
-                long executionTime = System.currentTimeMillis() - startTime;
-                log.error("❌ WRITE Failed (@Transactional) → Database: MASTER | Method: {} | Duration: {}ms | Error: {}", 
-                        methodName, executionTime, e.getMessage());
-                throw e;
-            } finally {
-                loadBalancer.decrementConnectionCount(DatabaseType.MASTER);
-                DatabaseContextHolder.setDatabaseType(previousType);
-            }
+        DatabaseType selectedType = selectReadDatabase(ReadOnlyDB.LoadBalanceStrategy.ROUND_ROBIN,
+                DatabaseContextHolder.getUserContext());
+        DatabaseType previousType = DatabaseContextHolder.getDatabaseType();
+        long startNanos = System.nanoTime();
+
+        try {
+            DatabaseContextHolder.setDatabaseType(selectedType);
+            loadBalancer.incrementConnectionCount(selectedType);
+            Object result = joinPoint.proceed();
+            record(readSuccessTimers.get(selectedType), System.nanoTime() - startNanos);
+            return result;
+        } catch (Exception e) {
+            record(readFailureTimers.get(selectedType), System.nanoTime() - startNanos);
+            log.error("❌ READ Failed (@Transactional) → Database: {} | Method: {} | Error: {}",
+                    selectedType, joinPoint.getSignature().toShortString(), e.getMessage());
+            throw e;
+        } finally {
+            loadBalancer.decrementConnectionCount(selectedType);
+            DatabaseContextHolder.setDatabaseType(previousType);
         }
     }
-    
+
     /**
-     * Get method from join point
+     * Run a write on master and remember it for the user's read-your-writes window
      */
-    private Method getMethod(ProceedingJoinPoint joinPoint) {
+    private Object executeOnMaster(ProceedingJoinPoint joinPoint) throws Throwable {
+        DatabaseType previousType = DatabaseContextHolder.getDatabaseType();
+        long startNanos = System.nanoTime();
+
         try {
-            String methodName = joinPoint.getSignature().getName();
-            Class<?>[] parameterTypes = ((org.aspectj.lang.reflect.MethodSignature) joinPoint.getSignature()).getParameterTypes();
-            return joinPoint.getTarget().getClass().getDeclaredMethod(methodName, parameterTypes);
+            // Always route write operations to master
+            DatabaseContextHolder.setDatabaseType(DatabaseType.MASTER);
+            loadBalancer.incrementConnectionCount(DatabaseType.MASTER);
+
+            Object result = joinPoint.proceed();
+            recordWriteAfterCommit();
+            record(writeSuccessTimer, System.nanoTime() - startNanos);
+            return result;
+
         } catch (Exception e) {
-            log.warn("Could not get method from join point: {}", e.getMessage());
-            return null;
+            record(writeFailureTimer, System.nanoTime() - startNanos);
+            log.error("❌ WRITE Failed → Database: MASTER | Method: {} | Error: {}",
+                    joinPoint.getSignature().toShortString(), e.getMessage());
+            throw e;
+        } finally {
+            loadBalancer.decrementConnectionCount(DatabaseType.MASTER);
+            DatabaseContextHolder.setDatabaseType(previousType);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Start the read-your-writes window once the write is durable on master
+     * Inside a surrounding transaction the write only becomes visible, and replicable, when that transaction
+     * commits; without one it already has.
+     */
+    private void recordWriteAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            readYourWritesTracker.recordWrite();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWritesTracker.recordWrite();
+            }
+        });
+    }
+
+    /**
+     * Pick the database for a read; right after the user wrote, only replicas that replayed the write qualify
+     */
+    private DatabaseType selectReadDatabase(ReadOnlyDB.LoadBalanceStrategy strategy, String userId) {
+        Long writtenAt = readYourWritesTracker.recentWriteAt();
+        if (writtenAt == null) {
+            return loadBalancer.selectSlave(strategy, userId);
+        }
+        return loadBalancer.selectCaughtUpSlave(strategy, userId, writtenAt);
+    }
+
+    /**
+     * Routing annotations of the invoked method and its class, resolved once per method and target class
+     */
+    private RoutingMetadata routingOf(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        return routingMetadata.computeIfAbsent(new MethodClassKey(method, targetClass), key -> {
+            Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+            ReadOnlyDB methodReadOnly = annotation(specificMethod, method, ReadOnlyDB.class);
+            ReadOnlyDB classReadOnly = specificMethod.getDeclaringClass().getAnnotation(ReadOnlyDB.class);
+            Transactional transactional = annotation(specificMethod, method, Transactional.class);
+            return new RoutingMetadata(
+                    methodReadOnly,
+                    methodReadOnly != null || annotation(specificMethod, method, WriteDB.class) != null,
+                    classReadOnly != null ? classReadOnly : AnnotationUtils.findAnnotation(targetClass, ReadOnlyDB.class),
+                    transactional != null && transactional.readOnly());
+        });
+    }
+
+    /**
+     * Annotation on the target class's method, else on the proxied (e.g. interface) method, like the pointcuts match
+     */
+    private static <A extends Annotation> A annotation(Method specificMethod, Method method, Class<A> type) {
+        A annotation = specificMethod.getAnnotation(type);
+        return annotation != null ? annotation : method.getAnnotation(type);
+    }
+
+    private void record(Timer timer, long durationNanos) {
+        if (metricsEnabled) {
+            timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void countFallback(Counter counter) {
+        if (metricsEnabled) {
+            counter.increment();
+        }
+    }
+
+    private Timer routingTimer(String operation, DatabaseType type, String outcome) {
+        return Timer.builder("db.routing")
+                .description("Routed database calls by operation, target database and outcome")
+                .tag("operation", operation)
+                .tag("database", type.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter fallbackCounter(String reason) {
+        return Counter.builder("db.routing.fallbacks")
+                .description("Reads sent to master instead of a replica")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Per-method routing decision inputs
+     */
+    private record RoutingMetadata(ReadOnlyDB methodReadOnly, boolean methodLevel, ReadOnlyDB classReadOnly,
+                                   boolean transactionalReadOnly) {
+    }
+}
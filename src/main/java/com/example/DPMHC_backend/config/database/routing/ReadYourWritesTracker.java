@@ -0,0 +1,127 @@
+package com.example.DPMHC_backend.config.database.routing;
+
+import com.example.DPMHC_backend.config.database.DatabaseProperties;
+import com.example.DPMHC_backend.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Session consistency for replica reads
+ * Remembers when each user last wrote to master, locally and in Redis so every node sees it. Times are kept on
+ * master's clock, the same clock as the heartbeat stamps replicas are compared by, so node clock skew cannot
+ * make a replica look caught up early. For
+ * app.database.replication.read-your-writes-window-ms afterwards that user's reads go to master or to a
+ * replica known to have replayed past the write. The Redis lookup is done at most once per HTTP request.
+ * Only enabled for development profile (master-slave setup)
+ */
+@Component
+@Profile("dev")
+@RequiredArgsConstructor
+@Slf4j
+public class ReadYourWritesTracker {
+
+    private static final String LAST_WRITE_KEY = "socialmedia:db:last-write:";
+    private static final String REQUEST_ATTRIBUTE = ReadYourWritesTracker.class.getName() + ".lastWrite";
+    private static final long NO_WRITE = 0L;
+
+    private final DatabaseProperties databaseProperties;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final DatabaseLoadBalancer loadBalancer;
+
+    private Cache<String, Long> localLastWrites;
+
+    @PostConstruct
+    public void init() {
+        localLastWrites = Caffeine.newBuilder()
+                .maximumSize(100000)
+                .expireAfterWrite(Duration.ofMillis(windowMs()))
+                .build();
+    }
+
+    /**
+     * Record a committed write by the current user; called once the write's transaction has committed
+     */
+    public void recordWrite() {
+        String sessionKey = currentSessionKey();
+        if (sessionKey == null) {
+            return;
+        }
+        long now = loadBalancer.currentMasterTime();
+        localLastWrites.put(sessionKey, now);
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, now, RequestAttributes.SCOPE_REQUEST);
+        }
+        try {
+            redisTemplate.opsForValue().set(LAST_WRITE_KEY + sessionKey, now, windowMs(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.debug("Could not share last write of {}: {}", sessionKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Master clock time of the current user's last write if it is still inside the consistency window, null otherwise
+     */
+    public Long recentWriteAt() {
+        String sessionKey = currentSessionKey();
+        if (sessionKey == null) {
+            return null;
+        }
+
+        Long lastWrite = localLastWrites.getIfPresent(sessionKey);
+        if (lastWrite == null) {
+            lastWrite = sharedLastWrite(sessionKey);
+        }
+        return lastWrite != NO_WRITE && loadBalancer.currentMasterTime() - lastWrite < windowMs() ? lastWrite : null;
+    }
+
+    private long sharedLastWrite(String sessionKey) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long memo) {
+            return memo;
+        }
+
+        long lastWrite = NO_WRITE;
+        try {
+            Object shared = redisTemplate.opsForValue().get(LAST_WRITE_KEY + sessionKey);
+            if (shared instanceof Number number) {
+                lastWrite = number.longValue();
+            }
+        } catch (Exception e) {
+            log.debug("Could not read last write of {}: {}", sessionKey, e.getMessage());
+        }
+
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, lastWrite, RequestAttributes.SCOPE_REQUEST);
+        }
+        return lastWrite;
+    }
+
+    /**
+     * Authenticated user id; background work has no session to keep consistent
+     */
+    private String currentSessionKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return user.getId().toString();
+        }
+        return null;
+    }
+
+    private long windowMs() {
+        return databaseProperties.getReplication().getReadYourWritesWindowMs();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.DPMHC_backend.config.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for request rate limiting
+ * Rules are evaluated in order and the first match wins; requests matching no rule are not limited.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private boolean trustForwardedFor = false;
+    private long localMaxBuckets = 100000;
+    private long redisBackoffMs = 5000;
+    private List<Rule> http = new ArrayList<>();
+    private List<Rule> stomp = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private List<String> paths = new ArrayList<>();   // ant patterns: request URIs or STOMP destinations
+        private List<String> methods = new ArrayList<>(); // HTTP only, empty matches every method
+        private KeyType key = KeyType.USER;
+        private int capacity = 60;
+        private double refillPerSecond = 1.0;
+    }
+
+    public enum KeyType {
+        USER, // authenticated user id, client IP (or STOMP session) when anonymous
+        IP
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.DPMHC_backend.config.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token-bucket rate limiter shared by the HTTP filter and the STOMP interceptor
+ * Buckets live in Redis and are refilled and drained by one Lua script, so every node sees the same budget.
+ * While Redis is unreachable, node-local buckets take over (each node then allows the full rate on its own).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimiter {
+
+    private static final String BUCKET_KEY = "socialmedia:ratelimit:";
+
+    /**
+     * KEYS: bucket; ARGV: capacity, refill per ms, now ms
+     * Returns {allowed, retry-after ms, remaining tokens}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local now = tonumber(ARGV[3])
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(bucket[1]) or capacity
+            local ts = tonumber(bucket[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+            local allowed = 0
+            local wait = 0
+            if tokens >= 1 then
+              tokens = tokens - 1
+              allowed = 1
+            else
+              wait = math.ceil((1 - tokens) / rate)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate) + 1000)
+            return {allowed, wait, math.floor(tokens)}
+            """, List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private Cache<String, LocalBucket> localBuckets;
+    private volatile long redisRetryAt;
+
+    public record Decision(boolean allowed, long retryAfterMillis, long remaining) {
+    }
+
+    @PostConstruct
+    public void init() {
+        localBuckets = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalMaxBuckets())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    /**
+     * First rule whose path pattern (and method, when set) matches, null if the request is not limited
+     */
+    public RateLimitProperties.Rule match(List<RateLimitProperties.Rule> rules, String path, String method) {
+        for (RateLimitProperties.Rule rule : rules) {
+            if (method != null && !rule.getMethods().isEmpty()
+                    && rule.getMethods().stream().noneMatch(method::equalsIgnoreCase)) {
+                continue;
+            }
+            for (String pattern : rule.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return rule;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take one token from the rule's bucket for the given client key
+     */
+    public Decision tryAcquire(RateLimitProperties.Rule rule, String clientKey) {
+        String bucketKey = BUCKET_KEY + rule.getName() + ":" + clientKey;
+        Decision decision = System.currentTimeMillis() >= redisRetryAt
+                ? acquireInRedis(rule, bucketKey)
+                : null;
+        if (decision == null) {
+            decision = localBuckets.get(bucketKey, k -> new LocalBucket(rule.getCapacity()))
+                    .tryAcquire(rule.getCapacity(), rule.getRefillPerSecond());
+        }
+
+        Counter.builder("ratelimit.requests")
+                .description("Rate-limited requests by rule and outcome")
+                .tag("rule", rule.getName())
+                .tag("outcome", decision.allowed() ? "allowed" : "rejected")
+                .register(meterRegistry)
+                .increment();
+        return decision;
+    }
+
+    private Decision acquireInRedis(RateLimitProperties.Rule rule, String bucketKey) {
+        try {
+            List<?> result = stringRedisTemplate.execute(TOKEN_BUCKET_SCRIPT, List.of(bucketKey),
+                    String.valueOf(rule.getCapacity()),
+                    String.valueOf(rule.getRefillPerSecond() / 1000.0),
+                    String.valueOf(System.currentTimeMillis()));
+            if (result == null || result.size() < 3) {
+                return null;
+            }
+            return new Decision(
+                    ((Number) result.get(0)).longValue() == 1,
+                    ((Number) result.get(1)).longValue(),
+                    ((Number) result.get(2)).longValue());
+        } catch (Exception e) {
+            redisRetryAt = System.currentTimeMillis() + properties.getRedisBackoffMs();
+            log.warn("⚠️ Rate limiter falling back to local buckets for {}ms: {}",
+                    properties.getRedisBackoffMs(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class LocalBucket {
+
+        private double tokens;
+        private long refilledAt = System.currentTimeMillis();
+
+        private LocalBucket(int capacity) {
+            this.tokens = capacity;
+        }
+
+        private synchronized Decision tryAcquire(int capacity, double refillPerSecond) {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerSecond / 1000.0);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return new Decision(true, 0, (long) tokens);
+            }
+            long wait = (long) Math.ceil((1 - tokens) * 1000.0 / refillPerSecond);
+            return new Decision(false, wait, 0);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.DPMHC_backend.config.ratelimit;
+
+import com.example.DPMHC_backend.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate limiting for inbound STOMP SEND frames
+ * Over-limit frames are dropped rather than answered with an ERROR frame, which would close the whole session.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompRateLimitInterceptor implements ChannelInterceptor {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (!properties.isEnabled()) {
+            return message;
+        }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.SEND.equals(accessor.getCommand()) || accessor.getDestination() == null) {
+            return message;
+        }
+
+        RateLimitProperties.Rule rule = rateLimiter.match(properties.getStomp(), accessor.getDestination(), null);
+        if (rule == null) {
+            return message;
+        }
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(rule, clientKey(accessor));
+        if (decision.allowed()) {
+            return message;
+        }
+        log.debug("Rate limit '{}' dropped STOMP frame to {} from session {}",
+                rule.getName(), accessor.getDestination(), accessor.getSessionId());
+        return null;
+    }
+
+    private String clientKey(StompHeaderAccessor accessor) {
+        if (accessor.getUser() instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return "u:" + user.getId();
+        }
+        return "session:" + accessor.getSessionId();
+    }
+}
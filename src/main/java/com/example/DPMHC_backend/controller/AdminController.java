@@ -10,6 +10,7 @@ import com.example.DPMHC_backend.repository.UserWarningRepository;
 import com.example.DPMHC_backend.repository.CommentRepository;
 import com.example.DPMHC_backend.repository.LikeRepository;
 import com.example.DPMHC_backend.repository.BookmarkRepository;
+import com.example.DPMHC_backend.security.TokenVersionService;
 import com.example.DPMHC_backend.service.EmailService;
 import com.example.DPMHC_backend.service.PostService;
 import lombok.RequiredArgsConstructor;
@@ -40,6 +41,7 @@ public class AdminController {
     private final CommentRepository commentRepository;
     private final LikeRepository likeRepository;
     private final BookmarkRepository bookmarkRepository;
+    private final TokenVersionService tokenVersionService;
 
     /**
      * Get all posts for admin moderation (paginated)
@@ -174,9 +176,9 @@ public class AdminController {
                 return ResponseEntity.badRequest().body("Cannot ban user without prior warning. Please issue a warning first.");
             }
 
-            // Ban the user
+            // Ban the user and reject the access tokens they already hold
             user.setBanned(true);
-            userRepository.save(user);
+            tokenVersionService.revokeTokens(user);
 
             // Send ban notification email
             try {
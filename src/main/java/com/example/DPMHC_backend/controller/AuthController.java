@@ -5,16 +5,17 @@ package com.example.DPMHC_backend.controller;
 import com.example.DPMHC_backend.dto.LoginResponse;
 import com.example.DPMHC_backend.dto.TokenRefreshRequest;
 import com.example.DPMHC_backend.dto.TokenRefreshResponse;
-import com.example.DPMHC_backend.model.RefreshToken;
 import com.example.DPMHC_backend.model.User;
-import com.example.DPMHC_backend.repository.RefreshTokenRepository;
 import com.example.DPMHC_backend.repository.UserRepository;
 import com.example.DPMHC_backend.service.RefreshTokenService;
 import com.example.DPMHC_backend.service.UserService;
+import com.example.DPMHC_backend.security.AuthenticatedUserLoader;
 import com.example.DPMHC_backend.security.JwtService;
+import com.example.DPMHC_backend.security.TokenVersionService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import com.example.DPMHC_backend.dto.UserDTO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,19 +26,20 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.security.Principal;
 import java.util.Map;
-import java.util.Optional;
 import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
+@Slf4j
 public class AuthController {
 
     private final UserService userService;
     private final UserRepository userRepository;
     private final RefreshTokenService refreshTokenService;
-    private final RefreshTokenRepository refreshTokenRepository;
     private final JwtService jwtService;
+    private final AuthenticatedUserLoader authenticatedUserLoader;
+    private final TokenVersionService tokenVersionService;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
@@ -104,7 +106,8 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
 
-            User currentUser = (User) authentication.getPrincipal();
+            // Claims-only principals lack avatar and bio
+            User currentUser = authenticatedUserLoader.loadFull(authentication);
             System.out.println("🔍 AuthController /me - User ID: " + currentUser.getId());
             System.out.println("🔍 AuthController /me - User isAdmin(): " + currentUser.isAdmin());
             System.out.println("🔍 AuthController /me - User role: " + currentUser.getRole());
@@ -178,72 +181,25 @@ public class AuthController {
     }
 
     @PostMapping("/refresh-token")
-public ResponseEntity<?> refreshToken(@RequestBody TokenRefreshRequest request) {
-    try {
-        String requestRefreshToken = request.getRefreshToken();
-        System.out.println("🔄 Refresh token request received for token: " + 
-            (requestRefreshToken != null ? requestRefreshToken.substring(0, Math.min(10, requestRefreshToken.length())) + "..." : "null"));
-        
-        // Use synchronized block to prevent race conditions
-        synchronized (this) {
-            // First check if token exists at all (including revoked ones)
-            Optional<RefreshToken> anyToken = refreshTokenRepository.findByToken(requestRefreshToken);
-            if (anyToken.isEmpty()) {
-                System.err.println("❌ Refresh token not found in database: " + 
-                    (requestRefreshToken != null ? requestRefreshToken.substring(0, Math.min(10, requestRefreshToken.length())) + "..." : "null"));
+    public ResponseEntity<?> refreshToken(@RequestBody TokenRefreshRequest request) {
+        try {
+            String requestRefreshToken = request.getRefreshToken();
+            if (requestRefreshToken == null || requestRefreshToken.isBlank()) {
                 throw new RuntimeException("Refresh token not found. Please login again.");
             }
-            
-            RefreshToken existingToken = anyToken.get();
-            
-            // Check if already revoked (race condition protection)
-            if (existingToken.isRevoked()) {
-                System.err.println("❌ Refresh token already revoked: " + 
-                    (requestRefreshToken != null ? requestRefreshToken.substring(0, Math.min(10, requestRefreshToken.length())) + "..." : "null"));
-                throw new RuntimeException("Refresh token is revoked. Please login again.");
-            }
-            
-            // Check expiration
-            if (existingToken.isExpired()) {
-                System.err.println("❌ Refresh token has expired: " + 
-                    (requestRefreshToken != null ? requestRefreshToken.substring(0, Math.min(10, requestRefreshToken.length())) + "..." : "null"));
-                // Mark as revoked and save
-                existingToken.revoke();
-                refreshTokenRepository.save(existingToken);
-                throw new RuntimeException("Refresh token has expired. Please login again.");
-            }
-            
-            User user = existingToken.getUser();
-            System.out.println("✅ Refresh token verified for user: " + user.getEmail());
-            
-            // Generate new access token first
-            String newAccessToken = userService.generateNewAccessToken(requestRefreshToken);
-            System.out.println("✅ Generated new access token");
-            
-            // Create new refresh token
-            RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(user);
-            System.out.println("✅ Generated new refresh token");
-            
-            // NOW revoke the old refresh token (after successful generation)
-            existingToken.revoke();
-            refreshTokenRepository.save(existingToken);
-            System.out.println("✅ Revoked old refresh token");
-            
-            TokenRefreshResponse response = new TokenRefreshResponse(
-                    newAccessToken, 
-                    newRefreshToken.getToken(),
-                    300 // 5 minutes in seconds
-            );
-            
-            System.out.println("✅ Refresh token response prepared successfully");
+
+            // Rotation is atomic in the token store, so concurrent refreshes need no lock here
+            TokenRefreshResponse response = userService.refreshAccessToken(requestRefreshToken);
+            log.debug("✅ Refresh token rotated");
             return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            // Not echoed to the client: the reason would tell a token thief whether a token is used, revoked or unknown
+            log.warn("❌ Refresh token failed: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "Refresh token failed. Please login again."));
         }
-    } catch (Exception e) {
-        System.err.println("❌ Refresh token failed: " + e.getMessage());
-        return ResponseEntity.badRequest()
-                .body(Map.of("message", "Refresh token failed: " + e.getMessage()));
     }
-}
+
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestBody Map<String, String> request, Authentication authentication) {
         try {
@@ -255,9 +211,10 @@ public ResponseEntity<?> refreshToken(@RequestBody TokenRefreshRequest request)
             
             // If user wants to logout from all devices
             if (authentication != null && authentication.getPrincipal() instanceof User) {
-                User user = (User) authentication.getPrincipal();
                 if ("true".equals(request.get("logoutFromAllDevices"))) {
+                    User user = authenticatedUserLoader.loadFull(authentication);
                     refreshTokenService.revokeAllTokensForUser(user);
+                    tokenVersionService.revokeTokens(user);
                 }
             }
             
@@ -1,6 +1,7 @@
 package com.example.DPMHC_backend.controller;
 
 import com.example.DPMHC_backend.service.CacheManagementService;
+import com.example.DPMHC_backend.service.CacheWarmupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -93,11 +94,12 @@ public class CacheManagementController {
     @PostMapping("/warmup")
     public ResponseEntity<Map<String, Object>> warmUpCaches() {
         log.info("🔥 Admin requested cache warm-up");
-        cacheManagementService.warmUpCaches();
+        CacheWarmupService.WarmupReport report = cacheManagementService.warmUpCaches();
         
         Map<String, Object> response = Map.of(
-            "success", true,
-            "message", "Cache warm-up initiated"
+            "success", !report.isSkipped(),
+            "message", report.isSkipped() ? "Cache warm-up already running" : "Cache warm-up completed",
+            "report", report
         );
         
         return ResponseEntity.ok(response);
@@ -6,8 +6,6 @@ import com.example.DPMHC_backend.dto.UserDTO;
 import com.example.DPMHC_backend.model.User;
 import com.example.DPMHC_backend.repository.UserRepository;
 import com.example.DPMHC_backend.service.FollowService;
-import com.example.DPMHC_backend.service.NotificationService;
-import com.example.DPMHC_backend.model.NotificationType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -22,7 +20,6 @@ import org.springframework.web.bind.annotation.*;
 public class FollowController {
 
     private final FollowService followService;
-    private final NotificationService notificationService;
 
     // ========== MAIN ENDPOINTS ==========
     @PostMapping("/toggle")
@@ -35,24 +32,7 @@ public class FollowController {
         // Your existing follow logic
         FollowStatusDTO response = followService.toggleFollow(currentUser.getId(), followeeId);
 
-        // 🔥 NEW: Send notification if it's a new follow
-        try {
-            // Only send notification if:
-            // 1. It's a new follow (not unfollow)
-            // 2. User is not following themselves
-            if (response.isFollowing() && !currentUser.getId().equals(followeeId)) {
-                notificationService.createNotification(
-                        followeeId,                 // recipient (person being followed)
-                        currentUser.getId(),        // actor (person who followed)
-                        NotificationType.FOLLOW,
-                        null,                       // no specific target
-                        null                        // no additional message
-                );
-            }
-        } catch (Exception e) {
-            // Log the error but don't fail the follow operation
-            System.err.println("Failed to send follow notification: " + e.getMessage());
-        }
+        // Follow notification is raised by FollowService after commit (UserFollowedEvent)
 
         return ResponseEntity.ok(response);
     }
@@ -117,20 +97,7 @@ public class FollowController {
         // Your existing follow logic
         FollowStatusDTO response = followService.followUser(currentUser.getId(), userId);
 
-        // 🔥 NEW: Send notification for new follow
-        try {
-            if (!currentUser.getId().equals(userId)) {
-                notificationService.createNotification(
-                        userId,                     // recipient (person being followed)
-                        currentUser.getId(),        // actor (person who followed)
-                        NotificationType.FOLLOW,
-                        null,                       // no specific target
-                        null                        // no additional message
-                );
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to send follow notification: " + e.getMessage());
-        }
+        // Follow notification is raised by FollowService after commit (UserFollowedEvent)
 
         return ResponseEntity.ok(response);
     }
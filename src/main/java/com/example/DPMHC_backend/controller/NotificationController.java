@@ -1,8 +1,12 @@
 package com.example.DPMHC_backend.controller;
 
+import com.example.DPMHC_backend.dto.NotificationChangesDTO;
+import com.example.DPMHC_backend.dto.NotificationCursorPageDTO;
 import com.example.DPMHC_backend.dto.NotificationDTO;
 import com.example.DPMHC_backend.model.NotificationType;
 import com.example.DPMHC_backend.model.User;
+import com.example.DPMHC_backend.service.NotificationDuplicateCleanupService;
+import com.example.DPMHC_backend.service.NotificationRetentionService;
 import com.example.DPMHC_backend.service.NotificationService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +28,7 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationRetentionService notificationRetentionService;
 
     // ======================== BASIC NOTIFICATION OPERATIONS ========================
 
@@ -64,6 +69,64 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    // ======================== KEYSET FEEDS AND DELTAS ========================
+
+    @GetMapping("/feed")
+    public ResponseEntity<?> getNotificationFeed(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return getFeed(user, cursor, limit, false, null);
+    }
+
+    @GetMapping("/unread/feed")
+    public ResponseEntity<?> getUnreadFeed(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return getFeed(user, cursor, limit, true, null);
+    }
+
+    @GetMapping("/type/{type}/feed")
+    public ResponseEntity<?> getFeedByType(
+            @AuthenticationPrincipal User user,
+            @PathVariable NotificationType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return getFeed(user, cursor, limit, false, type);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<NotificationChangesDTO> getChanges(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, 500));
+        return ResponseEntity.ok(notificationService.getChangesSince(user.getEmail(), since, boundedLimit));
+    }
+
+    private ResponseEntity<?> getFeed(User user, String cursor, int limit, boolean unreadOnly, NotificationType type) {
+        int boundedLimit = Math.max(1, Math.min(limit, 100));
+        try {
+            NotificationCursorPageDTO feed = notificationService.getNotificationsByCursor(
+                    user.getEmail(), cursor, boundedLimit, unreadOnly, type);
+            return ResponseEntity.ok(feed);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<Page<NotificationDTO>> getArchivedNotifications(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Pageable pageable = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 100)));
+        Page<NotificationDTO> notifications = notificationRetentionService.getArchivedNotifications(user.getId(), pageable);
+        return ResponseEntity.ok(notifications);
+    }
+
     @PostMapping("/filter")
     public ResponseEntity<Page<NotificationDTO>> getNotificationsByTypes(
             @AuthenticationPrincipal User user,
@@ -322,8 +385,7 @@ public class NotificationController {
             @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "5") int limit) {
 
-        Pageable pageable = PageRequest.of(0, limit);
-        Page<NotificationDTO> notifications = notificationService.getNotifications(user.getEmail(), pageable);
+        Page<NotificationDTO> notifications = notificationService.getRecentNotifications(user.getEmail(), limit);
         return ResponseEntity.ok(notifications);
     }
 
@@ -383,12 +445,13 @@ public class NotificationController {
 
     @PostMapping("/cleanup-duplicates")
     public ResponseEntity<Map<String, Object>> cleanupDuplicateNotifications(
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) Long fromId) {
         
-        log.info("Manual duplicate cleanup requested by user: {}", user.getEmail());
+        log.info("Manual duplicate cleanup requested by user: {} (fromId={})", user.getEmail(), fromId);
         
         try {
-            int cleanedCount = notificationService.cleanupDuplicateNotifications();
+            int cleanedCount = notificationService.cleanupDuplicateNotifications(fromId);
             
             return ResponseEntity.ok(Map.of(
                     "success", true,
@@ -405,6 +468,11 @@ public class NotificationController {
         }
     }
 
+    @GetMapping("/cleanup-duplicates/progress")
+    public ResponseEntity<NotificationDuplicateCleanupService.CleanupProgress> getDuplicateCleanupProgress() {
+        return ResponseEntity.ok(notificationService.getDuplicateCleanupProgress());
+    }
+
     // ======================== REQUEST/RESPONSE DTOs ========================
 
     @Data
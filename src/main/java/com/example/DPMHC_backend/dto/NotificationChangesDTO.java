@@ -0,0 +1,37 @@
+package com.example.DPMHC_backend.dto;
+
+import com.example.DPMHC_backend.model.NotificationChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Incremental read/seen/delete changes since a client-held version
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationChangesDTO {
+    private List<ChangeDTO> changes;
+    private long latestVersion;
+    private boolean hasMore;
+
+    // The requested version is older than the retained change log - client must refetch from scratch
+    private boolean resetRequired;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChangeDTO {
+        private long version;
+        private Long notificationId;
+        private NotificationChangeType type;
+        private Date changedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.DPMHC_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Keyset page of notifications ordered by (lastActorAt DESC, id DESC)
+ * Pass nextCursor back as ?cursor= to get the following page; no total count is computed
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCursorPageDTO {
+    private List<NotificationDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Latest change version at read time - use as ?since= for /changes
+    private long version;
+}
@@ -8,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.Date;
+import java.util.List;
 
 @Data
 @Builder
@@ -22,6 +23,7 @@ public class NotificationDTO {
     private boolean isRead;
     private boolean isSeen;
     private Date createdAt;
+    private Date lastActorAt; // Latest actor folded in; equals createdAt for single-actor notifications
     private Date readAt;
     private String actionUrl;
     private Long entityId;
@@ -31,6 +33,10 @@ public class NotificationDTO {
     // Actor information (who triggered the notification)
     private UserSummaryDTO actor;
 
+    // Aggregated notifications ("Alice and 41 others liked your post")
+    private Integer actorCount;
+    private List<UserSummaryDTO> sampleActors;
+
     // Additional metadata for complex notifications
     private String metadata;
 
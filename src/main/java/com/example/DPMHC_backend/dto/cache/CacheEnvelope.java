@@ -0,0 +1,20 @@
+package com.example.DPMHC_backend.dto.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cached value plus the metadata needed for early refresh and stale-while-revalidate
+ * The Redis TTL stays the hard expiry; freshUntil marks where refreshing starts
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEnvelope {
+
+    private Object value;
+    private long computedAt;
+    private long computeMillis;
+    private long freshUntil;
+}
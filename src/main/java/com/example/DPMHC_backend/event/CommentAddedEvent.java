@@ -0,0 +1,5 @@
+package com.example.DPMHC_backend.event;
+
+public record CommentAddedEvent(Long postId, Long commentId, String postOwnerEmail,
+                                String commenterEmail) implements DomainEvent {
+}
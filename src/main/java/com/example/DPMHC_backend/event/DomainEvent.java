@@ -0,0 +1,11 @@
+package com.example.DPMHC_backend.event;
+
+/**
+ * Marker for events recorded in the domain event outbox and dispatched after commit
+ */
+public interface DomainEvent {
+
+    default String eventType() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.DPMHC_backend.event;
+
+import java.util.Set;
+
+/**
+ * A handler whose work must succeed before an outbox event counts as published
+ * It runs that work through DomainEventPublisher.deliver; until every consumer of an event has succeeded,
+ * the outbox row stays pending and the relay dispatches it again.
+ */
+public interface DomainEventConsumer {
+
+    Set<Class<? extends DomainEvent>> consumedEvents();
+}
@@ -0,0 +1,6 @@
+package com.example.DPMHC_backend.event;
+
+import com.example.DPMHC_backend.dto.MessageDTO;
+
+public record MessageSentEvent(Long chatId, Long senderId, MessageDTO message) implements DomainEvent {
+}
@@ -0,0 +1,8 @@
+package com.example.DPMHC_backend.event;
+
+/**
+ * A like was added to or removed from a post ({@code liked == false} for unlikes)
+ */
+public record PostLikedEvent(Long postId, String postOwnerEmail, String likerEmail,
+                             boolean liked, int likesCount) implements DomainEvent {
+}
@@ -0,0 +1,5 @@
+package com.example.DPMHC_backend.event;
+
+public record UserFollowedEvent(Long followerId, Long followeeId,
+                                String followerEmail, String followeeEmail) implements DomainEvent {
+}
@@ -0,0 +1,7 @@
+package com.example.DPMHC_backend.exception;
+
+public class RefreshTokenNotFoundException extends RuntimeException {
+    public RefreshTokenNotFoundException() {
+        super("Refresh token not found. Please login again.");
+    }
+}
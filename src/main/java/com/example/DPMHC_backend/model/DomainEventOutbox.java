@@ -0,0 +1,68 @@
+package com.example.DPMHC_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Domain event recorded in the same transaction as the change that raised it
+ */
+@Entity
+@Table(name = "domain_event_outbox", indexes = {
+    @Index(name = "idx_domain_event_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_domain_event_claim", columnList = "claim_token")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DomainEventOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Date createdAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "published_at")
+    private Date publishedAt;
+
+    // Set by the relay that claimed the row; other nodes skip it until the lease runs out
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "claimed_until")
+    private Date claimedUntil;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = new Date();
+    }
+
+    public enum Status {
+        PENDING,
+        PUBLISHED,
+        FAILED
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.DPMHC_backend.model;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -12,7 +12,11 @@ import java.util.Date;
     @Index(name = "idx_user_seen_read", columnList = "user_id, is_seen, is_read"),
     @Index(name = "idx_type", columnList = "type"),
     @Index(name = "idx_expires_cleanup", columnList = "expires_at"),
-    @Index(name = "idx_notification_counts", columnList = "user_id, is_read, is_seen")
+    @Index(name = "idx_notification_counts", columnList = "user_id, is_read, is_seen"),
+    @Index(name = "idx_user_last_actor", columnList = "user_id, last_actor_at"),
+    @Index(name = "idx_user_group_last_actor", columnList = "user_id, group_key, last_actor_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_notification_dedup", columnNames = "dedup_key")
 })
 @Getter
 @Setter
@@ -72,6 +76,12 @@ public class Notification {
     @Column(name = "created_at", nullable = false)
     private Date createdAt;
 
+    // When the latest actor was folded in; feeds and cursors order by this so aggregates bump to the top
+    // while created_at stays the row's immutable age
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "last_actor_at")
+    private Date lastActorAt;
+
     @Temporal(TemporalType.TIMESTAMP)
     @Column(name = "read_at")
     private Date readAt;
@@ -89,11 +99,27 @@ public class Notification {
     @Column(name = "group_key")
     private String groupKey;
 
+    // Aggregation: number of distinct actors folded into this notification ("Alice and 41 others")
+    @Builder.Default
+    @Column(name = "actor_count")
+    private Integer actorCount = 1;
+
+    // JSON array of the most recent actor summaries for aggregated notifications
+    @Column(name = "sample_actors", columnDefinition = "TEXT")
+    private String sampleActors;
+
+    // Recipient/actor/type/entity fingerprint; unique so duplicates are rejected by the index
+    @Column(name = "dedup_key", length = 191)
+    private String dedupKey;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
             createdAt = new Date();
         }
+        if (lastActorAt == null) {
+            lastActorAt = createdAt;
+        }
     }
 
     public void markAsRead() {
@@ -110,6 +136,10 @@ public class Notification {
         this.isSeen = true;
     }
 
+    public boolean isAggregated() {
+        return actorCount != null && actorCount > 1;
+    }
+
     public boolean isExpired() {
         return expiresAt != null && expiresAt.before(new Date());
     }
@@ -0,0 +1,51 @@
+package com.example.DPMHC_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * One actor folded into an aggregated notification
+ * The (notification, actor) pair is unique, so the aggregate's actor set is exact rather than limited to the
+ * sample actors; the folded event's dedup key is kept here because the event never gets a notifications row.
+ */
+@Entity
+@Table(name = "notification_aggregate_actors", indexes = {
+    @Index(name = "idx_aggregate_actor_notification", columnList = "notification_id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_aggregate_actor", columnNames = {"notification_id", "actor_id"}),
+    @UniqueConstraint(name = "uk_aggregate_actor_dedup", columnNames = "dedup_key")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationAggregateActor {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "notification_id", nullable = false)
+    private Long notificationId;
+
+    @Column(name = "actor_id", nullable = false)
+    private Long actorId;
+
+    // Null for the aggregate's original actor (its key lives on the notification) and for keyless events
+    @Column(name = "dedup_key", length = 191)
+    private String dedupKey;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = new Date();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.DPMHC_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Cold tier for read notifications past the hot retention window
+ * Compact row: no FKs, no dedup/group keys, no per-row flags - just what an archive page renders
+ */
+@Entity
+@Table(name = "notifications_archive", indexes = {
+    @Index(name = "idx_archive_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_archive_archived_at", columnList = "archived_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationArchive {
+
+    // Same ID as the original notification row
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private NotificationType type;
+
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "entity_type")
+    private String entityType;
+
+    @Column(name = "action_url")
+    private String actionUrl;
+
+    @Column(name = "actor_count")
+    private Integer actorCount;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "read_at")
+    private Date readAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "archived_at", nullable = false)
+    private Date archivedAt;
+}
@@ -0,0 +1,54 @@
+package com.example.DPMHC_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Per-user notification change log
+ * version is the per-user sequence clients sync from ("changes since version N"), handed out by
+ * {@link NotificationChangeCounter}; the auto-increment ID is only the row key.
+ */
+@Entity
+@Table(name = "notification_changes", indexes = {
+    @Index(name = "idx_change_user_seq", columnList = "user_id, version"),
+    @Index(name = "idx_change_created", columnList = "created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Null only on rows written before per-user versions, until the startup backfill copies the ID in
+    @Column(name = "version")
+    private Long version;
+
+    // Null for bulk changes (ALL_READ, ALL_SEEN)
+    @Column(name = "notification_id")
+    private Long notificationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 20)
+    private NotificationChangeType changeType;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = new Date();
+        }
+    }
+}
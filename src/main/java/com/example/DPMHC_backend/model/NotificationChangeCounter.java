@@ -0,0 +1,25 @@
+package com.example.DPMHC_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Latest notification change version per user
+ * Bumped with an UPDATE in the transaction that records the change, so the row lock orders a user's changes:
+ * a lower version always commits before a higher one is handed out.
+ */
+@Entity
+@Table(name = "notification_change_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationChangeCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+}
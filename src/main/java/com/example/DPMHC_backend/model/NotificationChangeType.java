@@ -0,0 +1,15 @@
+package com.example.DPMHC_backend.model;
+
+public enum NotificationChangeType {
+    // Single notification state changes
+    CREATED,
+    AGGREGATED, // Another actor folded into an aggregate - refetch it and move it to the top
+    READ,
+    UNREAD,
+    SEEN,
+    DELETED,
+
+    // Bulk changes - apply to every notification the client holds that was created before the change
+    ALL_READ,
+    ALL_SEEN
+}
@@ -1,14 +1,18 @@
 package com.example.DPMHC_backend.model;
 
+import com.example.DPMHC_backend.security.UserAuthorityListener;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(UserAuthorityListener.class)
 @Table(name = "users", indexes = {
     @Index(name = "idx_user_email", columnList = "email", unique = true),
     @Index(name = "idx_user_username", columnList = "username", unique = true),
@@ -20,6 +24,8 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "entity-users")
 public class User {
 
     @Id
@@ -60,12 +66,58 @@ public class User {
     @Column(name = "isAdmin", nullable = false, columnDefinition = "BIT DEFAULT 0")
     private boolean isAdmin = false;
 
+    // Stamped into access tokens; bumping it revokes every token issued before
+    @Builder.Default
+    @Column(name = "token_version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long tokenVersion = 0;
+
+    // Role, admin flag, ban state and token version as loaded; see bumpTokenVersionOnAuthorityChange
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient String loadedAuthority;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient long loadedTokenVersion;
+
     @Column(name = "created_at")
     private Date createdAt;
 
     @Column(name = "updated_at")
     private Date updatedAt;
 
+    /**
+     * True when role, admin flag or ban state differ from what was loaded
+     */
+    public boolean hasAuthorityChanged() {
+        return loadedAuthority != null && !loadedAuthority.equals(authority());
+    }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void captureAuthority() {
+        loadedAuthority = authority();
+        loadedTokenVersion = tokenVersion;
+    }
+
+    /**
+     * Access tokens carry role and admin claims, so any change to them (or to the ban state) must retire the
+     * tokens issued before; bumps once unless the caller already did (TokenVersionService.revokeTokens)
+     */
+    @PreUpdate
+    void bumpTokenVersionOnAuthorityChange() {
+        if (hasAuthorityChanged() && tokenVersion == loadedTokenVersion) {
+            tokenVersion++;
+        }
+    }
+
+    private String authority() {
+        return role + "|" + isAdmin + "|" + banned;
+    }
+
     @Override
     public String toString() {
         return "User{" +
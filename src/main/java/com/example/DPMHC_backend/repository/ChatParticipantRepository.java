@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,11 @@ public interface ChatParticipantRepository extends JpaRepository<ChatParticipant
             "WHERE p.chat.id = :chatId AND p.isActive = true")
     List<ChatParticipant> findByChatIdAndActive(@Param("chatId") Long chatId);
 
+    // Active participant user IDs as [chatId, userId] pairs (cache warm-up)
+    @Query("SELECT p.chat.id, p.user.id FROM ChatParticipant p " +
+            "WHERE p.chat.id IN :chatIds AND p.isActive = true")
+    List<Object[]> findActiveUserIdsByChatIds(@Param("chatIds") Collection<Long> chatIds);
+
     // Find specific participant
     @Query("SELECT p FROM ChatParticipant p " +
             "WHERE p.chat.id = :chatId AND p.user.id = :userId AND p.isActive = true")
@@ -22,6 +22,12 @@ public interface ChatRepository extends JpaRepository<Chat, Long> {
             "ORDER BY c.lastMessageAt DESC")
     List<Chat> findChatsByUserId(@Param("userId") Long userId);
 
+    // Chats with the most recent activity (cache warm-up)
+    @Query("SELECT c.id FROM Chat c " +
+            "WHERE c.isActive = true AND c.lastMessageAt >= :since " +
+            "ORDER BY c.lastMessageAt DESC")
+    List<Long> findRecentlyActiveChatIds(@Param("since") LocalDateTime since, Pageable pageable);
+
     // Find chats with pagination
     @Query("SELECT DISTINCT c FROM Chat c " +
             "JOIN c.participants p " +
@@ -0,0 +1,54 @@
+package com.example.DPMHC_backend.repository;
+
+import com.example.DPMHC_backend.model.DomainEventOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface DomainEventOutboxRepository extends JpaRepository<DomainEventOutbox, Long> {
+
+    /**
+     * Pending events older than the cutoff - their after-commit dispatch never got acknowledged.
+     * Rows another relay holds an unexpired claim on are skipped.
+     */
+    @Query("SELECT e.id FROM DomainEventOutbox e WHERE e.status = com.example.DPMHC_backend.model.DomainEventOutbox.Status.PENDING " +
+           "AND e.createdAt < :createdBefore AND (e.claimedUntil IS NULL OR e.claimedUntil <= :now) ORDER BY e.id ASC")
+    List<Long> findStalePendingIds(@Param("createdBefore") Date createdBefore, @Param("now") Date now, Pageable pageable);
+
+    /**
+     * Claim stale rows with a single conditional update; rows claimed by another node in the meantime are skipped.
+     * Each claim counts as a delivery attempt.
+     */
+    @Modifying
+    @Query("UPDATE DomainEventOutbox e SET e.claimToken = :claimToken, e.claimedUntil = :leaseUntil, " +
+           "e.attempts = e.attempts + 1 " +
+           "WHERE e.id IN :ids AND e.status = com.example.DPMHC_backend.model.DomainEventOutbox.Status.PENDING " +
+           "AND (e.claimedUntil IS NULL OR e.claimedUntil <= :now)")
+    int claim(@Param("ids") List<Long> ids, @Param("claimToken") String claimToken,
+              @Param("leaseUntil") Date leaseUntil, @Param("now") Date now);
+
+    List<DomainEventOutbox> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    @Modifying
+    @Query("UPDATE DomainEventOutbox e SET e.status = com.example.DPMHC_backend.model.DomainEventOutbox.Status.PUBLISHED, " +
+           "e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Date publishedAt);
+
+    @Modifying
+    @Query("UPDATE DomainEventOutbox e SET e.status = com.example.DPMHC_backend.model.DomainEventOutbox.Status.FAILED " +
+           "WHERE e.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM DomainEventOutbox e WHERE e.status = com.example.DPMHC_backend.model.DomainEventOutbox.Status.PUBLISHED " +
+           "AND e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") Date before);
+}
@@ -0,0 +1,45 @@
+package com.example.DPMHC_backend.repository;
+
+import com.example.DPMHC_backend.model.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * IDs that are due: pending rows past their backoff, plus SENDING rows whose claim lease expired
+     * (the dispatcher that claimed them died mid-batch)
+     */
+    @Query("SELECT e.id FROM EmailOutbox e " +
+           "WHERE e.status IN (com.example.DPMHC_backend.model.EmailOutboxStatus.PENDING, " +
+           "com.example.DPMHC_backend.model.EmailOutboxStatus.SENDING) " +
+           "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt ASC")
+    List<Long> findDueIds(@Param("now") Date now, Pageable pageable);
+
+    /**
+     * Claim due rows with a single conditional update; rows already claimed by another instance are skipped
+     */
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = com.example.DPMHC_backend.model.EmailOutboxStatus.SENDING, " +
+           "e.claimToken = :claimToken, e.nextAttemptAt = :leaseUntil " +
+           "WHERE e.id IN :ids AND e.nextAttemptAt <= :now " +
+           "AND e.status IN (com.example.DPMHC_backend.model.EmailOutboxStatus.PENDING, " +
+           "com.example.DPMHC_backend.model.EmailOutboxStatus.SENDING)")
+    int claim(@Param("ids") List<Long> ids, @Param("claimToken") String claimToken,
+              @Param("leaseUntil") Date leaseUntil, @Param("now") Date now);
+
+    List<EmailOutbox> findByClaimToken(String claimToken);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = com.example.DPMHC_backend.model.EmailOutboxStatus.SENT " +
+           "AND e.sentAt < :before")
+    int deleteSentBefore(@Param("before") Date before);
+}
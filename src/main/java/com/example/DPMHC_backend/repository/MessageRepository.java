@@ -21,6 +21,12 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
             "ORDER BY m.createdAt DESC")
     Page<Message> findMessagesByChatId(@Param("chatId") Long chatId, Pageable pageable);
 
+    // Most active senders since a point in time (cache warm-up)
+    @Query("SELECT m.sender.id FROM Message m " +
+            "WHERE m.createdAt >= :since " +
+            "GROUP BY m.sender.id ORDER BY COUNT(m) DESC")
+    List<Long> findMostActiveSenderIds(@Param("since") LocalDateTime since, Pageable pageable);
+
     // Find messages in a chat (list)
     @Query("SELECT m FROM Message m " +
             "WHERE m.chat.id = :chatId AND m.isDeleted = false " +
@@ -0,0 +1,23 @@
+package com.example.DPMHC_backend.repository;
+
+import com.example.DPMHC_backend.model.NotificationAggregateActor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface NotificationAggregateActorRepository extends JpaRepository<NotificationAggregateActor, Long> {
+
+    boolean existsByNotificationIdAndActorId(Long notificationId, Long actorId);
+
+    // Deduplication - single probe on uk_aggregate_actor_dedup
+    boolean existsByDedupKey(String dedupKey);
+
+    @Modifying
+    @Query("DELETE FROM NotificationAggregateActor a WHERE a.notificationId IN :notificationIds")
+    int deleteByNotificationIdIn(@Param("notificationIds") Collection<Long> notificationIds);
+}
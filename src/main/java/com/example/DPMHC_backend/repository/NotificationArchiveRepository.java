@@ -0,0 +1,47 @@
+package com.example.DPMHC_backend.repository;
+
+import com.example.DPMHC_backend.model.NotificationArchive;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface NotificationArchiveRepository extends JpaRepository<NotificationArchive, Long> {
+
+    /**
+     * On-demand archive pages, served by idx_archive_user_created
+     */
+    Page<NotificationArchive> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+
+    /**
+     * Copy a batch of hot rows into the archive (portable INSERT ... SELECT)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notifications_archive (id, user_id, actor_id, type, message, entity_id, entity_type, " +
+                   "action_url, actor_count, created_at, read_at, archived_at) " +
+                   "SELECT n.id, n.user_id, n.actor_id, n.type, n.message, n.entity_id, n.entity_type, " +
+                   "n.action_url, n.actor_count, n.created_at, n.read_at, :archivedAt " +
+                   "FROM notifications n WHERE n.id IN (:ids)",
+           nativeQuery = true)
+    int copyFromNotifications(@Param("ids") List<Long> ids, @Param("archivedAt") Date archivedAt);
+
+    /**
+     * Batch purge of archive rows past the cold retention window
+     */
+    @Modifying
+    @Query(value = "DELETE FROM notifications_archive WHERE id IN (" +
+                   "SELECT id FROM (SELECT a.id FROM notifications_archive a WHERE a.archived_at < :archivedBefore " +
+                   "ORDER BY a.id LIMIT :batchSize) batch)",
+           nativeQuery = true)
+    int deleteArchivedBeforeBatch(@Param("archivedBefore") Date archivedBefore, @Param("batchSize") int batchSize);
+
+    @Query("SELECT COUNT(a) FROM NotificationArchive a WHERE a.archivedAt < :archivedBefore")
+    long countArchivedBefore(@Param("archivedBefore") Date archivedBefore);
+}
@@ -0,0 +1,33 @@
+package com.example.DPMHC_backend.repository;
+
+import com.example.DPMHC_backend.model.NotificationChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface NotificationChangeRepository extends JpaRepository<NotificationChange, Long> {
+
+    List<NotificationChange> findByUserIdAndVersionGreaterThanOrderByVersionAsc(Long userId, Long sinceVersion,
+                                                                               Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM NotificationChange c WHERE c.userId = :userId")
+    long findLatestVersion(@Param("userId") Long userId);
+
+    @Query("SELECT COALESCE(MIN(c.version), 0) FROM NotificationChange c WHERE c.userId = :userId")
+    long findOldestRetainedVersion(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE NotificationChange c SET c.version = c.id WHERE c.version IS NULL")
+    int backfillVersions();
+
+    @Modifying
+    @Query("DELETE FROM NotificationChange c WHERE c.createdAt < :before")
+    int deleteOlderThan(@Param("before") Date before);
+}
@@ -4,16 +4,20 @@ import com.example.DPMHC_backend.model.Notification;
 import com.example.DPMHC_backend.model.NotificationPriority;
 import com.example.DPMHC_backend.model.NotificationType;
 import com.example.DPMHC_backend.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
@@ -21,26 +25,60 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Basic queries
     Page<Notification> findByRecipientOrderByCreatedAtDesc(User recipient, Pageable pageable);
 
-    Page<Notification> findByRecipientAndIsReadOrderByCreatedAtDesc(User recipient, boolean isRead, Pageable pageable);
+    Page<Notification> findByRecipientAndIsReadOrderByLastActorAtDesc(User recipient, boolean isRead, Pageable pageable);
 
     List<Notification> findByRecipientAndIsReadOrderByCreatedAtDesc(User recipient, boolean isRead);
 
+    // Keyset first pages - same order as the seek queries below, without a seek predicate
+    List<Notification> findByRecipientOrderByLastActorAtDescIdDesc(User recipient, Pageable pageable);
+
+    List<Notification> findByRecipientAndIsReadFalseOrderByLastActorAtDescIdDesc(User recipient, Pageable pageable);
+
+    List<Notification> findByRecipientAndTypeOrderByLastActorAtDescIdDesc(User recipient, NotificationType type,
+                                                                         Pageable pageable);
+
+    // Keyset (seek) pagination on (last_actor_at, id) - served by idx_user_last_actor, no OFFSET scan, no COUNT
+    @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient " +
+           "AND (n.lastActorAt < :lastActorAt OR (n.lastActorAt = :lastActorAt AND n.id < :id)) " +
+           "ORDER BY n.lastActorAt DESC, n.id DESC")
+    List<Notification> findPageBefore(@Param("recipient") User recipient,
+                                      @Param("lastActorAt") Date lastActorAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient AND n.isRead = false " +
+           "AND (n.lastActorAt < :lastActorAt OR (n.lastActorAt = :lastActorAt AND n.id < :id)) " +
+           "ORDER BY n.lastActorAt DESC, n.id DESC")
+    List<Notification> findUnreadPageBefore(@Param("recipient") User recipient,
+                                            @Param("lastActorAt") Date lastActorAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
+    @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient AND n.type = :type " +
+           "AND (n.lastActorAt < :lastActorAt OR (n.lastActorAt = :lastActorAt AND n.id < :id)) " +
+           "ORDER BY n.lastActorAt DESC, n.id DESC")
+    List<Notification> findByTypePageBefore(@Param("recipient") User recipient,
+                                            @Param("type") NotificationType type,
+                                            @Param("lastActorAt") Date lastActorAt,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+
     // Count queries for badges/indicators
     long countByRecipientAndIsRead(User recipient, boolean isRead);
 
     long countByRecipientAndIsSeenAndIsRead(User recipient, boolean isSeen, boolean isRead);
 
     // Type-based filtering
-    Page<Notification> findByRecipientAndTypeOrderByCreatedAtDesc(User recipient, NotificationType type, Pageable pageable);
+    Page<Notification> findByRecipientAndTypeOrderByLastActorAtDesc(User recipient, NotificationType type, Pageable pageable);
 
-    Page<Notification> findByRecipientAndTypeInOrderByCreatedAtDesc(User recipient, List<NotificationType> types, Pageable pageable);
+    Page<Notification> findByRecipientAndTypeInOrderByLastActorAtDesc(User recipient, List<NotificationType> types, Pageable pageable);
 
     List<Notification> findByTypeOrderByCreatedAtDesc(NotificationType type);
 
     // Priority-based queries
     Page<Notification> findByRecipientAndPriorityOrderByCreatedAtDesc(User recipient, NotificationPriority priority, Pageable pageable);
 
-    @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient ORDER BY n.priority DESC, n.createdAt DESC")
+    @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient ORDER BY n.priority DESC, n.lastActorAt DESC")
     Page<Notification> findByRecipientOrderByPriorityAndCreatedAt(@Param("recipient") User recipient, Pageable pageable);
 
     // Entity-specific queries
@@ -49,10 +87,35 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient AND n.entityId = :entityId AND n.entityType = :entityType")
     List<Notification> findByRecipientAndEntity(@Param("recipient") User recipient, @Param("entityId") Long entityId, @Param("entityType") String entityType);
 
+    // Deduplication - single probe on uk_notification_dedup
+    boolean existsByDedupKey(String dedupKey);
+
     // Grouping queries
     @Query("SELECT n FROM Notification n WHERE n.recipient = :recipient AND n.groupKey = :groupKey ORDER BY n.createdAt DESC")
     List<Notification> findByRecipientAndGroupKey(@Param("recipient") User recipient, @Param("groupKey") String groupKey);
 
+    // Aggregation - latest unread notification of a group inside the aggregation window
+    Optional<Notification> findFirstByRecipientAndGroupKeyAndIsReadFalseAndLastActorAtAfterOrderByLastActorAtDesc(
+            User recipient, String groupKey, Date lastActorAfter);
+
+    // Row lock held for the rest of the aggregating transaction so concurrent folds serialize on the aggregate
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n LEFT JOIN FETCH n.actor WHERE n.id = :id")
+    Optional<Notification> findByIdForUpdate(@Param("id") Long id);
+
+    // created_at is left alone - only last_actor_at moves the aggregate to the top
+    @Modifying
+    @Query("UPDATE Notification n SET n.actorCount = COALESCE(n.actorCount, 1) + 1, n.actor = :actor, " +
+           "n.sampleActors = :sampleActors, n.lastActorAt = :now, n.isSeen = false " +
+           "WHERE n.id = :id AND n.isRead = false")
+    int bumpAggregate(@Param("id") Long id,
+                      @Param("actor") User actor,
+                      @Param("sampleActors") String sampleActors,
+                      @Param("now") Date now);
+
+    @Query("SELECT n FROM Notification n JOIN FETCH n.recipient LEFT JOIN FETCH n.actor WHERE n.id IN :ids")
+    List<Notification> findAllWithUsersByIdIn(@Param("ids") Collection<Long> ids);
+
     // Bulk operations
     @Modifying
     @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.recipient = :recipient AND n.isRead = false")
@@ -109,6 +172,42 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
                                    @Param("entityType") String entityType,
                                    @Param("actor") User actor);
 
+    // Set-based duplicate cleanup: rows in (fromId, toId] that have an older twin - keeps MIN(id) per group
+    @Query(value = "SELECT n.id FROM notifications n WHERE n.type = :type AND n.id > :fromId AND n.id <= :toId " +
+                   "AND EXISTS (SELECT 1 FROM notifications k WHERE k.user_id = n.user_id AND k.type = n.type " +
+                   "AND k.actor_id = n.actor_id AND k.entity_id = n.entity_id AND k.entity_type = n.entity_type " +
+                   "AND k.id < n.id) ORDER BY n.id LIMIT :limit",
+           nativeQuery = true)
+    List<Number> findDuplicateIdsInRange(@Param("type") String type,
+                                         @Param("fromId") long fromId,
+                                         @Param("toId") long toId,
+                                         @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("SELECT COALESCE(MAX(n.id), 0) FROM Notification n")
+    long findMaxId();
+
+    // Backfill for rows written before last_actor_at existed
+    @Modifying
+    @Query(value = "UPDATE notifications SET last_actor_at = created_at " +
+                   "WHERE id > :fromId AND id <= :toId AND last_actor_at IS NULL",
+           nativeQuery = true)
+    int backfillLastActorAt(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // Backfill for rows written before dedup_key existed: id, type, entityType, entityId, recipient id, actor id
+    @Query("SELECT n.id, n.type, n.entityType, n.entityId, n.recipient.id, n.actor.id FROM Notification n " +
+           "WHERE n.id > :fromId AND n.id <= :toId AND n.dedupKey IS NULL AND n.type <> :excludedType " +
+           "AND n.entityId IS NOT NULL AND n.entityType IS NOT NULL AND n.actor IS NOT NULL ORDER BY n.id")
+    List<Object[]> findDedupKeyBackfillCandidates(@Param("fromId") long fromId,
+                                                  @Param("toId") long toId,
+                                                  @Param("excludedType") NotificationType excludedType);
+
+    @Query("SELECT n.dedupKey FROM Notification n WHERE n.dedupKey IN :dedupKeys")
+    List<String> findExistingDedupKeys(@Param("dedupKeys") Collection<String> dedupKeys);
+
     // ======================= OPTIMIZED BATCH CLEANUP QUERIES =======================
     
     /**
@@ -129,6 +228,16 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     int deleteOldReadNotificationsBatch(@Param("readBefore") Date readBefore, 
                                        @Param("batchSize") int batchSize);
     
+    /**
+     * Next batch of read notifications eligible for the archive tier, walked by ID
+     */
+    @Query(value = "SELECT n.id FROM notifications n WHERE n.is_read = true AND n.read_at < :readBefore " +
+                   "AND n.id > :afterId ORDER BY n.id LIMIT :batchSize",
+           nativeQuery = true)
+    List<Number> findArchivableIds(@Param("readBefore") Date readBefore,
+                                   @Param("afterId") long afterId,
+                                   @Param("batchSize") int batchSize);
+
     /**
      * Count expired notifications for monitoring
      */
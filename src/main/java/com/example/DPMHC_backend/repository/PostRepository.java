@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +29,12 @@ public interface PostRepository extends JpaRepository<Post, Long> {
            "LEFT JOIN FETCH p.user " +
            "WHERE p.id = :id")
     Optional<Post> findByIdWithUser(@Param("id") Long id);
+
+    // Most active authors since a point in time (cache warm-up)
+    @Query("SELECT p.user.id FROM Post p " +
+           "WHERE p.createdAt >= :since " +
+           "GROUP BY p.user.id ORDER BY COUNT(p) DESC")
+    List<Long> findMostActiveAuthorIds(@Param("since") Date since, Pageable pageable);
     
     // Optimized: User's posts with user data
     @Query("SELECT p FROM Post p " +
@@ -25,6 +25,15 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     @Query("UPDATE RefreshToken rt SET rt.isRevoked = true, rt.revokedAt = :revokedAt WHERE rt.user = :user")
     void revokeAllByUser(@Param("user") User user, @Param("revokedAt") LocalDateTime revokedAt);
     
+    // Compare-and-set revoke: only one concurrent caller can see 1 for the same token
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true, rt.revokedAt = :now " +
+           "WHERE rt.token = :token AND rt.isRevoked = false AND rt.expiryDate > :now")
+    int revokeIfActive(@Param("token") String token, @Param("now") LocalDateTime now);
+
+    @Query("SELECT rt.user FROM RefreshToken rt WHERE rt.token = :token")
+    Optional<User> findUserByToken(@Param("token") String token);
+
     @Modifying
     @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now")
     void deleteExpiredTokens(@Param("now") LocalDateTime now);
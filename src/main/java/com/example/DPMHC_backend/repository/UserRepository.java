@@ -2,21 +2,25 @@ package com.example.DPMHC_backend.repository;
 
 import com.example.DPMHC_backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmailIgnoreCase(String email);
 
     boolean existsByEmailIgnoreCase(String email);
 
     boolean existsByUsernameIgnoreCase(String username);
 
-    Optional<User> findByUsername(String username);
     
     List<User> findByUsernameContainingIgnoreCase(String username);
     
     List<User> findByIsAdminTrue();
+
+    @Query("SELECT u.email FROM User u WHERE u.id IN :ids")
+    List<String> findEmailsByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
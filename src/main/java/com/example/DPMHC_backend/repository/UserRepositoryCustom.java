@@ -0,0 +1,15 @@
+package com.example.DPMHC_backend.repository;
+
+import com.example.DPMHC_backend.model.User;
+
+import java.util.Optional;
+
+/**
+ * User lookups that go through the Hibernate second-level cache instead of a JPQL query
+ */
+public interface UserRepositoryCustom {
+
+    Optional<User> findByEmail(String email);
+
+    Optional<User> findByUsername(String username);
+}
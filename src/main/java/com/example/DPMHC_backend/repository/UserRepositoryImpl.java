@@ -0,0 +1,86 @@
+package com.example.DPMHC_backend.repository;
+
+import com.example.DPMHC_backend.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+@Transactional(readOnly = true)
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * email -> id and username -> id, kept beside the entity region instead of as natural IDs: a mutable
+     * natural ID makes Hibernate add its own unique constraint at startup. Entries are checked against the
+     * loaded user, so a changed or reused email or username corrects itself.
+     */
+    private final Cache<String, Long> idsByEmail;
+    private final Cache<String, Long> idsByUsername;
+
+    public UserRepositoryImpl(@Value("${app.hibernate.l2.max-size:10000}") long maxSize,
+                              @Value("${app.hibernate.l2.ttl-seconds:300}") long ttlSeconds) {
+        this.idsByEmail = idCache(maxSize, ttlSeconds);
+        this.idsByUsername = idCache(maxSize, ttlSeconds);
+    }
+
+    /**
+     * email -> id from the lookup cache (index-only query on a miss), then the entity from the entity region
+     */
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return findByLookup(idsByEmail, "email", email, User::getEmail);
+    }
+
+    /**
+     * username -> id from the lookup cache (index-only query on a miss), then the entity from the entity region
+     */
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return findByLookup(idsByUsername, "username", username, User::getUsername);
+    }
+
+    private Optional<User> findByLookup(Cache<String, Long> ids, String attribute, String value,
+                                        Function<User, String> current) {
+        if (value == null) {
+            return Optional.empty();
+        }
+
+        Long cachedId = ids.getIfPresent(value);
+        if (cachedId != null) {
+            User user = entityManager.find(User.class, cachedId);
+            if (user != null && Objects.equals(current.apply(user), value)) {
+                return Optional.of(user);
+            }
+            ids.invalidate(value); // value changed or user deleted since it was cached
+        }
+
+        List<Long> found = entityManager
+                .createQuery("SELECT u.id FROM User u WHERE u." + attribute + " = :value", Long.class)
+                .setParameter("value", value)
+                .setMaxResults(1)
+                .getResultList();
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        ids.put(value, found.get(0));
+        return Optional.ofNullable(entityManager.find(User.class, found.get(0)));
+    }
+
+    private static Cache<String, Long> idCache(long maxSize, long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.DPMHC_backend.security;
+
+import com.example.DPMHC_backend.model.User;
+import com.example.DPMHC_backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the full User behind an authentication, for the few endpoints that need more than the token claims
+ * Claims-only principals are loaded by id (served from the Hibernate entity cache); DB-backed principals are returned as is.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthenticatedUserLoader {
+
+    private final UserRepository userRepository;
+
+    public User loadFull(Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User principal)) {
+            return null;
+        }
+        if (!(authentication instanceof ClaimsAuthenticationToken)) {
+            return principal;
+        }
+        return userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
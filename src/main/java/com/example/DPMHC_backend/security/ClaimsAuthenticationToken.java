@@ -0,0 +1,36 @@
+package com.example.DPMHC_backend.security;
+
+import com.example.DPMHC_backend.model.Role;
+import com.example.DPMHC_backend.model.User;
+import lombok.Getter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authentication built from verified token claims alone
+ * The principal is a detached User carrying only id, email, username, role and admin flag;
+ * use {@link AuthenticatedUserLoader} when the full entity is needed.
+ */
+@Getter
+public class ClaimsAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final transient JwtClaims claims;
+
+    public ClaimsAuthenticationToken(JwtClaims claims, Collection<? extends GrantedAuthority> authorities) {
+        super(toPrincipal(claims), null, authorities);
+        this.claims = claims;
+    }
+
+    private static User toPrincipal(JwtClaims claims) {
+        User user = new User();
+        user.setId(claims.userId());
+        user.setEmail(claims.email());
+        user.setUsername(claims.username());
+        user.setRole(Role.ADMIN.name().equals(claims.role()) ? Role.ADMIN : Role.USER);
+        user.setAdmin(claims.admin());
+        user.setTokenVersion(claims.version());
+        return user;
+    }
+}
@@ -9,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -28,6 +29,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final TokenVersionService tokenVersionService;
+
+    @Value("${app.security.stateless-principal:true}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -56,17 +61,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.debug("JWT token extracted, length: {}", jwt.length());
 
 
-            // Extract email from JWT
-            final String userEmail;
+            // Verify the token once and read every claim from that single parse
+            final JwtClaims claims;
             try {
-                userEmail = jwtService.extractEmail(jwt);
-                logger.debug("Extracted email from JWT: {}", userEmail);
+                claims = jwtService.parseClaims(jwt);
             } catch (Exception e) {
-                logger.error("Failed to extract email from JWT: {}", e.getMessage());
+                logger.error("Failed to parse JWT: {}", e.getMessage());
                 sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid token format");
                 return;
             }
 
+            final String userEmail = claims.email();
+            logger.debug("Extracted email from JWT: {}", userEmail);
+
             if (userEmail == null || userEmail.trim().isEmpty()) {
                 logger.error("Email extracted from JWT is null or empty");
                 sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid token - no email");
@@ -76,46 +83,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (SecurityContextHolder.getContext().getAuthentication() == null) {
                 logger.debug("No existing authentication, proceeding with JWT validation");
 
-                // Find user by email
-                Optional<User> userOpt = userRepository.findByEmail(userEmail);
-                if (userOpt.isEmpty()) {
-                    logger.error("User not found in database: {}", userEmail);
-                    sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "User not found");
-                    return;
-                }
-
-                User user = userOpt.get();
-                logger.debug("User found: {} with ID: {}", user.getEmail(), user.getId());
-
-                // Validate JWT token
-                boolean isTokenValid;
-                try {
-                    isTokenValid = jwtService.isTokenValid(jwt, user);
-                    logger.debug("Token validation result: {}", isTokenValid);
-                } catch (Exception e) {
-                    logger.error("Token validation failed: {}", e.getMessage());
-                    sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Token validation failed");
-                    return;
-                }
-
-                if (!isTokenValid) {
-                    logger.error("JWT token is invalid for user: {}", userEmail);
-                    sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
-                    return;
-                }
-
-                // Extract role from JWT
-                String role;
-                try {
-                    role = jwtService.extractRole(jwt);
-                    logger.debug("Extracted role from JWT: {}", role);
-                } catch (Exception e) {
-                    logger.error("Failed to extract role from JWT: {}", e.getMessage());
-                    // Default to USER role if extraction fails
-                    role = "USER";
-                    logger.debug("Defaulting to USER role");
-                }
-
+                String role = claims.role();
                 if (role == null || role.trim().isEmpty()) {
                     logger.warn("Role extracted from JWT is null or empty, defaulting to USER");
                     role = "USER";
@@ -125,21 +93,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 List<SimpleGrantedAuthority> authorities = Collections.singletonList(
                         new SimpleGrantedAuthority("ROLE_" + role)
                 );
-                logger.debug("Created authorities: {}", authorities);
 
-                // Create authentication token
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(user, null, authorities);
+                UsernamePasswordAuthenticationToken authToken;
+                if (statelessPrincipal && claims.isSelfContained()) {
+                    // Signature and expiry were verified by parseClaims; only revocation needs checking
+                    if (!tokenVersionService.isCurrent(claims)) {
+                        logger.warn("Revoked or outdated token for user ID: {}", claims.userId());
+                        sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
+                        return;
+                    }
+                    authToken = new ClaimsAuthenticationToken(claims, authorities);
+                } else {
+                    User user = loadUser(claims);
+                    if (user == null) {
+                        sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid token");
+                        return;
+                    }
+                    authToken = new UsernamePasswordAuthenticationToken(user, null, authorities);
+                }
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 // Set authentication in security context
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                logger.info("=== JWT FILTER FINAL DEBUG ===");
-                logger.info("Set authentication for user: {}", user.getEmail());
-                logger.info("Authentication principal class: {}", authToken.getPrincipal().getClass().getName());
-                logger.info("Authentication principal: {}", authToken.getPrincipal());
-                logger.info("Authentication authorities: {}", authToken.getAuthorities());
-                logger.info("Is authenticated: {}", authToken.isAuthenticated());
+                logger.debug("Set authentication for user: {} with authorities {}", userEmail, authorities);
             } else {
                 logger.debug("Authentication already exists in SecurityContext");
             }
@@ -156,6 +132,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
     }
 
+    /**
+     * DB-backed authentication, used when stateless mode is off or the token predates version stamps
+     */
+    private User loadUser(JwtClaims claims) {
+        Optional<User> userOpt = userRepository.findByEmail(claims.email());
+        if (userOpt.isEmpty()) {
+            logger.error("User not found in database: {}", claims.email());
+            return null;
+        }
+
+        User user = userOpt.get();
+        boolean isTokenValid = !claims.isExpired() && !user.isBanned()
+                && (claims.version() == null || claims.version() == user.getTokenVersion());
+        if (!isTokenValid) {
+            logger.error("JWT token is invalid for user: {}", claims.email());
+            return null;
+        }
+        return user;
+    }
+
     private void sendError(HttpServletResponse response, int status, String message)
             throws IOException {
         if (response.isCommitted()) {
@@ -0,0 +1,26 @@
+package com.example.DPMHC_backend.security;
+
+import java.util.Date;
+
+/**
+ * Verified claims of a JWT, extracted in a single parse
+ * version is the user's token version at issue time; tokens issued before it existed carry null.
+ */
+public record JwtClaims(String email, Long userId, String username, String role, boolean admin, Long version,
+                        String type, Date issuedAt, Date expiresAt) {
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.before(new Date());
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    /**
+     * True when the token carries everything needed to authenticate without loading the user
+     */
+    public boolean isSelfContained() {
+        return userId != null && version != null;
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.DPMHC_backend.security;
 
 import com.example.DPMHC_backend.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 
 @Service
@@ -22,11 +30,22 @@ public class JwtService {
     @Value("${app.jwt.refresh-expiration:2592000000}") // 30 days for refresh token validation (matching RefreshTokenService)
     private long refreshExpiration;
 
+    @Value("${app.jwt.claims-cache.max-size:50000}")
+    private long claimsCacheMaxSize;
+
     private Key key;
+    private JwtParser parser;
+    private Cache<String, JwtClaims> verifiedClaims;
 
     @PostConstruct
     public void init() {
         key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(key).build(); // immutable and thread-safe
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(Expiry.<String, JwtClaims>creating((tokenHash, claims) ->
+                        Duration.ofMillis(Math.max(0, claims.expiresAt().getTime() - System.currentTimeMillis()))))
+                .build();
     }
 
     public String generateToken(User user) {
@@ -34,6 +53,9 @@ public class JwtService {
                 .setSubject(user.getEmail())
                 .claim("role", user.getRole().name())
                 .claim("userId", user.getId())
+                .claim("username", user.getUsername())
+                .claim("admin", user.isAdmin())
+                .claim("ver", user.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
                 .signWith(key, SignatureAlgorithm.HS256)
@@ -51,39 +73,62 @@ public class JwtService {
                 .compact();
     }
 
+    /**
+     * Verify the signature and expiry once and return every claim.
+     * Verified claims are cached by token hash until the token expires, so repeated requests with
+     * the same token skip the HMAC check. Throws JwtException for invalid or expired tokens.
+     */
+    public JwtClaims parseClaims(String token) {
+        String cacheKey = hash(token);
+        JwtClaims cached = verifiedClaims.getIfPresent(cacheKey);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        JwtClaims parsed = new JwtClaims(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                claims.get("username", String.class),
+                claims.get("role", String.class),
+                Boolean.TRUE.equals(claims.get("admin", Boolean.class)),
+                claims.get("ver", Long.class),
+                claims.get("type", String.class),
+                claims.getIssuedAt(),
+                claims.getExpiration());
+        if (parsed.expiresAt() != null) {
+            verifiedClaims.put(cacheKey, parsed);
+        }
+        return parsed;
+    }
+
     public String extractEmail(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        return parseClaims(token).email();
     }
 
     public String extractRole(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().get("role", String.class);
+        return parseClaims(token).role();
     }
 
     public Long extractUserId(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().get("userId", Long.class);
+        return parseClaims(token).userId();
     }
 
     public String extractTokenType(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().get("type", String.class);
+        return parseClaims(token).type();
     }
 
     public boolean isTokenValid(String token, User user) {
-        final String email = extractEmail(token);
-        return (email.equals(user.getEmail()) && !isTokenExpired(token));
+        JwtClaims claims = parseClaims(token);
+        return claims.email().equals(user.getEmail()) && !claims.isExpired();
     }
 
     public boolean isTokenExpired(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getExpiration().before(new Date());
+        return parseClaims(token).isExpired();
     }
 
     public Date extractExpiration(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token).getBody().getExpiration();
+        return parseClaims(token).expiresAt();
     }
 
     public boolean isRefreshToken(String token) {
@@ -94,4 +139,16 @@ public class JwtService {
             return false;
         }
     }
+
+    /**
+     * SHA-256 of the token so raw tokens are not kept in memory as cache keys
+     */
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
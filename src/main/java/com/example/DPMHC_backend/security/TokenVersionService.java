@@ -0,0 +1,139 @@
+package com.example.DPMHC_backend.security;
+
+import com.example.DPMHC_backend.model.User;
+import com.example.DPMHC_backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revocation check for stateless authentication
+ * Keeps a user-id -> token version map (BANNED for banned users) in a short-lived local cache in front of
+ * Redis, falling back to the users table only on a Redis miss. Bumping a user's version rejects every access
+ * token issued before; other nodes notice within the local TTL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionService {
+
+    public static final long BANNED = -1L;
+    public static final long UNKNOWN = -2L;
+
+    private static final String VERSION_KEY = "socialmedia:auth:token-version:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final UserRepository userRepository;
+
+    @Value("${app.security.token-version.local-ttl-seconds:5}")
+    private long localTtlSeconds;
+
+    @Value("${app.security.token-version.local-max-size:100000}")
+    private long localMaxSize;
+
+    @Value("${app.security.token-version.redis-ttl-minutes:60}")
+    private long redisTtlMinutes;
+
+    private Cache<Long, Long> localVersions;
+
+    @PostConstruct
+    public void init() {
+        localVersions = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+    }
+
+    /**
+     * True when the token's version is the user's current one and the user is not banned
+     */
+    public boolean isCurrent(JwtClaims claims) {
+        if (!claims.isSelfContained()) {
+            return false;
+        }
+        long current = currentVersion(claims.userId());
+        return current >= 0 && current == claims.version();
+    }
+
+    /**
+     * Current token version of a user, BANNED for banned users and UNKNOWN for users that do not exist
+     */
+    public long currentVersion(Long userId) {
+        return localVersions.get(userId, this::loadVersion);
+    }
+
+    /**
+     * Invalidate every access token of the user and persist the change.
+     * The new stamp is published once the surrounding transaction commits (immediately without one).
+     */
+    public User revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User saved = userRepository.save(user);
+        publishAfterCommit(saved);
+        log.info("🔒 Revoked access tokens of user {} (version {})", saved.getId(), saved.getTokenVersion());
+        return saved;
+    }
+
+    /**
+     * Publish the user's current stamp once the surrounding transaction commits (immediately without one)
+     */
+    public void publishAfterCommit(User user) {
+        Long userId = user.getId();
+        long stamp = stampOf(user);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(userId, stamp);
+                }
+            });
+        } else {
+            publish(userId, stamp);
+        }
+    }
+
+    private long loadVersion(Long userId) {
+        try {
+            Object cached = redisTemplate.opsForValue().get(VERSION_KEY + userId);
+            if (cached instanceof Number number) {
+                return number.longValue();
+            }
+        } catch (Exception e) {
+            log.warn("Token version lookup in Redis failed for user {}, reading the database: {}", userId, e.getMessage());
+        }
+
+        long stamp = userRepository.findById(userId).map(this::stampOf).orElse(UNKNOWN);
+        if (stamp != UNKNOWN) {
+            writeRedis(userId, stamp);
+        }
+        return stamp;
+    }
+
+    private void publish(Long userId, long stamp) {
+        writeRedis(userId, stamp);
+        localVersions.put(userId, stamp);
+    }
+
+    private void writeRedis(Long userId, long stamp) {
+        try {
+            redisTemplate.opsForValue().set(VERSION_KEY + userId, stamp, redisTtlMinutes, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.debug("Could not cache token version of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private long stampOf(User user) {
+        return user.isBanned() ? BANNED : user.getTokenVersion();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.DPMHC_backend.security;
+
+import com.example.DPMHC_backend.model.User;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the bumped token version after a role, admin or ban change is flushed, so every node rejects
+ * the user's old access tokens once the transaction commits, whichever code path made the change
+ */
+@Component
+public class UserAuthorityListener {
+
+    // Resolved lazily: the token version service depends on the repositories this listener is built for
+    private final ObjectProvider<TokenVersionService> tokenVersionService;
+
+    public UserAuthorityListener(ObjectProvider<TokenVersionService> tokenVersionService) {
+        this.tokenVersionService = tokenVersionService;
+    }
+
+    @PostUpdate
+    public void publishOnAuthorityChange(User user) {
+        if (user.hasAuthorityChanged()) {
+            tokenVersionService.getObject().publishAfterCommit(user);
+        }
+    }
+}
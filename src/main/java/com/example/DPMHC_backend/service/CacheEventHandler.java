@@ -0,0 +1,72 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.cache.CacheTagIndex;
+import com.example.DPMHC_backend.config.cache.TwoLevelCacheManager;
+import com.example.DPMHC_backend.event.CommentAddedEvent;
+import com.example.DPMHC_backend.event.MessageSentEvent;
+import com.example.DPMHC_backend.event.PostLikedEvent;
+import com.example.DPMHC_backend.event.UserFollowedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cache invalidation for committed domain events.
+ * Runs synchronously on the committing thread: evictions are cheap, and doing them before the
+ * response is written keeps read-your-own-write for the caller's next request.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheEventHandler {
+
+    private final TwoLevelCacheManager cacheManager;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostLiked(PostLikedEvent event) {
+        // Cached Post entity carries likesCount
+        evict("posts", event.postId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCommentAdded(CommentAddedEvent event) {
+        evictTag(CacheTagIndex.tag(CacheTagIndex.TAG_POST, event.postId()));
+        evict("comment-counts", event.postId());
+        evict("posts", event.postId()); // Comment count changed
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserFollowed(UserFollowedEvent event) {
+        evict("followerCount", event.followeeId());
+        evict("followingCount", event.followerId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        evictTag(CacheTagIndex.tag(CacheTagIndex.TAG_CHAT, event.chatId()));
+        evictTag(CacheTagIndex.tag(CacheTagIndex.TAG_USER_CHATS, event.senderId())); // Chat order and last message
+        evict("message-counts", event.chatId());
+    }
+
+    private void evictTag(String tag) {
+        try {
+            cacheManager.evictTag(tag);
+        } catch (Exception e) {
+            log.warn("Cache tag eviction failed for {}: {}", tag, e.getMessage());
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        try {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(key);
+            }
+        } catch (Exception e) {
+            log.warn("Cache eviction failed for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.DPMHC_backend.service;
 
+import com.example.DPMHC_backend.config.cache.TwoLevelCacheManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -21,9 +29,21 @@ public class CacheManagementService {
 
     private final CacheManager cacheManager;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheWarmupService cacheWarmupService;
+
+    private static final String CACHE_KEY_PREFIX = "socialmedia:";
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    @Value("${app.cache.introspection.max-scan-keys:100000}")
+    private long maxScanKeys;
+
+    @Value("${app.cache.introspection.sample-size:5}")
+    private int sampleSize;
 
     /**
      * Get cache statistics for monitoring
+     * One incremental SCAN over the cache keyspace (never KEYS), grouped by cache name, with a
+     * reservoir sample of keys per cache for TTL and size inspection, plus the per-cache Redis statistics.
      */
     public Map<String, Object> getCacheStatistics() {
         Map<String, Object> stats = new HashMap<>();
@@ -31,27 +51,51 @@ public class CacheManagementService {
         
         stats.put("totalCaches", cacheNames.size());
         stats.put("cacheNames", cacheNames);
+
+        Map<String, Long> keyCounts = new HashMap<>();
+        Map<String, List<String>> samples = new HashMap<>();
+        long scanned = 0;
+        boolean truncated = false;
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions()
+                .match(CACHE_KEY_PREFIX + "*")
+                .count(SCAN_BATCH_SIZE)
+                .build())) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                int separator = key.indexOf("::", CACHE_KEY_PREFIX.length());
+                if (separator > 0) {
+                    String cacheName = key.substring(CACHE_KEY_PREFIX.length(), separator);
+                    long seen = keyCounts.merge(cacheName, 1L, Long::sum);
+                    sample(samples.computeIfAbsent(cacheName, name -> new ArrayList<>(sampleSize)), key, seen);
+                }
+                if (++scanned >= maxScanKeys) {
+                    truncated = !cursor.isClosed() && cursor.hasNext();
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to scan cache keyspace", e);
+            stats.put("error", e.getMessage());
+        }
+        stats.put("scannedKeys", scanned);
+        stats.put("scanTruncated", truncated);
         
         Map<String, Map<String, Object>> cacheDetails = new HashMap<>();
         
         for (String cacheName : cacheNames) {
             Map<String, Object> cacheStats = new HashMap<>();
-            Cache cache = cacheManager.getCache(cacheName);
-            
-            if (cache != null) {
-                // Get cache size using Redis commands
-                String keyPattern = "socialmedia:" + cacheName + ":*";
-                Set<String> keys = redisTemplate.keys(keyPattern);
-                cacheStats.put("size", keys != null ? keys.size() : 0);
-                cacheStats.put("keyPattern", keyPattern);
-                
-                // Sample some keys for inspection
-                if (keys != null && !keys.isEmpty()) {
-                    List<String> sampleKeys = keys.stream()
-                            .limit(5)
-                            .toList();
-                    cacheStats.put("sampleKeys", sampleKeys);
-                }
+            cacheStats.put("size", keyCounts.getOrDefault(cacheName, 0L));
+            cacheStats.put("keyPattern", CACHE_KEY_PREFIX + cacheName + "::*");
+
+            List<String> sampleKeys = samples.getOrDefault(cacheName, List.of());
+            if (!sampleKeys.isEmpty()) {
+                cacheStats.put("sampleKeys", sampleKeys);
+                cacheStats.put("samples", inspectSamples(sampleKeys));
+            }
+
+            Map<String, Object> redisStats = getRedisCacheStatistics(cacheName);
+            if (redisStats != null) {
+                cacheStats.put("statistics", redisStats);
             }
             
             cacheDetails.put(cacheName, cacheStats);
@@ -61,6 +105,53 @@ public class CacheManagementService {
         return stats;
     }
 
+    /**
+     * Reservoir sampling so the sample is uniform over the scanned keys, not just the first ones
+     */
+    private void sample(List<String> reservoir, String key, long seen) {
+        if (reservoir.size() < sampleSize) {
+            reservoir.add(key);
+        } else {
+            long slot = ThreadLocalRandom.current().nextLong(seen);
+            if (slot < sampleSize) {
+                reservoir.set((int) slot, key);
+            }
+        }
+    }
+
+    private List<Map<String, Object>> inspectSamples(List<String> keys) {
+        List<Map<String, Object>> inspected = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("key", key);
+            entry.put("ttlSeconds", redisTemplate.getExpire(key, TimeUnit.SECONDS));
+            entry.put("bytes", redisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.stringCommands().strLen(key.getBytes(StandardCharsets.UTF_8))));
+            inspected.add(entry);
+        }
+        return inspected;
+    }
+
+    private Map<String, Object> getRedisCacheStatistics(String cacheName) {
+        if (!(cacheManager instanceof TwoLevelCacheManager twoLevelCacheManager)) {
+            return null;
+        }
+        CacheStatistics statistics = twoLevelCacheManager.getStatistics(cacheName);
+        if (statistics == null) {
+            return null;
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("gets", statistics.getGets());
+        result.put("hits", statistics.getHits());
+        result.put("misses", statistics.getMisses());
+        result.put("puts", statistics.getPuts());
+        result.put("deletes", statistics.getDeletes());
+        result.put("hitRatio", statistics.getGets() > 0
+                ? String.format("%.2f%%", (double) statistics.getHits() / statistics.getGets() * 100) : "n/a");
+        result.put("since", statistics.getSince());
+        return result;
+    }
+
     /**
      * Check Redis connection health
      */
@@ -129,22 +220,11 @@ public class CacheManagementService {
     }
 
     /**
-     * Warm up caches with sample data (useful after cache clear)
+     * Warm up caches with the hottest feed pages, users and chats (useful after cache clear)
      */
-    public void warmUpCaches() {
+    public CacheWarmupService.WarmupReport warmUpCaches() {
         log.info("🔥 Starting cache warm-up process...");
-        
-        // This would typically involve calling frequently accessed methods
-        // to pre-populate the cache. Implementation depends on specific use cases.
-        
-        try {
-            // Example: You could call frequently accessed user lookups here
-            // userService.getUserById(1L); // This would populate the cache
-            
-            log.info("🔥 Cache warm-up completed successfully");
-        } catch (Exception e) {
-            log.error("🔥 Cache warm-up failed", e);
-        }
+        return cacheWarmupService.warmUp();
     }
 
     /**
@@ -176,6 +256,16 @@ public class CacheManagementService {
             log.error("Failed to get cache hit ratio", e);
             hitRatio.put("error", e.getMessage());
         }
+
+        // Per-cache ratios from the Redis cache statistics - these are what TTLs should be tuned with
+        Map<String, Object> perCache = new TreeMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Map<String, Object> redisStats = getRedisCacheStatistics(cacheName);
+            if (redisStats != null && ((Long) redisStats.get("gets")) > 0) {
+                perCache.put(cacheName, redisStats);
+            }
+        }
+        hitRatio.put("perCache", perCache);
         
         return hitRatio;
     }
@@ -0,0 +1,192 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.repository.ChatParticipantRepository;
+import com.example.DPMHC_backend.repository.ChatRepository;
+import com.example.DPMHC_backend.repository.MessageRepository;
+import com.example.DPMHC_backend.repository.PostRepository;
+import com.example.DPMHC_backend.repository.UserRepository;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preloads the hottest cache entries: the first feed pages and user lookup of the most active users,
+ * and the latest message page of the most recently active chats for each participant.
+ * Loads go through the regular service proxies, so entries that are still warm in Redis cost one cache hit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheWarmupService {
+
+    private static final int FEED_PAGE_SIZE = 20;         // PostController#getAllPosts default
+    private static final int CHAT_PAGE_SIZE = 50;         // MessageController#getChatMessages default
+
+    private final PostRepository postRepository;
+    private final MessageRepository messageRepository;
+    private final ChatRepository chatRepository;
+    private final ChatParticipantRepository participantRepository;
+    private final UserRepository userRepository;
+    private final PostBatchService postBatchService;
+    private final MessageService messageService;
+    private final OptimizedUserLookupService userLookupService;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${app.cache.warmup.active-window-hours:24}")
+    private long activeWindowHours;
+
+    @Value("${app.cache.warmup.users:50}")
+    private int userLimit;
+
+    @Value("${app.cache.warmup.feed-pages:2}")
+    private int feedPages;
+
+    @Value("${app.cache.warmup.chats:50}")
+    private int chatLimit;
+
+    @Value("${app.cache.warmup.participants-per-chat:10}")
+    private int participantsPerChat;
+
+    @Value("${app.cache.warmup.parallelism:8}")
+    private int parallelism;
+
+    @Value("${app.cache.warmup.timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    public WarmupReport warmUp() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("🔥 Cache warm-up already running");
+            return WarmupReport.builder().skipped(true).build();
+        }
+
+        long startTime = System.currentTimeMillis();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            LocalDateTime since = LocalDateTime.now().minusHours(activeWindowHours);
+            List<String> activeUserEmails = findActiveUserEmails(since);
+            Map<Long, List<Long>> hotChatParticipants = findHotChatParticipants(since);
+
+            List<Runnable> tasks = new ArrayList<>();
+            for (String email : activeUserEmails) {
+                tasks.add(() -> userLookupService.findByEmailCached(email));
+                for (int page = 0; page < feedPages; page++) {
+                    PageRequest pageable = PageRequest.of(page, FEED_PAGE_SIZE);
+                    tasks.add(() -> postBatchService.getOptimizedPostsWithMetadata(pageable, email));
+                }
+            }
+            PageRequest chatPage = PageRequest.of(0, CHAT_PAGE_SIZE, Sort.by("createdAt"));
+            hotChatParticipants.forEach((chatId, userIds) -> userIds.forEach(userId ->
+                    tasks.add(() -> messageService.getChatMessages(chatId, userId, chatPage))));
+
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(pool.submit(() -> {
+                    try {
+                        task.run();
+                        succeeded.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        log.debug("Cache warm-up task failed: {}", e.getMessage());
+                    }
+                }));
+            }
+
+            boolean timedOut = awaitAll(futures, startTime + timeoutSeconds * 1000);
+            WarmupReport report = WarmupReport.builder()
+                    .users(activeUserEmails.size())
+                    .chats(hotChatParticipants.size())
+                    .tasks(tasks.size())
+                    .succeeded(succeeded.get())
+                    .failed(failed.get())
+                    .timedOut(timedOut)
+                    .durationMs(System.currentTimeMillis() - startTime)
+                    .build();
+            log.info("🔥 Cache warm-up finished: {} users, {} chats, {}/{} loads ok, {} failed{} in {}ms",
+                    report.getUsers(), report.getChats(), report.getSucceeded(), report.getTasks(),
+                    report.getFailed(), timedOut ? " (timed out)" : "", report.getDurationMs());
+            return report;
+        } finally {
+            pool.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    private List<String> findActiveUserEmails(LocalDateTime since) {
+        PageRequest top = PageRequest.of(0, userLimit);
+        Set<Long> userIds = new LinkedHashSet<>(messageRepository.findMostActiveSenderIds(since, top));
+        userIds.addAll(postRepository.findMostActiveAuthorIds(
+                Date.from(since.atZone(ZoneId.systemDefault()).toInstant()), top));
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findEmailsByIds(userIds.stream().limit(userLimit).toList());
+    }
+
+    private Map<Long, List<Long>> findHotChatParticipants(LocalDateTime since) {
+        List<Long> chatIds = chatRepository.findRecentlyActiveChatIds(since, PageRequest.of(0, chatLimit));
+        if (chatIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<Long>> participants = new LinkedHashMap<>();
+        for (Object[] row : participantRepository.findActiveUserIdsByChatIds(chatIds)) {
+            List<Long> userIds = participants.computeIfAbsent((Long) row[0], id -> new ArrayList<>());
+            if (userIds.size() < participantsPerChat) {
+                userIds.add((Long) row[1]);
+            }
+        }
+        return participants;
+    }
+
+    private boolean awaitAll(List<Future<?>> futures, long deadline) {
+        for (Future<?> future : futures) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return true;
+            }
+            try {
+                future.get(remaining, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return true;
+            } catch (ExecutionException e) {
+                // Counted inside the task
+            }
+        }
+        return false;
+    }
+
+    @Builder
+    @Data
+    public static class WarmupReport {
+        private boolean skipped;
+        private int users;
+        private int chats;
+        private int tasks;
+        private int succeeded;
+        private int failed;
+        private boolean timedOut;
+        private long durationMs;
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.DPMHC_backend.service;
 
+import com.example.DPMHC_backend.config.cache.CacheTagIndex;
+import com.example.DPMHC_backend.config.cache.annotation.EvictCacheTag;
 import com.example.DPMHC_backend.config.database.DatabaseContextHolder;
 import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
 import com.example.DPMHC_backend.config.database.annotation.WriteDB;
 import com.example.DPMHC_backend.dto.CommentDTO;
+import com.example.DPMHC_backend.event.CommentAddedEvent;
 import com.example.DPMHC_backend.model.Comment;
 import com.example.DPMHC_backend.model.CommentLike;
 import com.example.DPMHC_backend.model.Post;
@@ -38,14 +41,10 @@ public class CommentService {
     private final UserRepository userRepository;
     private final CommentLikeRepository commentLikeRepository;
     private final NotificationService notificationService; // Add notification service
+    private final DomainEventPublisher domainEventPublisher;
 
     @WriteDB(type = WriteDB.OperationType.CREATE)
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = "post-comments", key = "#postId + ':*'", allEntries = false),
-        @CacheEvict(value = "comment-counts", key = "#postId"),
-        @CacheEvict(value = "posts", key = "#postId") // Evict post cache as comment count changed
-    })
     public Comment addComment(Long postId, String content, String userEmail) {
         log.debug("💬 Adding comment to post {} by user {}", postId, userEmail);
         User user = userRepository.findByEmail(userEmail)
@@ -63,18 +62,17 @@ public class CommentService {
 
         Comment savedComment = commentRepository.save(comment);
 
-        // Trigger notification for new comment
-        notificationService.handleComment(post.getUser().getEmail(), userEmail, postId, savedComment.getId());
+        // Notification and cache eviction run after commit
+        domainEventPublisher.publish(new CommentAddedEvent(postId, savedComment.getId(),
+                post.getUser().getEmail(), userEmail));
 
         return savedComment;
     }
 
     @WriteDB(type = WriteDB.OperationType.UPDATE)
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = "post-comments", key = "#result.post.id + ':*'", allEntries = false),
-        @CacheEvict(value = "comment-replies", key = "#result.parentComment?.id + ':*'", allEntries = false)
-    })
+    @EvictCacheTag(type = CacheTagIndex.TAG_POST, id = "#result.post.id")
+    @EvictCacheTag(type = CacheTagIndex.TAG_COMMENT, id = "#result.parentComment?.id")
     public Comment editComment(Long commentId, String content, String userEmail) {
         log.debug("✏️ Editing comment {} by user {}", commentId, userEmail);
         
@@ -166,11 +164,12 @@ public class CommentService {
     @WriteDB(type = WriteDB.OperationType.DELETE)
     @Transactional
     @Caching(evict = {
-        @CacheEvict(value = "post-comments", key = "#result.post.id + ':*'", allEntries = false),
         @CacheEvict(value = "comment-counts", key = "#result.post.id"),
-        @CacheEvict(value = "comment-replies", key = "#commentId + ':*'", allEntries = false),
         @CacheEvict(value = "posts", key = "#result.post.id")
     })
+    @EvictCacheTag(type = CacheTagIndex.TAG_POST, id = "#result.post.id")
+    @EvictCacheTag(type = CacheTagIndex.TAG_COMMENT, id = "#commentId")
+    @EvictCacheTag(type = CacheTagIndex.TAG_COMMENT, id = "#result.parentComment?.id")
     public Comment deleteComment(Long commentId, String userEmail) {
         log.debug("🗑️ Deleting comment {} by user {}", commentId, userEmail);
         
@@ -189,11 +188,9 @@ public class CommentService {
 
     @WriteDB(type = WriteDB.OperationType.CREATE)
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = "comment-replies", key = "#parentCommentId + ':*'", allEntries = false),
-        @CacheEvict(value = "post-comments", key = "#result.post.id + ':*'", allEntries = false),
-        @CacheEvict(value = "comment-counts", key = "#result.post.id")
-    })
+    @CacheEvict(value = "comment-counts", key = "#result.post.id")
+    @EvictCacheTag(type = CacheTagIndex.TAG_COMMENT, id = "#parentCommentId")
+    @EvictCacheTag(type = CacheTagIndex.TAG_POST, id = "#result.post.id")
     public Comment addReply(Long parentCommentId, String content, String userEmail) {
         log.debug("➕ Adding reply to comment {} by user {}", parentCommentId, userEmail);
         
@@ -223,7 +220,7 @@ public class CommentService {
 
     @WriteDB(type = WriteDB.OperationType.UPDATE)
     @Transactional
-    @CacheEvict(value = "comment-likes", key = "#commentId + ':*'", allEntries = false)
+    @EvictCacheTag(type = CacheTagIndex.TAG_COMMENT, id = "#commentId")
     public boolean toggleCommentLike(Long commentId, String userEmail) {
         log.debug("👍 Toggling like for comment {} by user {}", commentId, userEmail);
         
@@ -25,16 +25,21 @@ import java.util.Date;
 public class DatabaseCleanupBatchService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenService refreshTokenService;
     private final NotificationRepository notificationRepository;
+    private final NotificationRetentionService notificationRetentionService;
     private final ApplicationContext applicationContext;
 
     /**
      * OPTIMIZED: Batch cleanup expired refresh tokens with deadlock retry mechanism
-     * Runs every 30 minutes to prevent token table bloat
+     * Runs every 30 minutes to prevent token table bloat; a no-op with the Redis token store
      */
     @Scheduled(fixedRate = 1800000) // 30 minutes
     @WriteDB(type = WriteDB.OperationType.DELETE)
     public void cleanupExpiredRefreshTokens() {
+        if (!refreshTokenService.isSqlBacked()) {
+            return;
+        }
         int maxRetries = 3;
         int retryCount = 0;
         
@@ -179,8 +184,9 @@ public class DatabaseCleanupBatchService {
     }
 
     /**
-     * OPTIMIZED: Batch cleanup old read notifications with deadlock retry mechanism
-     * Runs weekly to remove old read notifications
+     * OPTIMIZED: Batch purge of archived notifications past the cold retention window, with deadlock retry
+     * Read notifications are moved to notifications_archive by NotificationRetentionService; this is the final tier
+     * Runs weekly
      */
     @Scheduled(fixedRate = 604800000) // 7 days
     @WriteDB(type = WriteDB.OperationType.DELETE)
@@ -218,23 +224,16 @@ public class DatabaseCleanupBatchService {
     }
 
     /**
-     * Internal method for old read notification cleanup with transaction boundary
+     * Internal method for archive purge - each batch commits in its own transaction
      */
-    @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW, 
-                   isolation = org.springframework.transaction.annotation.Isolation.READ_COMMITTED)
     public void executeOldReadNotificationCleanup() {
         long startTime = System.currentTimeMillis();
         
-        // Clean read notifications older than 7 days
-        Date cleanupDate = new Date(System.currentTimeMillis() - (7L * 24 * 60 * 60 * 1000));
-        
-        int batchSize = 500;
         int totalDeleted = 0;
         int deletedInBatch;
         
         do {
-            deletedInBatch = notificationRepository.deleteOldReadNotificationsBatch(
-                cleanupDate, batchSize);
+            deletedInBatch = notificationRetentionService.purgeExpiredArchiveBatch();
             totalDeleted += deletedInBatch;
             
             if (deletedInBatch > 0) {
@@ -249,17 +248,20 @@ public class DatabaseCleanupBatchService {
         } while (deletedInBatch > 0);
         
         long duration = System.currentTimeMillis() - startTime;
-        log.info("🧹 BATCH CLEANUP: Deleted {} old read notifications in {}ms", 
+        log.info("🧹 BATCH CLEANUP: Purged {} archived notifications past retention in {}ms", 
             totalDeleted, duration);
     }
 
     /**
      * OPTIMIZED: Batch cleanup revoked refresh tokens with deadlock retry mechanism
-     * Runs every 6 hours to clean up revoked tokens
+     * Runs every 6 hours to clean up revoked tokens; a no-op with the Redis token store
      */
     @Scheduled(fixedRate = 21600000) // 6 hours
     @WriteDB(type = WriteDB.OperationType.DELETE)
     public void cleanupRevokedRefreshTokens() {
+        if (!refreshTokenService.isSqlBacked()) {
+            return;
+        }
         int maxRetries = 3;
         int retryCount = 0;
         
@@ -368,6 +370,7 @@ public class DatabaseCleanupBatchService {
                 new Date(System.currentTimeMillis() - (30L * 24 * 60 * 60 * 1000))))
             .totalOldReadNotifications(notificationRepository.countOldReadNotifications(
                 new Date(System.currentTimeMillis() - (7L * 24 * 60 * 60 * 1000))))
+            .totalExpiredArchivedNotifications(notificationRetentionService.countExpiredArchive())
             .build();
     }
 
@@ -385,5 +388,6 @@ public class DatabaseCleanupBatchService {
         private long totalRevokedTokens;
         private long totalExpiredNotifications;
         private long totalOldReadNotifications;
+        private long totalExpiredArchivedNotifications;
     }
 }
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.event.*;
+import com.example.DPMHC_backend.model.DomainEventOutbox;
+import com.example.DPMHC_backend.repository.DomainEventOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Domain event bus backed by a transactional outbox
+ * publish() writes the event into domain_event_outbox inside the caller's transaction and hands it to
+ * Spring's event multicaster; handlers use @TransactionalEventListener(AFTER_COMMIT), so nothing leaves
+ * the process unless the write commits. A row is marked PUBLISHED only once every {@link DomainEventConsumer}
+ * of its event has succeeded; rows left pending by a failed handler, a full queue or a crash are dispatched
+ * again by the relay, giving at-least-once delivery to those consumers.
+ */
+@Service
+@Slf4j
+public class DomainEventPublisher {
+
+    private static final Map<String, Class<? extends DomainEvent>> EVENT_TYPES = Stream.of(
+                    PostLikedEvent.class, CommentAddedEvent.class, UserFollowedEvent.class, MessageSentEvent.class)
+            .collect(Collectors.toMap(Class::getSimpleName, Function.identity()));
+
+    private final DomainEventOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+
+    // Outbox IDs whose consumers all succeeded, marked PUBLISHED in one update per flush
+    private final Set<Long> acknowledged = ConcurrentHashMap.newKeySet();
+
+    // Dispatched events still waiting on consumers; weak keys compare by identity, and the entry of a delivery
+    // that never completes (rolled back, dropped from a queue) goes once the event is unreachable - its row is
+    // still pending, so the relay picks it up
+    private final Cache<DomainEvent, Delivery> inFlight;
+
+    private volatile Map<Class<?>, Integer> consumerCounts;
+
+    @Value("${app.events.outbox.stale-after-seconds:60}")
+    private long staleAfterSeconds;
+
+    @Value("${app.events.outbox.relay-batch-size:100}")
+    private int relayBatchSize;
+
+    @Value("${app.events.outbox.claim-lease-seconds:120}")
+    private long claimLeaseSeconds;
+
+    @Value("${app.events.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.events.outbox.retention-days:3}")
+    private int retentionDays;
+
+    public DomainEventPublisher(DomainEventOutboxRepository outboxRepository,
+                                ApplicationEventPublisher applicationEventPublisher,
+                                ApplicationContext applicationContext,
+                                ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.applicationContext = applicationContext;
+        this.objectMapper = objectMapper;
+        this.inFlight = Caffeine.newBuilder()
+                .weakKeys()
+                .build();
+    }
+
+    /**
+     * Record the event in the current transaction; handlers run only after it commits
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(DomainEvent event) {
+        DomainEventOutbox row = outboxRepository.save(DomainEventOutbox.builder()
+                .eventType(event.eventType())
+                .payload(writePayload(event))
+                .build());
+
+        Long outboxId = row.getId();
+        if (!track(event, outboxId)) {
+            // Nothing needs to confirm it: published as soon as it commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acknowledged.add(outboxId);
+                }
+            });
+        }
+
+        applicationEventPublisher.publishEvent(event);
+    }
+
+    /**
+     * Run a consumer's work for an event; once the returned stage completes, the last consumer to succeed
+     * acknowledges the outbox row. A failure is logged and not acknowledged, so the row stays pending and
+     * is dispatched again.
+     */
+    public void deliver(DomainEvent event, String consumer, Supplier<? extends CompletionStage<?>> work) {
+        CompletionStage<?> done;
+        try {
+            done = work.get();
+        } catch (Exception e) {
+            done = CompletableFuture.failedFuture(e);
+        }
+        done.whenComplete((result, failure) -> {
+            if (failure != null) {
+                log.error("Domain event consumer {} failed on {}, leaving it for the relay",
+                        consumer, event.eventType(), failure);
+                return;
+            }
+            Delivery delivery = inFlight.getIfPresent(event);
+            if (delivery != null && delivery.remaining().decrementAndGet() == 0) {
+                inFlight.invalidate(event);
+                acknowledged.add(delivery.outboxId());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.outbox.ack-flush-interval-ms:1000}")
+    public void flushAcknowledged() {
+        if (acknowledged.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(acknowledged);
+        acknowledged.removeAll(ids);
+        try {
+            getSelf().markPublished(ids);
+        } catch (Exception e) {
+            // The relay will re-publish these; handlers are idempotent enough for at-least-once
+            log.warn("Could not mark {} domain events as published: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-dispatch events that committed but were never acknowledged
+     * Every node runs the relay; each row is claimed first, so only one node re-dispatches it per lease.
+     * The claim counts as an attempt; the row is acknowledged the same way as on first dispatch, and one still
+     * pending after max-attempts claims is marked FAILED.
+     */
+    @Scheduled(fixedDelayString = "${app.events.outbox.relay-interval-ms:30000}")
+    public void relayStaleEvents() {
+        List<DomainEventOutbox> stale = getSelf().claimStaleBatch();
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        int relayed = 0;
+        List<Long> unconsumed = new ArrayList<>();
+        List<Long> exhausted = new ArrayList<>();
+        for (DomainEventOutbox row : stale) {
+            if (row.getAttempts() > maxAttempts) {
+                log.error("❌ Giving up on domain event {} ({}) after {} attempts",
+                        row.getId(), row.getEventType(), row.getAttempts() - 1);
+                exhausted.add(row.getId());
+                continue;
+            }
+            try {
+                DomainEvent event = readPayload(row);
+                if (!track(event, row.getId())) {
+                    unconsumed.add(row.getId());
+                }
+                // No transaction here - listeners run through fallbackExecution
+                applicationEventPublisher.publishEvent(event);
+                relayed++;
+            } catch (Exception e) {
+                // Still pending: claimed again once the lease runs out
+                log.warn("Failed to relay domain event {} ({}): {}", row.getId(), row.getEventType(), e.getMessage());
+            }
+        }
+
+        if (!unconsumed.isEmpty()) {
+            getSelf().markPublished(unconsumed);
+        }
+        if (!exhausted.isEmpty()) {
+            getSelf().markFailed(exhausted);
+        }
+        if (relayed > 0) {
+            log.info("🔁 Relayed {} unacknowledged domain events", relayed);
+        }
+    }
+
+    /**
+     * Claim up to relay-batch-size stale rows for this node
+     */
+    @WriteDB(type = WriteDB.OperationType.UPDATE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<DomainEventOutbox> claimStaleBatch() {
+        Date now = new Date();
+        Date createdBefore = new Date(now.getTime() - staleAfterSeconds * 1000);
+        List<Long> staleIds = outboxRepository.findStalePendingIds(createdBefore, now, PageRequest.of(0, relayBatchSize));
+        if (staleIds.isEmpty()) {
+            return List.of();
+        }
+
+        String claimToken = UUID.randomUUID().toString();
+        Date leaseUntil = new Date(now.getTime() + claimLeaseSeconds * 1000);
+        if (outboxRepository.claim(staleIds, claimToken, leaseUntil, now) == 0) {
+            return List.of();
+        }
+        return outboxRepository.findByClaimTokenOrderByIdAsc(claimToken);
+    }
+
+    @WriteDB(type = WriteDB.OperationType.UPDATE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markPublished(Collection<Long> ids) {
+        outboxRepository.markPublished(ids, new Date());
+    }
+
+    @WriteDB(type = WriteDB.OperationType.UPDATE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markFailed(Collection<Long> ids) {
+        outboxRepository.markFailed(ids);
+    }
+
+    // Drop published events past retention every day at 4:30 AM
+    @Scheduled(cron = "0 30 4 * * *")
+    @WriteDB(type = WriteDB.OperationType.DELETE)
+    @Transactional
+    public void purgePublishedEvents() {
+        Date before = new Date(System.currentTimeMillis() - retentionDays * 24L * 60 * 60 * 1000);
+        int deleted = outboxRepository.deletePublishedBefore(before);
+        if (deleted > 0) {
+            log.info("🧹 Purged {} published domain events", deleted);
+        }
+    }
+
+    /**
+     * Start waiting for the event's consumers; false when it has none and counts as published on dispatch
+     */
+    private boolean track(DomainEvent event, Long outboxId) {
+        int consumers = consumerCount(event);
+        if (consumers == 0) {
+            return false;
+        }
+        inFlight.put(event, new Delivery(outboxId, new AtomicInteger(consumers)));
+        return true;
+    }
+
+    private int consumerCount(DomainEvent event) {
+        Map<Class<?>, Integer> counts = consumerCounts;
+        if (counts == null) {
+            counts = new HashMap<>();
+            for (DomainEventConsumer consumer : applicationContext.getBeansOfType(DomainEventConsumer.class).values()) {
+                for (Class<? extends DomainEvent> type : consumer.consumedEvents()) {
+                    counts.merge(type, 1, Integer::sum);
+                }
+            }
+            consumerCounts = counts;
+        }
+        return counts.getOrDefault(event.getClass(), 0);
+    }
+
+    private String writePayload(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize domain event " + event.eventType(), e);
+        }
+    }
+
+    private DomainEvent readPayload(DomainEventOutbox row) throws JsonProcessingException {
+        Class<? extends DomainEvent> type = EVENT_TYPES.get(row.getEventType());
+        if (type == null) {
+            throw new IllegalStateException("Unknown domain event type " + row.getEventType());
+        }
+        return objectMapper.readValue(row.getPayload(), type);
+    }
+
+    /**
+     * Gets the Spring-managed proxy instance for transaction support
+     */
+    private DomainEventPublisher getSelf() {
+        return applicationContext.getBean(DomainEventPublisher.class);
+    }
+
+    private record Delivery(Long outboxId, AtomicInteger remaining) {
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.model.EmailOutbox;
+import com.example.DPMHC_backend.model.EmailOutboxStatus;
+import com.example.DPMHC_backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background delivery of the email outbox
+ * Claims due rows in batches, sends each batch over a single SMTP connection
+ * (JavaMailSender opens one transport per send(MimeMessage...) call) and reschedules
+ * failures with exponential backoff until max attempts is reached.
+ */
+@Service
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final ApplicationContext applicationContext;
+    private final Executor emailTaskExecutor;
+
+    private final AtomicBoolean dispatching = new AtomicBoolean(false);
+    private final AtomicBoolean wakeRequested = new AtomicBoolean(false);
+
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter failedCounter;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${app.email.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${app.email.outbox.claim-lease-seconds:120}")
+    private long claimLeaseSeconds;
+
+    @Value("${app.email.outbox.sent-retention-days:7}")
+    private int sentRetentionDays;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender mailSender,
+                                 ApplicationContext applicationContext,
+                                 @Qualifier("emailTaskExecutor") Executor emailTaskExecutor,
+                                 MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.applicationContext = applicationContext;
+        this.emailTaskExecutor = emailTaskExecutor;
+        this.sentCounter = Counter.builder("email.outbox.sent")
+                .description("Emails delivered from the outbox")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("email.outbox.retried")
+                .description("Email deliveries rescheduled after a failure")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("email.outbox.failed")
+                .description("Emails given up on after max attempts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Trigger a dispatch pass off the caller's thread (called after an enqueue commits)
+     */
+    public void wakeUp() {
+        // A full executor queue drops the task; the pending flag and the next poll cover it
+        wakeRequested.set(true);
+        emailTaskExecutor.execute(this::dispatchDue);
+    }
+
+    // Safety net for missed wake-ups, retries coming due and other instances' rows; SMTP runs on the email
+    // executor so a slow mail server never holds the shared scheduler thread
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    private void dispatchDue() {
+        // One pass at a time per instance; a wake-up during a pass makes it loop once more
+        while (wakeRequested.get() && dispatching.compareAndSet(false, true)) {
+            try {
+                wakeRequested.set(false);
+                List<EmailOutbox> batch;
+                do {
+                    batch = getSelf().claimBatch();
+                    if (!batch.isEmpty()) {
+                        deliver(batch);
+                    }
+                } while (batch.size() >= batchSize);
+            } catch (Exception e) {
+                log.error("❌ Email outbox dispatch pass failed", e);
+            } finally {
+                dispatching.set(false);
+            }
+        }
+    }
+
+    /**
+     * Claim up to batchSize due rows for this pass
+     */
+    @WriteDB(type = WriteDB.OperationType.UPDATE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<EmailOutbox> claimBatch() {
+        Date now = new Date();
+        List<Long> dueIds = emailOutboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) {
+            return List.of();
+        }
+
+        String claimToken = UUID.randomUUID().toString();
+        Date leaseUntil = new Date(now.getTime() + claimLeaseSeconds * 1000);
+        int claimed = emailOutboxRepository.claim(dueIds, claimToken, leaseUntil, now);
+        if (claimed == 0) {
+            return List.of();
+        }
+        return emailOutboxRepository.findByClaimToken(claimToken);
+    }
+
+    private void deliver(List<EmailOutbox> batch) {
+        Map<MimeMessage, EmailOutbox> messages = new LinkedHashMap<>();
+        Map<Long, String> failures = new HashMap<>();
+
+        for (EmailOutbox email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException e) {
+                failures.put(email.getId(), e.getMessage());
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                // Partial failure: only the listed messages failed, the rest went out on the same connection
+                Map<Object, Exception> failedMessages = e.getFailedMessages();
+                if (failedMessages.isEmpty()) {
+                    messages.values().forEach(email -> failures.put(email.getId(), e.getMessage()));
+                } else {
+                    failedMessages.forEach((message, ex) -> {
+                        EmailOutbox email = messages.get(message);
+                        if (email != null) {
+                            failures.put(email.getId(), ex.getMessage());
+                        }
+                    });
+                }
+            } catch (MailException e) {
+                messages.values().forEach(email -> failures.put(email.getId(), e.getMessage()));
+            }
+        }
+
+        getSelf().recordResults(batch, failures);
+    }
+
+    /**
+     * Mark delivered rows SENT and reschedule or fail the rest
+     */
+    @WriteDB(type = WriteDB.OperationType.UPDATE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordResults(List<EmailOutbox> batch, Map<Long, String> failures) {
+        Date now = new Date();
+        for (EmailOutbox email : batch) {
+            email.setClaimToken(null);
+            email.setAttempts(email.getAttempts() + 1);
+
+            String error = failures.get(email.getId());
+            if (error == null) {
+                email.setStatus(EmailOutboxStatus.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                sentCounter.increment();
+                continue;
+            }
+
+            email.setLastError(error.length() > 500 ? error.substring(0, 500) : error);
+            if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(EmailOutboxStatus.FAILED);
+                failedCounter.increment();
+                log.error("❌ Giving up on email {} to {} after {} attempts: {}",
+                        email.getId(), email.getRecipient(), email.getAttempts(), error);
+            } else {
+                email.setStatus(EmailOutboxStatus.PENDING);
+                email.setNextAttemptAt(new Date(now.getTime() + backoffMillis(email.getAttempts())));
+                retryCounter.increment();
+                log.warn("⚠️ Email {} to {} failed (attempt {}), retrying at {}: {}",
+                        email.getId(), email.getRecipient(), email.getAttempts(), email.getNextAttemptAt(), error);
+            }
+        }
+        emailOutboxRepository.saveAll(batch);
+
+        int sent = batch.size() - failures.size();
+        if (sent > 0) {
+            log.info("📧 Delivered {} outbox emails", sent);
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter, capped at max-backoff-seconds
+     */
+    private long backoffMillis(int attempts) {
+        long seconds = Math.min(initialBackoffSeconds << Math.min(attempts - 1, 20), maxBackoffSeconds);
+        long jitter = (long) (seconds * 1000 * 0.2 * Math.random());
+        return seconds * 1000 + jitter;
+    }
+
+    // Drop delivered rows past retention every day at 4 AM
+    @Scheduled(cron = "0 0 4 * * *")
+    @WriteDB(type = WriteDB.OperationType.DELETE)
+    @Transactional
+    public void purgeSentEmails() {
+        Date before = new Date(System.currentTimeMillis() - sentRetentionDays * 24L * 60 * 60 * 1000);
+        int deleted = emailOutboxRepository.deleteSentBefore(before);
+        if (deleted > 0) {
+            log.info("🧹 Purged {} delivered outbox emails", deleted);
+        }
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, email.isHtml());
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), email.isHtml());
+        return message;
+    }
+
+    /**
+     * Gets the Spring-managed proxy instance for transaction support
+     */
+    private EmailOutboxDispatcher getSelf() {
+        return applicationContext.getBean(EmailOutboxDispatcher.class);
+    }
+}
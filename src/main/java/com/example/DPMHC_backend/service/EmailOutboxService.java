@@ -0,0 +1,48 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.model.EmailOutbox;
+import com.example.DPMHC_backend.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes outgoing email into the email_outbox table.
+ * Joins the caller's transaction, so the email exists exactly when the business change commits
+ * and a rolled-back registration never sends anything.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @WriteDB(type = WriteDB.OperationType.CREATE)
+    @Transactional
+    public void enqueue(String to, String subject, String body, boolean html) {
+        EmailOutbox email = emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .html(html)
+                .build());
+        log.debug("📧 Queued email {} '{}' for {}", email.getId(), subject, to);
+
+        // Wake the dispatcher once the row is visible instead of waiting for the next poll
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emailOutboxDispatcher.wakeUp();
+                }
+            });
+        }
+    }
+}
@@ -1,94 +1,47 @@
 package com.example.DPMHC_backend.service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.springframework.beans.factory.annotation.Value;
 
+/**
+ * Composes outgoing emails and hands them to the transactional outbox.
+ * Delivery happens asynchronously in EmailOutboxDispatcher, so callers never wait on SMTP.
+ */
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxService emailOutboxService;
 
     public void sendVerificationEmail(String to, String verificationLink) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject("Verify your email");
-            helper.setText(
-                    "<p>Please click the link below to verify your email:</p>" +
-                            "<a href=\"" + verificationLink + "\">Verify Email</a>", true
-            );
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send verification email", e);
-        }
+        emailOutboxService.enqueue(to, "Verify your email",
+                "<p>Please click the link below to verify your email:</p>" +
+                        "<a href=\"" + verificationLink + "\">Verify Email</a>", true);
     }
 
     public void sendPasswordResetEmail(String toEmail, String resetLink) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("Password Reset Request");
-        message.setText("You requested to reset your password. Click the link below to proceed:\n\n" +
-                resetLink + "\n\nIf you didn't request this, please ignore this email.");
-        mailSender.send(message);
+        emailOutboxService.enqueue(toEmail, "Password Reset Request",
+                "You requested to reset your password. Click the link below to proceed:\n\n" +
+                        resetLink + "\n\nIf you didn't request this, please ignore this email.", false);
     }
 
     public void sendPasswordResetCodeEmail(String toEmail, String resetCode) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("Password Reset Code");
-        message.setText("You requested to reset your password. Use the following 5-digit code to proceed:\n\n" +
-                "Reset Code: " + resetCode + "\n\n" +
-                "This code will expire in 15 minutes.\n\n" +
-                "If you didn't request this, please ignore this email.");
-        mailSender.send(message);
+        emailOutboxService.enqueue(toEmail, "Password Reset Code",
+                "You requested to reset your password. Use the following 5-digit code to proceed:\n\n" +
+                        "Reset Code: " + resetCode + "\n\n" +
+                        "This code will expire in 15 minutes.\n\n" +
+                        "If you didn't request this, please ignore this email.", false);
     }
 
     public void sendWarningEmail(String toEmail, String username, String reason, String warningMessage, boolean isFinalWarning) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            
-            String subject = isFinalWarning ? "⚠️ FINAL WARNING - Content Policy Violation" : "⚠️ WARNING - Content Policy Violation";
-            helper.setSubject(subject);
-            
-            String emailContent = buildWarningEmailContent(username, reason, warningMessage, isFinalWarning);
-            helper.setText(emailContent, true);
-            
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send warning email", e);
-        }
+        String subject = isFinalWarning ? "⚠️ FINAL WARNING - Content Policy Violation" : "⚠️ WARNING - Content Policy Violation";
+        String emailContent = buildWarningEmailContent(username, reason, warningMessage, isFinalWarning);
+        emailOutboxService.enqueue(toEmail, subject, emailContent, true);
     }
     
     public void sendBanNotificationEmail(String toEmail, String username, String reason) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject("🚫 Account Suspended - Content Policy Violation");
-            
-            String emailContent = buildBanEmailContent(username, reason);
-            helper.setText(emailContent, true);
-            
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send ban notification email", e);
-        }
+        String emailContent = buildBanEmailContent(username, reason);
+        emailOutboxService.enqueue(toEmail, "🚫 Account Suspended - Content Policy Violation", emailContent, true);
     }
     
     private String buildWarningEmailContent(String username, String reason, String warningMessage, boolean isFinalWarning) {
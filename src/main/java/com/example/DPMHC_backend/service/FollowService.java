@@ -6,6 +6,7 @@ import com.example.DPMHC_backend.config.database.annotation.WriteDB;
 import com.example.DPMHC_backend.dto.FollowDTO;
 import com.example.DPMHC_backend.dto.FollowStatusDTO;
 import com.example.DPMHC_backend.dto.UserDTO;
+import com.example.DPMHC_backend.event.UserFollowedEvent;
 import com.example.DPMHC_backend.exception.SelfFollowException;
 import com.example.DPMHC_backend.exception.UserNotFoundException;
 import com.example.DPMHC_backend.model.Follow;
@@ -32,6 +33,7 @@ public class FollowService {
     private final FollowRepository followRepository;
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
+    private final DomainEventPublisher domainEventPublisher;
 
     // ========== ENHANCED CORE FOLLOW OPERATIONS ==========
 
@@ -97,6 +99,10 @@ public class FollowService {
         follow.setFollowee(followee);
         followRepository.save(follow);
 
+        // Notification and count cache eviction run after commit
+        domainEventPublisher.publish(new UserFollowedEvent(followerId, followeeId,
+                follower.getEmail(), followee.getEmail()));
+
         long followersCount = followRepository.countByFolloweeId(followeeId);
         long followingCount = followRepository.countByFollowerId(followeeId);
 
@@ -1,18 +1,25 @@
 package com.example.DPMHC_backend.service;
 
+import com.example.DPMHC_backend.config.cache.CacheLoadCoordinator;
+import com.example.DPMHC_backend.config.cache.CacheTagIndex;
+import com.example.DPMHC_backend.config.cache.annotation.EvictCacheTag;
 import com.example.DPMHC_backend.config.database.DatabaseContextHolder;
 import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
 import com.example.DPMHC_backend.config.database.annotation.WriteDB;
 import com.example.DPMHC_backend.dto.*;
 import com.example.DPMHC_backend.dto.cache.PageCacheWrapper;
+import com.example.DPMHC_backend.event.MessageSentEvent;
 import com.example.DPMHC_backend.model.*;
 import com.example.DPMHC_backend.repository.*;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,6 +27,7 @@ import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -40,17 +48,20 @@ public class MessageService {
     private final PinnedMessageRepository pinnedMessageRepository;
     private final com.example.DPMHC_backend.service.WebSocketService webSocketService;
     private final UserBlockRepository userBlockRepository;
+    private final DomainEventPublisher domainEventPublisher;
+    private final CacheLoadCoordinator cacheLoadCoordinator;
+    private final ApplicationContext applicationContext;
+
+    private static final TypeReference<PageCacheWrapper<MessageDTO>> MESSAGE_PAGE_TYPE = new TypeReference<>() {};
+
+    @Value("${app.cache.stampede.chat-messages.fresh-seconds:420}")
+    private long chatMessagesFreshSeconds;
 
     /**
      * Send a new message
      */
     @WriteDB(type = WriteDB.OperationType.CREATE)
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = "chat-messages", key = "#request.chatId + ':*'", allEntries = false),
-        @CacheEvict(value = "chat-lists", key = "#userId + ':*'", allEntries = false),
-        @CacheEvict(value = "message-counts", key = "#request.chatId")
-    })
     public MessageDTO sendMessage(MessageSendRequestDTO request, Long userId) {
         // Debug logging to see what's being received
         log.info("Received message send request: {}", request);
@@ -144,35 +155,43 @@ public class MessageService {
         // Create read statuses for all participants
         createReadStatusForAllParticipants(savedMessage);
 
-        // Broadcast message via WebSocket
+        // WebSocket broadcast and cache eviction run after commit
         MessageDTO messageDTO = new MessageDTO(savedMessage);
-        webSocketService.broadcastNewMessage(messageDTO);
+        domainEventPublisher.publish(new MessageSentEvent(chat.getId(), userId, messageDTO));
 
         return messageDTO;
     }
 
     /**
      * Get messages in a chat with pagination
+     * Served through the stampede-protected cache so an expiring hot chat page is rebuilt once.
+     * Runs outside the class-level transaction so callers waiting on a rebuild hold no connection.
      */
     @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.USER_SPECIFIC, userSpecific = true)
-    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<MessageDTO> getChatMessages(Long chatId, Long userId, Pageable pageable) {
         log.debug("💬 Fetching chat messages for chat {} by user {} (page {}, size {})", 
                   chatId, userId, pageable.getPageNumber(), pageable.getPageSize());
         
         DatabaseContextHolder.setUserContext(userId.toString());
-        
-        // Try to get from cache first using wrapper
-        PageCacheWrapper<MessageDTO> cachedWrapper = getCachedMessages(chatId, userId, pageable);
-        if (cachedWrapper != null) {
-            log.debug("🎯 Cache HIT: Retrieved {} messages from cache for chat {}", 
-                     cachedWrapper.getContent().size(), chatId);
-            return cachedWrapper.toPage(pageable);
-        }
-        
-        // Cache miss - fetch from database
-        log.debug("🔍 Cache MISS: Loading messages from database for chat {}", chatId);
-        
+
+        String key = chatId + ":page:" + pageable.getPageNumber() + ":size:" + pageable.getPageSize() + ":user:" + userId;
+        PageCacheWrapper<MessageDTO> wrapper = cacheLoadCoordinator.getOrLoad("chat-messages", key, MESSAGE_PAGE_TYPE,
+                Duration.ofSeconds(chatMessagesFreshSeconds),
+                () -> PageCacheWrapper.of(getSelf().loadChatMessages(chatId, userId, pageable)));
+        return wrapper.toPage(pageable);
+    }
+
+    /**
+     * Uncached chat page load; also used by background refreshes, hence its own read-only transaction
+     */
+    @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.USER_SPECIFIC, userSpecific = true)
+    @Transactional(readOnly = true)
+    public Page<MessageDTO> loadChatMessages(Long chatId, Long userId, Pageable pageable) {
+        log.debug("🔍 Loading messages from database for chat {}", chatId);
+
+        DatabaseContextHolder.setUserContext(userId.toString());
+
         // Verify user is participant
         if (!chatRepository.isUserParticipantOfChat(chatId, userId)) {
             throw new RuntimeException("User is not a participant of this chat");
@@ -183,32 +202,7 @@ public class MessageService {
         log.debug("DEBUG: Found {} messages, total elements: {}",
                 messages.getContent().size(), messages.getTotalElements());
 
-        Page<MessageDTO> result = messages.map(message -> convertToMessageDTO(message, userId));
-        
-        // Cache the result using wrapper
-        cacheMessages(chatId, userId, pageable, result);
-        
-        log.debug("✅ Retrieved {} messages for chat {} and cached", result.getContent().size(), chatId);
-        
-        return result;
-    }
-    
-    /**
-     * Get cached messages using cache wrapper to avoid Page serialization issues
-     */
-    @Cacheable(value = "chat-messages", key = "#chatId + ':page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize + ':user:' + #userId", 
-               unless = "#result == null")
-    public PageCacheWrapper<MessageDTO> getCachedMessages(Long chatId, Long userId, Pageable pageable) {
-        // This method will only be called if cache is empty - return null to indicate cache miss
-        return null;
-    }
-    
-    /**
-     * Cache messages using wrapper to avoid Page serialization issues
-     */
-    @CachePut(value = "chat-messages", key = "#chatId + ':page:' + #pageable.pageNumber + ':size:' + #pageable.pageSize + ':user:' + #userId")
-    public PageCacheWrapper<MessageDTO> cacheMessages(Long chatId, Long userId, Pageable pageable, Page<MessageDTO> page) {
-        return PageCacheWrapper.of(page);
+        return messages.map(message -> convertToMessageDTO(message, userId));
     }
 
     /**
@@ -240,10 +234,8 @@ public class MessageService {
      */
     @WriteDB(type = WriteDB.OperationType.UPDATE)
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = "chat-messages", key = "#result.chat.id + ':*'", allEntries = false),
-        @CacheEvict(value = "message-details", key = "#messageId + ':*'", allEntries = false)
-    })
+    @EvictCacheTag(type = CacheTagIndex.TAG_CHAT, id = "#result.chatId")
+    @EvictCacheTag(type = CacheTagIndex.TAG_MESSAGE, id = "#messageId")
     public MessageDTO editMessage(Long messageId, String newContent, Long userId) {
         log.debug("✏️ Editing message {} by user {}", messageId, userId);
         
@@ -279,11 +271,9 @@ public class MessageService {
      */
     @WriteDB(type = WriteDB.OperationType.DELETE)
     @Transactional
-    @Caching(evict = {
-        @CacheEvict(value = "chat-messages", key = "#result.chat.id + ':*'", allEntries = false),
-        @CacheEvict(value = "message-details", key = "#messageId + ':*'", allEntries = false),
-        @CacheEvict(value = "message-counts", key = "#result.chat.id")
-    })
+    @CacheEvict(value = "message-counts", key = "#result.chat.id")
+    @EvictCacheTag(type = CacheTagIndex.TAG_CHAT, id = "#result.chat.id")
+    @EvictCacheTag(type = CacheTagIndex.TAG_MESSAGE, id = "#messageId")
     public Message deleteMessage(Long messageId, Long userId) {
         log.debug("🗑️ Deleting message {} by user {}", messageId, userId);
         
@@ -711,4 +701,11 @@ public class MessageService {
 
         return dto;
     }
+
+    /**
+     * Gets the Spring-managed proxy instance for transaction support
+     */
+    private MessageService getSelf() {
+        return applicationContext.getBean(MessageService.class);
+    }
 }
@@ -0,0 +1,157 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.dto.NotificationDTO;
+import com.example.DPMHC_backend.model.Notification;
+import com.example.DPMHC_backend.model.NotificationAggregateActor;
+import com.example.DPMHC_backend.model.NotificationChangeType;
+import com.example.DPMHC_backend.model.NotificationType;
+import com.example.DPMHC_backend.model.User;
+import com.example.DPMHC_backend.repository.NotificationAggregateActorRepository;
+import com.example.DPMHC_backend.repository.NotificationRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Folds social notifications sharing a group key into one aggregate row
+ * ("Alice and 41 others liked your post") instead of inserting a row per event
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationAggregationService {
+
+    private static final int MAX_SAMPLE_ACTORS = 3;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationAggregateActorRepository aggregateActorRepository;
+    private final NotificationChangeLogService notificationChangeLogService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${app.notification.aggregation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notification.aggregation.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${app.notification.aggregation.types:LIKE,COMMENT,REPLY,FOLLOW}")
+    private Set<NotificationType> aggregatableTypes;
+
+    public boolean isAggregatable(NotificationType type, String groupKey, User actor) {
+        return enabled && groupKey != null && actor != null && aggregatableTypes.contains(type);
+    }
+
+    /**
+     * Fold the event into the recipient's latest unread notification of the same group.
+     * The aggregate row is locked for the rest of the transaction, so the actor check, the sample_actors
+     * rewrite and the count bump cannot interleave with a concurrent fold. Every folded actor is recorded
+     * with the event's dedup key; an actor already in the aggregate leaves the count untouched.
+     * Returns the aggregate's ID, or null when no aggregate exists in the window and a new row is needed.
+     */
+    @WriteDB(type = WriteDB.OperationType.UPDATE)
+    @Transactional
+    public Long tryAggregate(User recipient, User actor, String groupKey, String dedupKey) {
+        Date windowStart = new Date(System.currentTimeMillis() - windowMinutes * 60 * 1000);
+        Optional<Notification> candidate = notificationRepository
+                .findFirstByRecipientAndGroupKeyAndIsReadFalseAndLastActorAtAfterOrderByLastActorAtDesc(
+                        recipient, groupKey, windowStart);
+        if (candidate.isEmpty()) {
+            return null;
+        }
+
+        // Re-check under the lock: the aggregate may have been read since the unlocked lookup
+        Notification aggregate = notificationRepository.findByIdForUpdate(candidate.get().getId())
+                .filter(locked -> !locked.isRead())
+                .orElse(null);
+        if (aggregate == null) {
+            return null;
+        }
+
+        // Repeat event from an actor already folded in (e.g. like/unlike/like) - keep the count as is
+        if (isOriginalActor(aggregate, actor)
+                || aggregateActorRepository.existsByNotificationIdAndActorId(aggregate.getId(), actor.getId())) {
+            log.debug("Actor {} already aggregated into notification {}", actor.getId(), aggregate.getId());
+            return aggregate.getId();
+        }
+
+        // First fold: the original actor joins the set so it is not counted again once the row's actor changes
+        if (!aggregate.isAggregated() && aggregate.getActor() != null) {
+            aggregateActorRepository.save(NotificationAggregateActor.builder()
+                    .notificationId(aggregate.getId())
+                    .actorId(aggregate.getActor().getId())
+                    .build());
+        }
+        aggregateActorRepository.save(NotificationAggregateActor.builder()
+                .notificationId(aggregate.getId())
+                .actorId(actor.getId())
+                .dedupKey(dedupKey)
+                .build());
+
+        List<NotificationDTO.UserSummaryDTO> updatedSamples = new ArrayList<>(MAX_SAMPLE_ACTORS);
+        updatedSamples.add(toSummary(actor));
+        getSampleActors(aggregate).stream().limit(MAX_SAMPLE_ACTORS - 1).forEach(updatedSamples::add);
+
+        notificationRepository.bumpAggregate(aggregate.getId(), actor, writeSampleActors(updatedSamples), new Date());
+        notificationChangeLogService.record(recipient.getId(), aggregate.getId(), NotificationChangeType.AGGREGATED);
+        log.debug("Aggregated {} event from actor {} into notification {}", groupKey, actor.getId(), aggregate.getId());
+        return aggregate.getId();
+    }
+
+    /**
+     * Drop the actor sets of deleted or archived notifications; runs in the caller's transaction
+     */
+    public void removeActors(Collection<Long> notificationIds) {
+        if (!notificationIds.isEmpty()) {
+            aggregateActorRepository.deleteByNotificationIdIn(notificationIds);
+        }
+    }
+
+    /**
+     * Sample actors of a notification, most recent first.
+     * Falls back to the single actor for rows that were never aggregated.
+     */
+    public List<NotificationDTO.UserSummaryDTO> getSampleActors(Notification notification) {
+        if (notification.getSampleActors() != null) {
+            try {
+                return objectMapper.readValue(notification.getSampleActors(),
+                        new TypeReference<List<NotificationDTO.UserSummaryDTO>>() {});
+            } catch (JsonProcessingException e) {
+                log.warn("Invalid sample actors on notification {}: {}", notification.getId(), e.getMessage());
+            }
+        }
+        if (notification.getActor() != null) {
+            return new ArrayList<>(List.of(toSummary(notification.getActor())));
+        }
+        return new ArrayList<>();
+    }
+
+    private boolean isOriginalActor(Notification aggregate, User actor) {
+        return !aggregate.isAggregated() && aggregate.getActor() != null
+                && actor.getId().equals(aggregate.getActor().getId());
+    }
+
+    private NotificationDTO.UserSummaryDTO toSummary(User user) {
+        return NotificationDTO.UserSummaryDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .avatar(user.getAvatar())
+                .build();
+    }
+
+    private String writeSampleActors(List<NotificationDTO.UserSummaryDTO> samples) {
+        try {
+            return objectMapper.writeValueAsString(samples);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing sample actors", e);
+            return null;
+        }
+    }
+}
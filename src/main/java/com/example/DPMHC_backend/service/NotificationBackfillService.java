@@ -0,0 +1,127 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.model.NotificationType;
+import com.example.DPMHC_backend.repository.NotificationChangeRepository;
+import com.example.DPMHC_backend.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills notification columns added after rows were written (ddl-auto adds them as NULL)
+ * Walks the table in ID ranges, one short transaction per range, and finishes before the node reports ready
+ * so keyset pages never skip un-backfilled rows. Ranges with nothing left to fill cost one index probe.
+ * dedup_key is computed the way NotificationDedupService builds it. COMMENT rows stay NULL because the comment ID
+ * that keys them was never stored, and a row whose key an older row already holds stays NULL as well: it is a
+ * duplicate for NotificationDuplicateCleanupService, and filling it would violate uk_notification_dedup.
+ * Change log rows written before per-user versions take their ID as version, the value clients were given for them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationBackfillService implements ApplicationRunner {
+
+    private static final String ASSIGN_DEDUP_KEY_SQL =
+            "UPDATE notifications SET dedup_key = ? WHERE id = ? AND dedup_key IS NULL";
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationChangeRepository notificationChangeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationContext applicationContext;
+
+    @Value("${app.notification.backfill.on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${app.notification.backfill.range-size:10000}")
+    private int rangeSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            backfill();
+        } catch (Exception e) {
+            log.warn("⚠️ Notification backfill failed, will retry on next startup: {}", e.getMessage());
+        }
+    }
+
+    public int backfill() {
+        long startTime = System.currentTimeMillis();
+        long maxId = notificationRepository.findMaxId();
+        int updated = getSelf().backfillChangeVersions();
+        for (long fromId = 0; fromId < maxId; fromId += rangeSize) {
+            updated += getSelf().backfillRange(fromId, Math.min(fromId + rangeSize, maxId));
+        }
+        if (updated > 0) {
+            log.info("🧱 BACKFILL: Filled {} notification rows in {}ms", updated, System.currentTimeMillis() - startTime);
+        }
+        return updated;
+    }
+
+    /**
+     * Backfill one ID range (fromId, toId]
+     */
+    @WriteDB(type = WriteDB.OperationType.BULK_OPERATION)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.READ_COMMITTED)
+    public int backfillRange(long fromId, long toId) {
+        return notificationRepository.backfillLastActorAt(fromId, toId) + backfillDedupKeys(fromId, toId);
+    }
+
+    /**
+     * The change log only holds the retention window, so its legacy rows are filled in one statement
+     */
+    @WriteDB(type = WriteDB.OperationType.BULK_OPERATION)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int backfillChangeVersions() {
+        return notificationChangeRepository.backfillVersions();
+    }
+
+    private int backfillDedupKeys(long fromId, long toId) {
+        List<Object[]> candidates = notificationRepository.findDedupKeyBackfillCandidates(
+                fromId, toId, NotificationType.COMMENT);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        // Candidates come in ID order, so the oldest row of each key wins
+        Map<String, Long> idsByKey = new LinkedHashMap<>();
+        for (Object[] row : candidates) {
+            String dedupKey = NotificationDedupService.dedupKey((NotificationType) row[1], (String) row[2],
+                    (Long) row[3], (Long) row[4], (Long) row[5], null);
+            idsByKey.putIfAbsent(dedupKey, (Long) row[0]);
+        }
+        notificationRepository.findExistingDedupKeys(idsByKey.keySet()).forEach(idsByKey::remove);
+        if (idsByKey.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> assignments = idsByKey.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .toList();
+        int[] updated = jdbcTemplate.batchUpdate(ASSIGN_DEDUP_KEY_SQL, assignments);
+        return Arrays.stream(updated).map(count -> Math.max(count, 0)).sum();
+    }
+
+    /**
+     * Gets the Spring-managed proxy instance for transaction support
+     */
+    private NotificationBackfillService getSelf() {
+        return applicationContext.getBean(NotificationBackfillService.class);
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.model.Notification;
+import com.example.DPMHC_backend.model.NotificationChangeType;
+import com.example.DPMHC_backend.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification ingestion pipeline
+ * Producers enqueue into a bounded queue; a single writer thread drains it in micro-batches,
+ * inserts each batch with one JDBC batch (rewritten to multi-row INSERTs by the driver) and
+ * publishes a {@link BatchPersistedEvent} so real-time pushes can be sent per batch; listeners run off the
+ * writer thread so a slow push never holds up the next batch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationBatchWriter implements SmartLifecycle {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, actor_id, type, title, message, entity_id, entity_type, " +
+            "action_url, metadata, is_read, is_seen, created_at, read_at, expires_at, priority, group_key, dedup_key, " +
+            "actor_count, sample_actors, last_actor_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationRepository notificationRepository;
+    private final NotificationChangeLogService notificationChangeLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApplicationContext applicationContext;
+
+    @Value("${app.notification.writer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notification.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.notification.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.notification.writer.max-wait-ms:50}")
+    private long maxWaitMs;
+
+    private NotificationBatchWriter self;
+    private BlockingQueue<Pending> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    /**
+     * Published after a batch is committed, with generated IDs populated
+     */
+    public record BatchPersistedEvent(List<Notification> notifications) {
+    }
+
+    /**
+     * A queued notification and the future its producer waits on
+     */
+    private record Pending(Notification notification, CompletableFuture<Void> persisted) {
+    }
+
+    /**
+     * Started once every singleton exists, so the transactional proxy can be captured here; stopped in a
+     * lower phase than the web server, after it has stopped taking requests but before any bean is destroyed
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Notification batch writer disabled - notifications are saved inline");
+            return;
+        }
+        self = applicationContext.getBean(NotificationBatchWriter.class);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::runWriterLoop, "notification-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Notification batch writer started (queue={}, batchSize={}, maxWait={}ms)",
+                queueCapacity, batchSize, maxWaitMs);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writerThread.interrupt();
+        try {
+            writerThread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Flush whatever is left (including offers that raced the stop) so a shutdown does not lose notifications
+        List<Pending> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining) > 0) {
+            try {
+                writeAndPublish(remaining);
+                log.info("Notification batch writer flushed {} queued notifications on shutdown", remaining.size());
+            } catch (Exception e) {
+                log.error("Notification batch writer lost {} queued notifications on shutdown", remaining.size(), e);
+                fail(remaining, e);
+            }
+            remaining.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Offer a notification to the write queue.
+     * Returns a future that completes once its batch has committed (or it was skipped as a duplicate) and fails
+     * if the batch cannot be written; null when the writer is disabled or the queue is full - the caller should
+     * save inline.
+     */
+    public CompletableFuture<Void> enqueue(Notification notification) {
+        if (!running) {
+            return null;
+        }
+        if (notification.getCreatedAt() == null) {
+            notification.setCreatedAt(new Date()); // @PrePersist does not run for JDBC inserts
+        }
+        if (notification.getLastActorAt() == null) {
+            notification.setLastActorAt(notification.getCreatedAt());
+        }
+        Pending pending = new Pending(notification, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            log.warn("Notification write queue full ({}), falling back to inline save", queueCapacity);
+            return null;
+        }
+        return pending.persisted();
+    }
+
+    public int getQueueDepth() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    private void runWriterLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(maxWaitMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeAndPublish(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (Exception e) {
+                log.error("Notification writer failed to flush batch of {}", batch.size(), e);
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeAndPublish(List<Pending> pending) {
+        List<Notification> batch = pending.stream().map(Pending::notification).toList();
+        List<Notification> persisted;
+        try {
+            persisted = self.persistBatch(new ArrayList<>(batch));
+        } catch (DataIntegrityViolationException e) {
+            // The batch transaction rolled back as a whole; retry row by row so only the duplicates are skipped
+            log.debug("Dedup conflict in notification batch, falling back to row-by-row insert");
+            persisted = self.persistIndividually(batch);
+        }
+        if (!persisted.isEmpty()) {
+            eventPublisher.publishEvent(new BatchPersistedEvent(persisted));
+        }
+        // Each row is committed now, or was skipped because an equal one already was
+        pending.forEach(p -> p.persisted().complete(null));
+    }
+
+    private void fail(List<Pending> pending, Exception cause) {
+        pending.forEach(p -> p.persisted().completeExceptionally(cause));
+    }
+
+    /**
+     * Insert a batch in one transaction.
+     * Throws DataIntegrityViolationException when a dedup_key conflicts with a row written elsewhere.
+     */
+    @WriteDB(type = WriteDB.OperationType.BULK_OPERATION)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Notification> persistBatch(List<Notification> batch) {
+        long startTime = System.currentTimeMillis();
+        List<Notification> unique = dedupeWithinBatch(batch);
+
+        bulkInsert(unique);
+        notificationChangeLogService.recordAll(unique, NotificationChangeType.CREATED);
+
+        log.debug("Inserted {} notifications in {}ms", unique.size(), System.currentTimeMillis() - startTime);
+        return unique;
+    }
+
+    /**
+     * Fallback path: each row in its own repository transaction
+     */
+    @WriteDB(type = WriteDB.OperationType.CREATE)
+    public List<Notification> persistIndividually(List<Notification> batch) {
+        List<Notification> saved = new ArrayList<>(batch.size());
+        for (Notification notification : dedupeWithinBatch(batch)) {
+            notification.setId(null);
+            try {
+                saved.add(notificationRepository.save(notification));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Skipping duplicate notification with dedup key {}", notification.getDedupKey());
+            }
+        }
+        notificationChangeLogService.recordAll(saved, NotificationChangeType.CREATED);
+        return saved;
+    }
+
+    private List<Notification> dedupeWithinBatch(List<Notification> batch) {
+        Set<String> seenKeys = new HashSet<>();
+        List<Notification> unique = new ArrayList<>(batch.size());
+        for (Notification notification : batch) {
+            String key = notification.getDedupKey();
+            if (key == null || seenKeys.add(key)) {
+                unique.add(notification);
+            }
+        }
+        return unique;
+    }
+
+    private void bulkInsert(List<Notification> notifications) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bindNotification(ps, notifications.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notifications.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < notifications.size() && i < keys.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            notifications.get(i).setId(((Number) key).longValue());
+        }
+    }
+
+    private void bindNotification(PreparedStatement ps, Notification n) throws SQLException {
+        ps.setLong(1, n.getRecipient().getId());
+        setNullableLong(ps, 2, n.getActor() != null ? n.getActor().getId() : null);
+        ps.setString(3, n.getType().name());
+        ps.setString(4, n.getTitle());
+        ps.setString(5, n.getMessage());
+        setNullableLong(ps, 6, n.getEntityId());
+        ps.setString(7, n.getEntityType());
+        ps.setString(8, n.getActionUrl());
+        ps.setString(9, n.getMetadata());
+        ps.setBoolean(10, n.isRead());
+        ps.setBoolean(11, n.isSeen());
+        ps.setTimestamp(12, new Timestamp(n.getCreatedAt().getTime()));
+        setNullableTimestamp(ps, 13, n.getReadAt());
+        setNullableTimestamp(ps, 14, n.getExpiresAt());
+        ps.setString(15, n.getPriority() != null ? n.getPriority().name() : null);
+        ps.setString(16, n.getGroupKey());
+        ps.setString(17, n.getDedupKey());
+        ps.setInt(18, n.getActorCount() != null ? n.getActorCount() : 1);
+        ps.setString(19, n.getSampleActors());
+        ps.setTimestamp(20, new Timestamp(n.getLastActorAt().getTime()));
+    }
+
+    private void setNullableLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value != null) {
+            ps.setLong(index, value);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    private void setNullableTimestamp(PreparedStatement ps, int index, Date value) throws SQLException {
+        if (value != null) {
+            ps.setTimestamp(index, new Timestamp(value.getTime()));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+}
@@ -24,6 +24,7 @@ public class NotificationBuilder {
     private Map<String, Object> metadata;
     private Date expiresAt;
     private String groupKey;
+    private Long sourceId; // Item that raised the event when it is not the entity, e.g. the comment on a post
 
     @Builder.Default
     private boolean checkDuplicates = false;
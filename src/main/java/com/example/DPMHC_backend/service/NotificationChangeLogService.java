@@ -0,0 +1,219 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.dto.NotificationChangesDTO;
+import com.example.DPMHC_backend.model.Notification;
+import com.example.DPMHC_backend.model.NotificationChange;
+import com.example.DPMHC_backend.model.NotificationChangeType;
+import com.example.DPMHC_backend.repository.NotificationChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Versioned change log for notification state so clients can apply deltas instead of refetching
+ * Recording joins the caller's transaction, so a change is visible exactly when the state change commits.
+ * Versions are a per-user sequence taken from notification_change_counters under its row lock, so a user's
+ * changes commit in version order and a client that synced past version N never misses a change below it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationChangeLogService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notification_changes (user_id, notification_id, change_type, version, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String SELECT_COUNTER_SQL =
+            "SELECT version FROM notification_change_counters WHERE user_id = ?";
+    private static final String INSERT_COUNTER_SQL =
+            "INSERT INTO notification_change_counters (user_id, version) VALUES (?, ?)";
+    private static final String BUMP_COUNTER_SQL =
+            "UPDATE notification_change_counters SET version = version + ? WHERE user_id = ?";
+    private static final String MAX_LEGACY_VERSION_SQL =
+            "SELECT COALESCE(MAX(id), 0) FROM notification_changes";
+
+    private final NotificationChangeRepository notificationChangeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationContext applicationContext;
+
+    @Value("${app.notification.changes.retention-hours:72}")
+    private int retentionHours;
+
+    @Transactional
+    public long record(Long userId, Long notificationId, NotificationChangeType type) {
+        long version = nextVersions(userId, 1);
+        insertBatch(1, i -> userId, i -> notificationId, i -> version, type);
+        return version;
+    }
+
+    /**
+     * Record one change per notification in a single JDBC batch, returns the highest version written
+     */
+    @Transactional
+    public long recordAll(Long userId, Collection<Long> notificationIds, NotificationChangeType type) {
+        List<Long> ids = List.copyOf(notificationIds);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        long last = nextVersions(userId, ids.size());
+        long first = last - ids.size() + 1;
+        insertBatch(ids.size(), i -> userId, ids::get, i -> first + i, type);
+        return last;
+    }
+
+    /**
+     * Record one change per notification for notifications of different recipients (writer batches)
+     * Counters are bumped in user ID order so concurrent batches lock them in the same order.
+     */
+    @Transactional
+    public void recordAll(List<Notification> notifications, NotificationChangeType type) {
+        Map<Long, List<Integer>> positionsByUser = new TreeMap<>();
+        for (int i = 0; i < notifications.size(); i++) {
+            positionsByUser.computeIfAbsent(notifications.get(i).getRecipient().getId(), k -> new ArrayList<>()).add(i);
+        }
+
+        long[] versions = new long[notifications.size()];
+        positionsByUser.forEach((userId, positions) -> {
+            long next = nextVersions(userId, positions.size()) - positions.size() + 1;
+            for (int position : positions) {
+                versions[position] = next++;
+            }
+        });
+
+        insertBatch(notifications.size(), i -> notifications.get(i).getRecipient().getId(),
+                i -> notifications.get(i).getId(), i -> versions[i], type);
+    }
+
+    /**
+     * Reserve count versions for the user and return the highest; the counter row stays locked until commit
+     */
+    private long nextVersions(Long userId, int count) {
+        if (jdbcTemplate.queryForList(SELECT_COUNTER_SQL, Long.class, userId).isEmpty()) {
+            try {
+                getSelf().createCounter(userId);
+            } catch (DataIntegrityViolationException e) {
+                // Another transaction created it first
+            }
+        }
+        jdbcTemplate.update(BUMP_COUNTER_SQL, count, userId);
+        return jdbcTemplate.queryForObject(SELECT_COUNTER_SQL, Long.class, userId);
+    }
+
+    /**
+     * First change for a user: the counter starts above every ID-based version handed out before per-user
+     * versions, so clients holding one of those still sync forward. Committed on its own so it never holds
+     * locks for the caller's transaction.
+     */
+    @WriteDB(type = WriteDB.OperationType.CREATE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void createCounter(Long userId) {
+        Long legacyVersion = jdbcTemplate.queryForObject(MAX_LEGACY_VERSION_SQL, Long.class);
+        jdbcTemplate.update(INSERT_COUNTER_SQL, userId, legacyVersion == null ? 0 : legacyVersion);
+    }
+
+    private void insertBatch(int size, IntFunction<Long> userIdAt, IntFunction<Long> notificationIdAt,
+                             IntToLongFunction versionAt, NotificationChangeType type) {
+        if (size == 0) {
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, userIdAt.apply(i));
+                ps.setObject(2, notificationIdAt.apply(i), Types.BIGINT);
+                ps.setString(3, type.name());
+                ps.setLong(4, versionAt.applyAsLong(i));
+                ps.setTimestamp(5, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return size;
+            }
+        });
+    }
+
+    @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.USER_SPECIFIC, userSpecific = true)
+    public NotificationChangesDTO getChangesSince(Long userId, long sinceVersion, int limit) {
+        // A user's versions are contiguous, so if the oldest retained one is not next after the client's,
+        // the changes in between were purged and the client cannot catch up
+        long latest = getLatestVersion(userId);
+        if (sinceVersion > 0 && sinceVersion < latest) {
+            long oldestRetained = notificationChangeRepository.findOldestRetainedVersion(userId);
+            if (oldestRetained == 0 || sinceVersion < oldestRetained - 1) {
+                return NotificationChangesDTO.builder()
+                        .changes(List.of())
+                        .latestVersion(latest)
+                        .resetRequired(true)
+                        .build();
+            }
+        }
+
+        List<NotificationChange> changes = notificationChangeRepository
+                .findByUserIdAndVersionGreaterThanOrderByVersionAsc(userId, sinceVersion, PageRequest.of(0, limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        long latestVersion = changes.isEmpty() ? sinceVersion : changes.get(changes.size() - 1).getVersion();
+
+        return NotificationChangesDTO.builder()
+                .changes(changes.stream()
+                        .map(change -> NotificationChangesDTO.ChangeDTO.builder()
+                                .version(change.getVersion())
+                                .notificationId(change.getNotificationId())
+                                .type(change.getChangeType())
+                                .changedAt(change.getCreatedAt())
+                                .build())
+                        .toList())
+                .latestVersion(latestVersion)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * The user's counter, or the highest logged version for users with no change since per-user versions
+     */
+    public long getLatestVersion(Long userId) {
+        List<Long> counter = jdbcTemplate.queryForList(SELECT_COUNTER_SQL, Long.class, userId);
+        return counter.isEmpty() ? notificationChangeRepository.findLatestVersion(userId) : counter.get(0);
+    }
+
+    @Transactional
+    public int purgeOldChanges() {
+        Date before = new Date(System.currentTimeMillis() - retentionHours * 60L * 60 * 1000);
+        return notificationChangeRepository.deleteOlderThan(before);
+    }
+
+    /**
+     * Gets the Spring-managed proxy instance for transaction support
+     */
+    private NotificationChangeLogService getSelf() {
+        return applicationContext.getBean(NotificationChangeLogService.class);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.model.NotificationType;
+import com.example.DPMHC_backend.model.User;
+import com.example.DPMHC_backend.repository.NotificationAggregateActorRepository;
+import com.example.DPMHC_backend.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Duplicate notification detection backed by the unique dedup_key index
+ * plus an optional short Redis SET NX window for burst suppression
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDedupService {
+
+    private static final String WINDOW_KEY_PREFIX = "notification:dedup:";
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationAggregateActorRepository aggregateActorRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${app.notification.dedup.redis-window-enabled:true}")
+    private boolean redisWindowEnabled;
+
+    @Value("${app.notification.dedup.like-window-seconds:10}")
+    private long likeWindowSeconds;
+
+    @Value("${app.notification.dedup.comment-window-seconds:5}")
+    private long commentWindowSeconds;
+
+    /**
+     * Build the persistent dedup key for a notification.
+     * Returns null for notifications that may legitimately repeat (actor-less or entity-less events). A comment is
+     * keyed by its comment ID, so only a redelivered event for the same comment is a duplicate; comments without one
+     * are never deduped.
+     */
+    public String buildDedupKey(User recipient, NotificationBuilder builder) {
+        if (!isDeduplicatable(builder) || (builder.getType() == NotificationType.COMMENT && builder.getSourceId() == null)) {
+            return null;
+        }
+        return fingerprint(recipient, builder);
+    }
+
+    /**
+     * type:entityType:entityId:recipientId:actorId, plus :sourceId for events raised by an item other than the entity
+     */
+    public static String dedupKey(NotificationType type, String entityType, Long entityId, Long recipientId,
+                                  Long actorId, Long sourceId) {
+        String key = type.name() + ":" + entityType + ":" + entityId + ":" + recipientId + ":" + actorId;
+        return sourceId != null ? key + ":" + sourceId : key;
+    }
+
+    /**
+     * Index probes on uk_notification_dedup and, for events folded into an aggregate, uk_aggregate_actor_dedup
+     */
+    public boolean isPersistedDuplicate(String dedupKey) {
+        return dedupKey != null && (notificationRepository.existsByDedupKey(dedupKey)
+                || aggregateActorRepository.existsByDedupKey(dedupKey));
+    }
+
+    /**
+     * Try to open the short suppression window for this event (Redis SET NX with TTL).
+     * Returns false when the same event was already seen inside the window.
+     * Fails open when Redis is unavailable - the unique index remains the source of truth.
+     */
+    public boolean tryAcquireWindow(User recipient, NotificationBuilder builder) {
+        if (!redisWindowEnabled || !isDeduplicatable(builder)) {
+            return true;
+        }
+
+        long windowSeconds = switch (builder.getType()) {
+            case LIKE -> likeWindowSeconds;
+            case COMMENT -> commentWindowSeconds;
+            default -> 0;
+        };
+        if (windowSeconds <= 0) {
+            return true;
+        }
+
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(WINDOW_KEY_PREFIX + fingerprint(recipient, builder), 1, Duration.ofSeconds(windowSeconds));
+            return !Boolean.FALSE.equals(acquired);
+        } catch (Exception e) {
+            log.debug("Notification dedup window unavailable, falling back to DB constraint: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private boolean isDeduplicatable(NotificationBuilder builder) {
+        return builder.getEntityId() != null
+                && builder.getEntityType() != null
+                && builder.getActor() != null
+                && builder.getActor().getId() != null;
+    }
+
+    private String fingerprint(User recipient, NotificationBuilder builder) {
+        return dedupKey(builder.getType(), builder.getEntityType(), builder.getEntityId(), recipient.getId(),
+                builder.getActor().getId(), builder.getSourceId());
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.model.NotificationType;
+import com.example.DPMHC_backend.repository.NotificationAggregateActorRepository;
+import com.example.DPMHC_backend.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Set-based duplicate notification cleanup
+ * Walks the notifications table in ID ranges and deletes every row that has an older twin
+ * (same recipient, actor, type and entity), keeping MIN(id) per group. Nothing is loaded into memory
+ * beyond one batch of IDs; the cursor is checkpointed to Redis so an interrupted run resumes where it stopped.
+ * Uses only LIMIT/EXISTS so it runs unchanged on MySQL and PostgreSQL.
+ */
+@Service
+@Slf4j
+public class NotificationDuplicateCleanupService {
+
+    private static final String CURSOR_KEY = "notification:dedup-cleanup:cursor:";
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationAggregateActorRepository aggregateActorRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ApplicationContext applicationContext;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong cursor = new AtomicLong(0);
+    private final AtomicLong maxId = new AtomicLong(0);
+    private final AtomicLong deletedInRun = new AtomicLong(0);
+    private volatile Date lastStartedAt;
+    private volatile Date lastFinishedAt;
+
+    private final Counter deletedCounter;
+    private final Counter batchCounter;
+
+    @Value("${app.notification.dedup-cleanup.range-size:10000}")
+    private int rangeSize;
+
+    @Value("${app.notification.dedup-cleanup.batch-size:1000}")
+    private int batchSize;
+
+    public NotificationDuplicateCleanupService(NotificationRepository notificationRepository,
+                                               NotificationAggregateActorRepository aggregateActorRepository,
+                                               RedisTemplate<String, Object> redisTemplate,
+                                               ApplicationContext applicationContext,
+                                               MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.aggregateActorRepository = aggregateActorRepository;
+        this.redisTemplate = redisTemplate;
+        this.applicationContext = applicationContext;
+        this.deletedCounter = Counter.builder("notifications.dedup_cleanup.deleted")
+                .description("Duplicate notifications removed by the set-based cleanup")
+                .register(meterRegistry);
+        this.batchCounter = Counter.builder("notifications.dedup_cleanup.batches")
+                .description("Delete batches executed by the duplicate cleanup")
+                .register(meterRegistry);
+        Gauge.builder("notifications.dedup_cleanup.cursor", cursor, AtomicLong::get)
+                .description("Last notification ID fully processed by the duplicate cleanup")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Remove duplicate notifications of the given type.
+     *
+     * @param fromId exclusive ID to start after; null resumes from the last checkpoint (or the beginning)
+     * @return number of rows deleted in this run, or -1 when a run is already in progress
+     */
+    public long cleanupDuplicates(NotificationType type, Long fromId) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Duplicate notification cleanup already running at id {}", cursor.get());
+            return -1;
+        }
+
+        long startTime = System.currentTimeMillis();
+        lastStartedAt = new Date();
+        deletedInRun.set(0);
+
+        try {
+            long start = fromId != null ? fromId : loadCheckpoint(type);
+            long upperBound = notificationRepository.findMaxId();
+            cursor.set(start);
+            maxId.set(upperBound);
+            log.info("🧹 Duplicate {} cleanup starting after id {} (max id {})", type, start, upperBound);
+
+            while (cursor.get() < upperBound) {
+                long rangeEnd = Math.min(cursor.get() + rangeSize, upperBound);
+
+                int deleted;
+                do {
+                    deleted = getSelf().deleteDuplicateBatch(type, cursor.get(), rangeEnd, batchSize);
+                    deletedInRun.addAndGet(deleted);
+                    deletedCounter.increment(deleted);
+                    batchCounter.increment();
+                } while (deleted >= batchSize);
+
+                cursor.set(rangeEnd);
+                saveCheckpoint(type, rangeEnd);
+            }
+
+            clearCheckpoint(type);
+            log.info("🧹 Duplicate {} cleanup removed {} rows in {}ms",
+                    type, deletedInRun.get(), System.currentTimeMillis() - startTime);
+            return deletedInRun.get();
+        } finally {
+            lastFinishedAt = new Date();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Delete one bounded batch of duplicates whose IDs fall in (fromId, toId]
+     */
+    @WriteDB(type = WriteDB.OperationType.BULK_OPERATION)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.READ_COMMITTED)
+    public int deleteDuplicateBatch(NotificationType type, long fromId, long toId, int limit) {
+        List<Long> ids = notificationRepository.findDuplicateIdsInRange(type.name(), fromId, toId, limit)
+                .stream()
+                .map(Number::longValue)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        aggregateActorRepository.deleteByNotificationIdIn(ids);
+        return notificationRepository.deleteByIdIn(ids);
+    }
+
+    public CleanupProgress getProgress() {
+        return CleanupProgress.builder()
+                .running(running.get())
+                .cursor(cursor.get())
+                .maxId(maxId.get())
+                .deletedInRun(deletedInRun.get())
+                .totalDeleted((long) deletedCounter.count())
+                .lastStartedAt(lastStartedAt)
+                .lastFinishedAt(lastFinishedAt)
+                .build();
+    }
+
+    private long loadCheckpoint(NotificationType type) {
+        try {
+            Object value = redisTemplate.opsForValue().get(CURSOR_KEY + type.name());
+            return value instanceof Number number ? number.longValue() : 0L;
+        } catch (Exception e) {
+            log.warn("Could not read duplicate cleanup checkpoint, starting from the beginning: {}", e.getMessage());
+            return 0L;
+        }
+    }
+
+    private void saveCheckpoint(NotificationType type, long id) {
+        try {
+            redisTemplate.opsForValue().set(CURSOR_KEY + type.name(), id);
+        } catch (Exception e) {
+            log.debug("Could not save duplicate cleanup checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private void clearCheckpoint(NotificationType type) {
+        try {
+            redisTemplate.delete(CURSOR_KEY + type.name());
+        } catch (Exception e) {
+            log.debug("Could not clear duplicate cleanup checkpoint: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the Spring-managed proxy instance for transaction support
+     */
+    private NotificationDuplicateCleanupService getSelf() {
+        return applicationContext.getBean(NotificationDuplicateCleanupService.class);
+    }
+
+    @Builder
+    @Data
+    public static class CleanupProgress {
+        private boolean running;
+        private long cursor;
+        private long maxId;
+        private long deletedInRun;
+        private long totalDeleted;
+        private Date lastStartedAt;
+        private Date lastFinishedAt;
+    }
+}
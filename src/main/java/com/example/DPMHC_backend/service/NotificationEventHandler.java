@@ -0,0 +1,68 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.event.CommentAddedEvent;
+import com.example.DPMHC_backend.event.DomainEvent;
+import com.example.DPMHC_backend.event.DomainEventConsumer;
+import com.example.DPMHC_backend.event.PostLikedEvent;
+import com.example.DPMHC_backend.event.UserFollowedEvent;
+import com.example.DPMHC_backend.model.NotificationType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Turns committed social domain events into notifications on the notification event executor
+ * Each event is acknowledged only once its notification is committed; a failure leaves it for the outbox relay.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationEventHandler implements DomainEventConsumer {
+
+    private static final String CONSUMER = "notifications";
+
+    private final NotificationService notificationService;
+    private final DomainEventPublisher domainEventPublisher;
+
+    @Override
+    public Set<Class<? extends DomainEvent>> consumedEvents() {
+        return Set.of(PostLikedEvent.class, CommentAddedEvent.class, UserFollowedEvent.class);
+    }
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostLiked(PostLikedEvent event) {
+        domainEventPublisher.deliver(event, CONSUMER, () -> {
+            if (!event.liked() || event.postOwnerEmail().equals(event.likerEmail())) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return notificationService.createSocialNotification(event.postOwnerEmail(), event.likerEmail(),
+                    NotificationType.LIKE, event.postId(), "POST");
+        });
+    }
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCommentAdded(CommentAddedEvent event) {
+        domainEventPublisher.deliver(event, CONSUMER, () -> {
+            if (event.postOwnerEmail().equals(event.commenterEmail())) {
+                return CompletableFuture.completedFuture(null);
+            }
+            // Post ID as entity so the frontend navigates to the post; the comment ID keys duplicate detection
+            return notificationService.createSocialNotification(event.postOwnerEmail(), event.commenterEmail(),
+                    NotificationType.COMMENT, event.postId(), "POST", event.commentId());
+        });
+    }
+
+    @Async("notificationEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserFollowed(UserFollowedEvent event) {
+        domainEventPublisher.deliver(event, CONSUMER, () ->
+                notificationService.createSocialNotification(event.followeeEmail(), event.followerEmail(),
+                        NotificationType.FOLLOW, null, "USER"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.dto.NotificationDTO;
+import com.example.DPMHC_backend.model.NotificationArchive;
+import com.example.DPMHC_backend.repository.NotificationAggregateActorRepository;
+import com.example.DPMHC_backend.repository.NotificationArchiveRepository;
+import com.example.DPMHC_backend.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tiered notification retention
+ * Hot tier: notifications (unread + recently read). Cold tier: notifications_archive (read past archive-after-days),
+ * purged after archive-retention-days. Moves happen in small ID-ordered batches so the hot table and its
+ * indexes stay small without long-running transactions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationRetentionService {
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchiveRepository notificationArchiveRepository;
+    private final NotificationAggregateActorRepository aggregateActorRepository;
+    private final ApplicationContext applicationContext;
+
+    @Value("${app.notification.retention.archive-after-days:7}")
+    private int archiveAfterDays;
+
+    @Value("${app.notification.retention.archive-retention-days:365}")
+    private int archiveRetentionDays;
+
+    @Value("${app.notification.retention.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Move read notifications older than archive-after-days into the archive table
+     */
+    public int archiveOldReadNotifications() {
+        long startTime = System.currentTimeMillis();
+        Date readBefore = new Date(System.currentTimeMillis() - archiveAfterDays * DAY_MS);
+
+        long afterId = 0;
+        int totalArchived = 0;
+        while (true) {
+            List<Long> ids = notificationRepository.findArchivableIds(readBefore, afterId, batchSize)
+                    .stream()
+                    .map(Number::longValue)
+                    .toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+            totalArchived += getSelf().archiveBatch(ids);
+            afterId = ids.get(ids.size() - 1);
+
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+
+        log.info("🗄️ RETENTION: Archived {} read notifications older than {} days in {}ms",
+                totalArchived, archiveAfterDays, System.currentTimeMillis() - startTime);
+        return totalArchived;
+    }
+
+    /**
+     * Copy + delete one batch atomically
+     */
+    @WriteDB(type = WriteDB.OperationType.BULK_OPERATION)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.READ_COMMITTED)
+    public int archiveBatch(List<Long> ids) {
+        notificationArchiveRepository.copyFromNotifications(ids, new Date());
+        aggregateActorRepository.deleteByNotificationIdIn(ids);
+        return notificationRepository.deleteByIdIn(ids);
+    }
+
+    /**
+     * Drop archive rows past archive-retention-days, one bounded batch per transaction
+     */
+    @WriteDB(type = WriteDB.OperationType.DELETE)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.READ_COMMITTED)
+    public int purgeExpiredArchiveBatch() {
+        Date archivedBefore = new Date(System.currentTimeMillis() - archiveRetentionDays * DAY_MS);
+        return notificationArchiveRepository.deleteArchivedBeforeBatch(archivedBefore, batchSize);
+    }
+
+    public long countExpiredArchive() {
+        return notificationArchiveRepository.countArchivedBefore(
+                new Date(System.currentTimeMillis() - archiveRetentionDays * DAY_MS));
+    }
+
+    /**
+     * Archive pages are only read on demand (e.g. "load older notifications")
+     */
+    @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.USER_SPECIFIC, userSpecific = true)
+    public Page<NotificationDTO> getArchivedNotifications(Long userId, Pageable pageable) {
+        return notificationArchiveRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable)
+                .map(this::convertToDTO);
+    }
+
+    private NotificationDTO convertToDTO(NotificationArchive archive) {
+        NotificationDTO.UserSummaryDTO actor = archive.getActorId() != null
+                ? NotificationDTO.UserSummaryDTO.builder().id(archive.getActorId()).build()
+                : null;
+
+        return NotificationDTO.builder()
+                .id(archive.getId())
+                .message(archive.getMessage())
+                .type(archive.getType())
+                .isRead(true)
+                .isSeen(true)
+                .createdAt(archive.getCreatedAt())
+                .readAt(archive.getReadAt())
+                .actionUrl(archive.getActionUrl())
+                .entityId(archive.getEntityId())
+                .entityType(archive.getEntityType())
+                .actor(actor)
+                .actorCount(archive.getActorCount())
+                .build();
+    }
+
+    /**
+     * Gets the Spring-managed proxy instance for transaction support
+     */
+    private NotificationRetentionService getSelf() {
+        return applicationContext.getBean(NotificationRetentionService.class);
+    }
+}
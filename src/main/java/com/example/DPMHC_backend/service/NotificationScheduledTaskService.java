@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 public class NotificationScheduledTaskService {
 
     private final NotificationService notificationService;
+    private final NotificationRetentionService notificationRetentionService;
 
     // Clean up expired notifications every hour
     @Scheduled(fixedRate = 3600000) // 1 hour in milliseconds
@@ -23,16 +24,26 @@ public class NotificationScheduledTaskService {
         } catch (Exception e) {
             log.warn("Error during notification cleanup: {}. This may be due to ShardingSphere table detection during startup.", e.getMessage());
         }
+
+        try {
+            int purgedChanges = notificationService.cleanupOldChanges();
+            if (purgedChanges > 0) {
+                log.info("Purged {} notification change log entries past retention", purgedChanges);
+            }
+        } catch (Exception e) {
+            log.warn("Error purging notification change log: {}", e.getMessage());
+        }
     }
 
-    // Clean up old read notifications (older than 30 days) every day at 2 AM
+    // Move old read notifications to the archive tier every day at 2 AM
     @Scheduled(cron = "0 0 2 * * *")
     public void cleanupOldReadNotifications() {
         try {
-            // This could be implemented to clean up old read notifications
-            // to prevent database bloat
-            log.info("Starting cleanup of old read notifications");
-            // Implementation would go here
+            log.info("Starting archival of old read notifications");
+            int archivedCount = notificationRetentionService.archiveOldReadNotifications();
+            if (archivedCount > 0) {
+                log.info("Archived {} old read notifications", archivedCount);
+            }
         } catch (Exception e) {
             log.error("Error during old notification cleanup", e);
         }
@@ -2,6 +2,8 @@ package com.example.DPMHC_backend.service;
 
 import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
 import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.dto.NotificationChangesDTO;
+import com.example.DPMHC_backend.dto.NotificationCursorPageDTO;
 import com.example.DPMHC_backend.dto.NotificationDTO;
 import com.example.DPMHC_backend.model.*;
 import com.example.DPMHC_backend.repository.CommentRepository;
@@ -14,17 +16,26 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,8 +47,18 @@ public class NotificationService {
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationDedupService notificationDedupService;
+    private final NotificationBatchWriter notificationBatchWriter;
+    private final NotificationAggregationService notificationAggregationService;
+    private final NotificationDuplicateCleanupService notificationDuplicateCleanupService;
+    private final NotificationChangeLogService notificationChangeLogService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    // Aggregates touched since the last push; flushed together so a burst produces one update per aggregate
+    private final Set<Long> pendingAggregateUpdates = ConcurrentHashMap.newKeySet();
+
     // ======================== ENHANCED NOTIFICATION STATE MANAGEMENT ========================
 
     /**
@@ -65,6 +86,7 @@ public class NotificationService {
         // Mark as read
         notification.markAsRead();
         notification = notificationRepository.save(notification);
+        notificationChangeLogService.record(notification.getRecipient().getId(), notificationId, NotificationChangeType.READ);
 
         log.info("Successfully marked notification {} as read for user {}", notificationId, userEmail);
 
@@ -89,6 +111,7 @@ public class NotificationService {
         // Mark as unread
         notification.markAsUnread();
         notification = notificationRepository.save(notification);
+        notificationChangeLogService.record(notification.getRecipient().getId(), notificationId, NotificationChangeType.UNREAD);
 
         log.info("Successfully marked notification {} as unread for user {}", notificationId, userEmail);
 
@@ -113,6 +136,7 @@ public class NotificationService {
         // Mark as seen
         notification.markAsSeen();
         notification = notificationRepository.save(notification);
+        notificationChangeLogService.record(notification.getRecipient().getId(), notificationId, NotificationChangeType.SEEN);
 
         log.info("Successfully marked notification {} as seen for user {}", notificationId, userEmail);
 
@@ -135,11 +159,14 @@ public class NotificationService {
         }
 
         notificationRepository.delete(notification);
+        notificationAggregationService.removeActors(List.of(notification.getId()));
+        long version = notificationChangeLogService.record(
+                notification.getRecipient().getId(), notificationId, NotificationChangeType.DELETED);
 
         log.info("Successfully deleted notification {} for user {}", notificationId, userEmail);
 
         // Send real-time update about deletion
-        sendNotificationDeletionUpdate(notification);
+        sendNotificationDeletionUpdate(notification, version);
     }
 
     @WriteDB(type = WriteDB.OperationType.UPDATE)
@@ -164,11 +191,12 @@ public class NotificationService {
         }
 
         int updatedCount = notificationRepository.markNotificationsAsRead(validIds, new Date());
+        long version = notificationChangeLogService.recordAll(user.getId(), validIds, NotificationChangeType.READ);
 
         log.info("Successfully marked {} notifications as read for user {}", updatedCount, userEmail);
 
         // Send real-time updates
-        sendBulkNotificationUpdate(user);
+        sendBulkNotificationUpdate(user, version, NotificationChangeType.READ);
 
         return updatedCount;
     }
@@ -180,6 +208,7 @@ public class NotificationService {
         Notification notification = getNotificationById(notificationId);
         notification.markAsRead();
         notificationRepository.save(notification);
+        notificationChangeLogService.record(notification.getRecipient().getId(), notificationId, NotificationChangeType.READ);
 
         // Send real-time update
         sendNotificationStateUpdate(notification);
@@ -190,6 +219,7 @@ public class NotificationService {
         Notification notification = getNotificationById(notificationId);
         notification.markAsUnread();
         notificationRepository.save(notification);
+        notificationChangeLogService.record(notification.getRecipient().getId(), notificationId, NotificationChangeType.UNREAD);
 
         // Send real-time update
         sendNotificationStateUpdate(notification);
@@ -200,6 +230,7 @@ public class NotificationService {
         Notification notification = getNotificationById(notificationId);
         notification.markAsSeen();
         notificationRepository.save(notification);
+        notificationChangeLogService.record(notification.getRecipient().getId(), notificationId, NotificationChangeType.SEEN);
 
         // Send real-time update
         sendNotificationStateUpdate(notification);
@@ -209,11 +240,12 @@ public class NotificationService {
     public int markAllAsRead(String email) {
         User user = getUserByEmail(email);
         int updatedCount = notificationRepository.markAllAsReadForUser(user, new Date());
+        long version = notificationChangeLogService.record(user.getId(), null, NotificationChangeType.ALL_READ);
 
         log.info("Marked {} notifications as read for user {}", updatedCount, email);
 
         // Send real-time update
-        sendBulkNotificationUpdate(user);
+        sendBulkNotificationUpdate(user, version, NotificationChangeType.ALL_READ);
 
         return updatedCount;
     }
@@ -222,11 +254,12 @@ public class NotificationService {
     public int markAllAsSeen(String email) {
         User user = getUserByEmail(email);
         int updatedCount = notificationRepository.markAllAsSeenForUser(user);
+        long version = notificationChangeLogService.record(user.getId(), null, NotificationChangeType.ALL_SEEN);
 
         log.info("Marked {} notifications as seen for user {}", updatedCount, email);
 
         // Send real-time update
-        sendBulkNotificationUpdate(user);
+        sendBulkNotificationUpdate(user, version, NotificationChangeType.ALL_SEEN);
 
         return updatedCount;
     }
@@ -239,7 +272,7 @@ public class NotificationService {
         String destination = "/topic/notifications/" + notification.getRecipient().getId();
 
         // Send updated notification
-        messagingTemplate.convertAndSend(destination + "/update", dto);
+        afterCommit(() -> messagingTemplate.convertAndSend(destination + "/update", dto));
 
         // ✅ REMOVED: Don't send counts here - let the client handle it optimistically
         // Map<String, Long> counts = getNotificationCountsMap(notification.getRecipient().getEmail());
@@ -254,15 +287,17 @@ public class NotificationService {
     }
 }
 
-    private void sendNotificationDeletionUpdate(Notification notification) {
+    private void sendNotificationDeletionUpdate(Notification notification, long version) {
     try {
         String destination = "/topic/notifications/" + notification.getRecipient().getId();
 
         // Send deletion notification
-        messagingTemplate.convertAndSend(destination + "/delete", Map.of(
+        Map<String, Object> deletion = Map.of(
                 "notificationId", notification.getId(),
-                "type", "DELETED"
-        ));
+                "type", "DELETED",
+                "version", version
+        );
+        afterCommit(() -> messagingTemplate.convertAndSend(destination + "/delete", deletion));
 
         // ✅ REMOVED: Don't send counts here
         // Map<String, Long> counts = getNotificationCountsMap(notification.getRecipient().getEmail());
@@ -277,15 +312,19 @@ public class NotificationService {
     }
 }
 
-    private void sendBulkNotificationUpdate(User user) {
+    private void sendBulkNotificationUpdate(User user, long version, NotificationChangeType changeType) {
     try {
         String destination = "/topic/notifications/" + user.getId();
 
-        // Send refresh signal to trigger client-side fetch
-        messagingTemplate.convertAndSend(destination + "/refresh", Map.of(
+        // Versioned delta signal - clients apply the change locally or pull /changes?since=<their version>
+        // instead of refetching every list
+        Map<String, Object> refresh = Map.of(
                 "type", "BULK_UPDATE",
+                "change", changeType.name(),
+                "version", version,
                 "timestamp", System.currentTimeMillis()
-        ));
+        );
+        afterCommit(() -> messagingTemplate.convertAndSend(destination + "/refresh", refresh));
 
         // ✅ REMOVED: Don't send counts here - let client refetch if needed
         // Map<String, Long> counts = getNotificationCountsMap(user.getEmail());
@@ -301,42 +340,91 @@ public class NotificationService {
 
     // ======================== CORE NOTIFICATION OPERATIONS ========================
 
+    /**
+     * Not @Transactional on purpose: a dedup_key unique violation must only roll back
+     * the repository insert, not mark an enclosing transaction rollback-only
+     */
     @WriteDB(type = WriteDB.OperationType.CREATE)
-    @Transactional
     @Async
     public void createNotification(NotificationBuilder builder) {
         try {
-            User recipient = getUserByEmail(builder.getRecipientEmail());
+            submitNotification(builder);
+        } catch (Exception e) {
+            log.error("Error creating notification", e);
+        }
+    }
 
-            // ENHANCED: Use database-level duplicate checking with proper synchronization
-            synchronized (this) {
-                try {
-                    // ENHANCED: Use database-level duplicate checking with proper locking
-                    if (builder.isCheckDuplicates() && isDuplicateNotification(recipient, builder)) {
-                        log.debug("Duplicate notification prevented for user {} - Type: {}, Entity: {}, Actor: {}", 
-                                 recipient.getEmail(), builder.getType(), builder.getEntityId(), 
-                                 builder.getActor() != null ? builder.getActor().getEmail() : "null");
-                        return;
-                    }
+    /**
+     * Create (or fold) a notification, throwing instead of logging so event consumers can retry.
+     * The future completes once the notification is committed - a skipped duplicate counts as done - and
+     * fails if its queued batch cannot be written.
+     */
+    @WriteDB(type = WriteDB.OperationType.CREATE)
+    public CompletableFuture<Void> submitNotification(NotificationBuilder builder) {
+        User recipient = getUserByEmail(builder.getRecipientEmail());
+
+        // Lock-free: concurrent creators race on uk_notification_dedup instead of a shared monitor
+        String dedupKey = null;
+        if (builder.isCheckDuplicates()) {
+            if (!notificationDedupService.tryAcquireWindow(recipient, builder)) {
+                logDuplicatePrevented(recipient, builder, "within dedup window");
+                return DONE;
+            }
+            dedupKey = notificationDedupService.buildDedupKey(recipient, builder);
+            if (notificationDedupService.isPersistedDuplicate(dedupKey)) {
+                logDuplicatePrevented(recipient, builder, "dedup key exists");
+                return DONE;
+            }
+        }
 
-                    Notification notification = buildNotification(recipient, builder);
-                    notification = notificationRepository.save(notification);
+        // Fold into an existing aggregate for the same group instead of inserting a new row
+        String groupKey = generateGroupKey(builder.getType(), builder.getEntityId(), builder.getEntityType());
+        if (notificationAggregationService.isAggregatable(builder.getType(), groupKey, builder.getActor())) {
+            Long aggregateId;
+            try {
+                aggregateId = notificationAggregationService.tryAggregate(
+                        recipient, builder.getActor(), groupKey, dedupKey);
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent fold recorded the same actor or dedup key first
+                logDuplicatePrevented(recipient, builder, "aggregate actor exists");
+                return DONE;
+            }
+            if (aggregateId != null) {
+                pendingAggregateUpdates.add(aggregateId);
+                return DONE;
+            }
+        }
 
-                    // Send real-time notification via WebSocket
-                    sendRealTimeNotification(notification);
+        Notification notification = buildNotification(recipient, builder);
+        notification.setDedupKey(dedupKey);
 
-                    log.info("Notification created: {} for user {}", builder.getType(), recipient.getEmail());
-                } catch (Exception e) {
-                    log.error("Error in notification creation", e);
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error creating notification", e);
+        // Hand off to the batched writer; the WebSocket push happens once the batch commits
+        CompletableFuture<Void> queued = notificationBatchWriter.enqueue(notification);
+        if (queued != null) {
+            log.debug("Notification queued: {} for user {}", builder.getType(), recipient.getEmail());
+            return queued;
         }
+
+        try {
+            notification = notificationRepository.save(notification);
+        } catch (DataIntegrityViolationException e) {
+            // Insert-if-absent: lost the race against a concurrent insert with the same dedup key
+            logDuplicatePrevented(recipient, builder, "unique constraint");
+            return DONE;
+        }
+        notificationChangeLogService.record(recipient.getId(), notification.getId(), NotificationChangeType.CREATED);
+
+        // Send real-time notification via WebSocket
+        sendRealTimeNotification(notification);
+
+        log.info("Notification created: {} for user {}", builder.getType(), recipient.getEmail());
+        return DONE;
     }
 
+    /**
+     * Not @Transactional, like createNotification(NotificationBuilder) - see there
+     */
     @WriteDB(type = WriteDB.OperationType.CREATE)
-    @Transactional
     @Async
     public void createNotification(Long recipientId, Long actorId, NotificationType type,
                                    Long entityId, String message) {
@@ -404,14 +492,29 @@ public class NotificationService {
     public void deleteNotification(Long id) {
         Notification notification = getNotificationById(id);
         notificationRepository.delete(notification);
+        notificationAggregationService.removeActors(List.of(notification.getId()));
+        long version = notificationChangeLogService.record(
+                notification.getRecipient().getId(), id, NotificationChangeType.DELETED);
 
         // Send real-time update
-        sendNotificationDeletionUpdate(notification);
+        sendNotificationDeletionUpdate(notification, version);
     }
 
-    @Transactional
-    public void createSocialNotification(String recipientEmail, String actorEmail,
-                                         NotificationType type, Long entityId, String entityType) {
+    @WriteDB(type = WriteDB.OperationType.CREATE)
+    public CompletableFuture<Void> createSocialNotification(String recipientEmail, String actorEmail,
+                                                            NotificationType type, Long entityId, String entityType) {
+        return createSocialNotification(recipientEmail, actorEmail, type, entityId, entityType, null);
+    }
+
+    /**
+     * sourceId is the item that raised the event when it is not the entity (a comment on the post).
+     * Failures propagate; see submitNotification for when the returned future completes. Not @Transactional,
+     * so a dedup_key conflict on the inline save stays a silent skip instead of an UnexpectedRollbackException.
+     */
+    @WriteDB(type = WriteDB.OperationType.CREATE)
+    public CompletableFuture<Void> createSocialNotification(String recipientEmail, String actorEmail,
+                                                            NotificationType type, Long entityId,
+                                                            String entityType, Long sourceId) {
         User actor = getUserByEmail(actorEmail);
 
         NotificationBuilder builder = NotificationBuilder.builder()
@@ -420,12 +523,13 @@ public class NotificationService {
                 .type(type)
                 .entityId(entityId)
                 .entityType(entityType)
+                .sourceId(sourceId)
                 .priority(NotificationPriority.NORMAL)
                 .checkDuplicates(true)
                 .generateContent(true)
                 .build();
 
-        createNotification(builder);
+        return submitNotification(builder);
     }
 
     // ======================== QUERYING AND FILTERING ========================
@@ -448,7 +552,7 @@ public class NotificationService {
     public Page<NotificationDTO> getUnreadNotifications(String email, Pageable pageable) {
         User user = getUserByEmail(email);
         Page<Notification> notifications = notificationRepository
-                .findByRecipientAndIsReadOrderByCreatedAtDesc(user, false, pageable);
+                .findByRecipientAndIsReadOrderByLastActorAtDesc(user, false, pageable);
         return notifications.map(this::convertToDTO);
     }
 
@@ -456,7 +560,7 @@ public class NotificationService {
     public Page<NotificationDTO> getNotificationsByType(String email, NotificationType type, Pageable pageable) {
         User user = getUserByEmail(email);
         Page<Notification> notifications = notificationRepository
-                .findByRecipientAndTypeOrderByCreatedAtDesc(user, type, pageable);
+                .findByRecipientAndTypeOrderByLastActorAtDesc(user, type, pageable);
         return notifications.map(this::convertToDTO);
     }
 
@@ -464,22 +568,108 @@ public class NotificationService {
     public Page<NotificationDTO> getNotificationsByTypes(String email, List<NotificationType> types, Pageable pageable) {
         User user = getUserByEmail(email);
         Page<Notification> notifications = notificationRepository
-                .findByRecipientAndTypeInOrderByCreatedAtDesc(user, types, pageable);
+                .findByRecipientAndTypeInOrderByLastActorAtDesc(user, types, pageable);
         return notifications.map(this::convertToDTO);
     }
 
+    // ======================== KEYSET PAGINATION AND DELTAS ========================
+
+    /**
+     * Keyset listing on (lastActorAt, id), so an aggregate that gained an actor moves back to the top. Filter is null (all), "unread", or a notification type name.
+     */
+    @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.USER_SPECIFIC, userSpecific = true)
+    public NotificationCursorPageDTO getNotificationsByCursor(String email, String cursor, int limit,
+                                                              boolean unreadOnly, NotificationType type) {
+        User user = getUserByEmail(email);
+        long version = notificationChangeLogService.getLatestVersion(user.getId());
+
+        // Fetch one extra row to know whether another page exists
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<Notification> rows;
+        if (cursor == null || cursor.isBlank()) {
+            // First page: no seek predicate
+            if (unreadOnly) {
+                rows = notificationRepository.findByRecipientAndIsReadFalseOrderByLastActorAtDescIdDesc(user, pageable);
+            } else if (type != null) {
+                rows = notificationRepository.findByRecipientAndTypeOrderByLastActorAtDescIdDesc(user, type, pageable);
+            } else {
+                rows = notificationRepository.findByRecipientOrderByLastActorAtDescIdDesc(user, pageable);
+            }
+        } else {
+            String[] parts = cursor.split("_", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            Date lastActorAt;
+            long id;
+            try {
+                lastActorAt = new Date(Long.parseLong(parts[0]));
+                id = Long.parseLong(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+
+            if (unreadOnly) {
+                rows = notificationRepository.findUnreadPageBefore(user, lastActorAt, id, pageable);
+            } else if (type != null) {
+                rows = notificationRepository.findByTypePageBefore(user, type, lastActorAt, id, pageable);
+            } else {
+                rows = notificationRepository.findPageBefore(user, lastActorAt, id, pageable);
+            }
+        }
+
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Notification last = rows.get(rows.size() - 1);
+            nextCursor = last.getLastActorAt().getTime() + "_" + last.getId();
+        }
+
+        return NotificationCursorPageDTO.builder()
+                .items(rows.stream().map(this::convertToDTO).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .version(version)
+                .build();
+    }
+
+    /**
+     * Most recent notifications without a COUNT query
+     */
+    @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.USER_SPECIFIC, userSpecific = true)
+    public Page<NotificationDTO> getRecentNotifications(String email, int limit) {
+        NotificationCursorPageDTO page = getNotificationsByCursor(email, null, limit, false, null);
+        return new PageImpl<>(page.getItems(), PageRequest.of(0, limit), page.getItems().size());
+    }
+
+    @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.USER_SPECIFIC, userSpecific = true)
+    public NotificationChangesDTO getChangesSince(String email, long sinceVersion, int limit) {
+        User user = getUserByEmail(email);
+        return notificationChangeLogService.getChangesSince(user.getId(), sinceVersion, limit);
+    }
+
     @Transactional
     public int markMultipleAsRead(List<Long> notificationIds) {
         int updatedCount = notificationRepository.markNotificationsAsRead(notificationIds, new Date());
 
         // Send real-time updates for affected users
         List<Notification> updatedNotifications = notificationRepository.findAllById(notificationIds);
+        // User ID order, so concurrent callers lock the users' change counters in the same order
         Set<User> affectedUsers = updatedNotifications.stream()
                 .map(Notification::getRecipient)
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(User::getId))));
 
         for (User user : affectedUsers) {
-            sendBulkNotificationUpdate(user);
+            List<Long> userIds = updatedNotifications.stream()
+                    .filter(n -> n.getRecipient().equals(user))
+                    .map(Notification::getId)
+                    .toList();
+            long version = notificationChangeLogService.recordAll(user.getId(), userIds, NotificationChangeType.READ);
+            sendBulkNotificationUpdate(user, version, NotificationChangeType.READ);
         }
 
         return updatedCount;
@@ -539,8 +729,8 @@ public class NotificationService {
     public void handleComment(String postOwnerEmail, String commenterEmail, Long postId, Long commentId) {
         if (!postOwnerEmail.equals(commenterEmail)) {
             // For comment notifications, use postId as entityId and "POST" as entityType
-            // This makes more sense semantically and helps with duplicate detection
-            createSocialNotification(postOwnerEmail, commenterEmail, NotificationType.COMMENT, postId, "POST");
+            // The comment ID keys duplicate detection, so distinct comments on one post are never suppressed
+            createSocialNotification(postOwnerEmail, commenterEmail, NotificationType.COMMENT, postId, "POST", commentId);
         }
     }
 
@@ -600,19 +790,99 @@ public class NotificationService {
     try {
         NotificationDTO dto = convertToDTO(notification);
         String destination = "/topic/notifications/" + notification.getRecipient().getId();
+        String recipientEmail = notification.getRecipient().getEmail();
 
-        // Send individual notification
-        messagingTemplate.convertAndSend(destination, dto);
+        afterCommit(() -> {
+            // Send individual notification
+            messagingTemplate.convertAndSend(destination, dto);
 
-        // ✅ ONLY send counts when a NEW notification arrives, not for updates
-        Map<String, Long> counts = getNotificationCountsMap(notification.getRecipient().getEmail());
-        messagingTemplate.convertAndSend(destination + "/counts", counts);
+            // ✅ ONLY send counts when a NEW notification arrives, not for updates
+            Map<String, Long> counts = getNotificationCountsMap(recipientEmail);
+            messagingTemplate.convertAndSend(destination + "/counts", counts);
 
-        log.debug("Real-time notification sent to {}", destination);
+            log.debug("Real-time notification sent to {}", destination);
+        });
     } catch (Exception e) {
         log.error("Error sending real-time notification", e);
     }
 }
+
+    /**
+     * Runs a push once the surrounding transaction commits (right away outside one), so a client is never
+     * told about a version that /changes cannot serve yet
+     */
+    private void afterCommit(Runnable push) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            push.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    push.run();
+                } catch (Exception e) {
+                    log.error("Error sending notification update after commit", e);
+                }
+            }
+        });
+    }
+    /**
+     * Bulk push for a committed writer batch, off the single writer thread
+     */
+    @Async("realtimeEventExecutor")
+    @EventListener
+    public void onNotificationBatchPersisted(NotificationBatchWriter.BatchPersistedEvent event) {
+        pushNotifications(event.notifications(), "");
+    }
+
+    /**
+     * Coalesced push of aggregate updates - one /update per aggregate per interval, however many events hit it
+     */
+    @Scheduled(fixedDelayString = "${app.notification.aggregation.push-interval-ms:2000}")
+    public void flushAggregateUpdates() {
+        if (pendingAggregateUpdates.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = pendingAggregateUpdates.iterator(); it.hasNext(); ) {
+            ids.add(it.next());
+            it.remove();
+        }
+        try {
+            pushNotifications(notificationRepository.findAllWithUsersByIdIn(ids), "/update");
+        } catch (Exception e) {
+            log.error("Error pushing {} aggregated notification updates", ids.size(), e);
+        }
+    }
+
+    /**
+     * One message per notification, but only one counts refresh per recipient
+     */
+    private void pushNotifications(Collection<Notification> notifications, String destinationSuffix) {
+        Map<Long, User> recipients = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            try {
+                String destination = "/topic/notifications/" + notification.getRecipient().getId();
+                messagingTemplate.convertAndSend(destination + destinationSuffix, convertToDTO(notification));
+                recipients.putIfAbsent(notification.getRecipient().getId(), notification.getRecipient());
+            } catch (Exception e) {
+                log.error("Error sending real-time notification {}", notification.getId(), e);
+            }
+        }
+
+        for (User recipient : recipients.values()) {
+            try {
+                messagingTemplate.convertAndSend("/topic/notifications/" + recipient.getId() + "/counts",
+                        getNotificationCountsMap(recipient.getEmail()));
+            } catch (Exception e) {
+                log.error("Error sending notification counts to user {}", recipient.getId(), e);
+            }
+        }
+
+        log.debug("Pushed {} notifications to {} recipients", notifications.size(), recipients.size());
+    }
+
     private Map<String, Long> getNotificationCountsMap(String email) {
         Map<String, Long> counts = new HashMap<>();
         counts.put("unread", getUnreadCount(email));
@@ -731,9 +1001,13 @@ public class NotificationService {
     }
 
     private String generateGroupKey(NotificationType type, Long entityId, String entityType) {
-        if (entityId == null || entityType == null) {
+        if (entityType == null) {
             return null;
         }
+        if (entityId == null) {
+            // Follows have no entity; group them per recipient ("Alice and 3 others started following you")
+            return type == NotificationType.FOLLOW ? type.name() + "_" + entityType : null;
+        }
         return type.name() + "_" + entityType + "_" + entityId;
     }
 
@@ -748,23 +1022,38 @@ public class NotificationService {
                     .build();
         }
 
+        String message = notification.getMessage();
+        List<NotificationDTO.UserSummaryDTO> sampleActors = null;
+        if (notification.isAggregated()) {
+            sampleActors = notificationAggregationService.getSampleActors(notification);
+            if (notification.getActor() != null) {
+                int others = notification.getActorCount() - 1;
+                message = notification.getActor().getUsername() + " and " + others + " other" + (others == 1 ? "" : "s")
+                        + " " + getDefaultMessage(notification.getType(), notification.getEntityType());
+            }
+        }
+
         return NotificationDTO.builder()
                 .id(notification.getId())
                 .title(notification.getTitle())
-                .message(notification.getMessage())
+                .message(message)
                 .type(notification.getType())
                 .priority(notification.getPriority())
                 .isRead(notification.isRead())
                 .isSeen(notification.isSeen())
                 .createdAt(notification.getCreatedAt())
+                .lastActorAt(notification.getLastActorAt())
                 .readAt(notification.getReadAt())
                 .actionUrl(notification.getActionUrl())
                 .entityId(notification.getEntityId())
                 .entityType(notification.getEntityType())
                 .groupKey(notification.getGroupKey())
                 .actor(actorDTO)
+                .actorCount(notification.getActorCount())
+                .sampleActors(sampleActors)
                 .metadata(notification.getMetadata())
-                .timeAgo(calculateTimeAgo(notification.getCreatedAt()))
+                .timeAgo(calculateTimeAgo(notification.getLastActorAt() != null
+                        ? notification.getLastActorAt() : notification.getCreatedAt()))
                 .expiresAt(notification.getExpiresAt())
                 .isExpired(notification.isExpired())
                 .build();
@@ -791,83 +1080,10 @@ public class NotificationService {
         return months + " month" + (months == 1 ? "" : "s") + " ago";
     }
 
-    private boolean isDuplicateNotification(User recipient, NotificationBuilder builder) {
-        if (builder.getEntityId() == null || builder.getEntityType() == null) {
-            return false;
-        }
-
-        // For LIKE notifications, check if the same user already has a like notification for the same entity
-        if (builder.getType() == NotificationType.LIKE) {
-            // Check for any existing like notification from the same actor to the same recipient for the same entity
-            List<Notification> existing = notificationRepository
-                    .findByEntityIdAndEntityTypeAndType(builder.getEntityId(), builder.getEntityType(), builder.getType());
-            
-            boolean hasDuplicate = existing.stream()
-                    .anyMatch(n -> n.getRecipient().equals(recipient) &&
-                            n.getActor() != null &&
-                            n.getActor().equals(builder.getActor()));
-            
-            if (hasDuplicate) {
-                log.warn("DUPLICATE LIKE notification prevented: actor={}, recipient={}, entityId={}, entityType={}", 
-                         builder.getActor() != null ? builder.getActor().getEmail() : "null", 
-                         recipient.getEmail(), builder.getEntityId(), builder.getEntityType());
-                return true;
-            }
-            
-            // Additional check: Look for very recent like notifications (within last 10 seconds) to handle race conditions
-            java.util.Date tenSecondsAgo = new java.util.Date(System.currentTimeMillis() - 10 * 1000);
-            boolean hasRecentDuplicate = existing.stream()
-                    .anyMatch(n -> n.getRecipient().equals(recipient) &&
-                            n.getActor() != null &&
-                            n.getActor().equals(builder.getActor()) &&
-                            n.getCreatedAt().after(tenSecondsAgo));
-            
-            if (hasRecentDuplicate) {
-                log.warn("RECENT DUPLICATE LIKE notification prevented (within 10 seconds): actor={}, recipient={}, entityId={}, entityType={}", 
-                         builder.getActor() != null ? builder.getActor().getEmail() : "null", 
-                         recipient.getEmail(), builder.getEntityId(), builder.getEntityType());
-                return true;
-            }
-        }
-        
-        // For COMMENT notifications, check within the last 5 seconds to prevent spam/race conditions only
-        // This allows multiple comments from the same user but prevents accidental double-clicks
-        if (builder.getType() == NotificationType.COMMENT) {
-            java.util.Date fiveSecondsAgo = new java.util.Date(System.currentTimeMillis() - 5 * 1000);
-            
-            List<Notification> recentComments = notificationRepository
-                    .findByEntityIdAndEntityTypeAndType(builder.getEntityId(), builder.getEntityType(), builder.getType())
-                    .stream()
-                    .filter(n -> n.getRecipient().getId().equals(recipient.getId()) &&
-                                n.getActor() != null &&
-                                n.getActor().getId().equals(builder.getActor().getId()) &&
-                                n.getCreatedAt().after(fiveSecondsAgo))
-                    .toList();
-            
-            if (!recentComments.isEmpty()) {
-                log.warn("Duplicate COMMENT notification prevented (within 5 seconds): actor={}, recipient={}, entityId={}, entityType={}", 
-                         builder.getActor() != null ? builder.getActor().getEmail() : "null", 
-                         recipient.getEmail(), builder.getEntityId(), builder.getEntityType());
-                return true;
-            }
-        }
-        
-        // For other types (FOLLOW, REPLY, etc.), use the original logic
-        List<Notification> existing = notificationRepository
-                .findByEntityIdAndEntityTypeAndType(builder.getEntityId(), builder.getEntityType(), builder.getType());
-
-        boolean hasDuplicate = existing.stream()
-                .anyMatch(n -> n.getRecipient().getId().equals(recipient.getId()) &&
-                        n.getActor() != null &&
-                        n.getActor().getId().equals(builder.getActor().getId()));
-        
-        if (hasDuplicate) {
-            log.debug("Duplicate {} notification prevented: actor={}, recipient={}, entityId={}, entityType={}", 
-                     builder.getType(), builder.getActor() != null ? builder.getActor().getEmail() : "null", 
-                     recipient.getEmail(), builder.getEntityId(), builder.getEntityType());
-        }
-        
-        return hasDuplicate;
+    private void logDuplicatePrevented(User recipient, NotificationBuilder builder, String reason) {
+        log.debug("Duplicate {} notification prevented ({}): actor={}, recipient={}, entityId={}, entityType={}",
+                builder.getType(), reason, builder.getActor() != null ? builder.getActor().getEmail() : "null",
+                recipient.getEmail(), builder.getEntityId(), builder.getEntityType());
     }
 
     private String serializeMetadata(Map<String, Object> metadata) {
@@ -899,70 +1115,38 @@ public class NotificationService {
         return notificationRepository.deleteExpiredNotifications(new Date());
     }
 
-    @Transactional
+    public int cleanupOldChanges() {
+        return notificationChangeLogService.purgeOldChanges();
+    }
+
+    /**
+     * Not transactional: the set-based cleanup commits each bounded batch on its own
+     */
     public int cleanupDuplicateNotifications() {
+        return cleanupDuplicateNotifications(null);
+    }
+
+    public int cleanupDuplicateNotifications(Long fromId) {
         log.info("Starting cleanup of duplicate notifications");
-        
-        int totalCleaned = 0;
-        
+
         try {
             // Clean up duplicate LIKE notifications
-            totalCleaned += cleanupDuplicateLikeNotifications();
-            
+            long totalCleaned = notificationDuplicateCleanupService.cleanupDuplicates(NotificationType.LIKE, fromId);
+
             log.info("Duplicate notification cleanup completed. Total cleaned: {}", totalCleaned);
-            return totalCleaned;
-            
+            return (int) Math.max(totalCleaned, 0);
+
         } catch (Exception e) {
             log.error("Error during duplicate notification cleanup", e);
             return 0;
         }
     }
-    
-    @Transactional
+
     public int cleanupDuplicateLikeNotifications() {
-        log.info("Cleaning up duplicate LIKE notifications");
-        
-        try {
-            // Find all like notifications grouped by recipient, actor, entityId, and entityType
-            List<Notification> allLikeNotifications = notificationRepository
-                    .findByTypeOrderByCreatedAtDesc(NotificationType.LIKE);
-            
-            Map<String, List<Notification>> groupedNotifications = allLikeNotifications.stream()
-                    .collect(Collectors.groupingBy(n -> {
-                        return n.getRecipient().getId() + "_" + 
-                               (n.getActor() != null ? n.getActor().getId() : "null") + "_" + 
-                               n.getEntityId() + "_" + 
-                               n.getEntityType();
-                    }));
-            
-            int duplicatesRemoved = 0;
-            
-            for (Map.Entry<String, List<Notification>> entry : groupedNotifications.entrySet()) {
-                List<Notification> duplicates = entry.getValue();
-                
-                if (duplicates.size() > 1) {
-                    // Keep the most recent notification, delete the rest
-                    duplicates.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
-                    
-                    for (int i = 1; i < duplicates.size(); i++) {
-                        Notification toDelete = duplicates.get(i);
-                        log.debug("Deleting duplicate LIKE notification: id={}, recipient={}, actor={}, entityId={}", 
-                                 toDelete.getId(), toDelete.getRecipient().getEmail(), 
-                                 toDelete.getActor() != null ? toDelete.getActor().getEmail() : "null",
-                                 toDelete.getEntityId());
-                        
-                        notificationRepository.delete(toDelete);
-                        duplicatesRemoved++;
-                    }
-                }
-            }
-            
-            log.info("Removed {} duplicate LIKE notifications", duplicatesRemoved);
-            return duplicatesRemoved;
-            
-        } catch (Exception e) {
-            log.error("Error cleaning up duplicate LIKE notifications", e);
-            return 0;
-        }
+        return (int) Math.max(notificationDuplicateCleanupService.cleanupDuplicates(NotificationType.LIKE, null), 0);
+    }
+
+    public NotificationDuplicateCleanupService.CleanupProgress getDuplicateCleanupProgress() {
+        return notificationDuplicateCleanupService.getProgress();
     }
-}
\ No newline at end of file
+}
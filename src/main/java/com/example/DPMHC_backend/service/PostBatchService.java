@@ -1,5 +1,8 @@
 package com.example.DPMHC_backend.service;
 
+import com.example.DPMHC_backend.config.cache.CacheLoadCoordinator;
+import com.example.DPMHC_backend.config.cache.CacheTagIndex;
+import com.example.DPMHC_backend.config.cache.annotation.EvictCacheTag;
 import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
 import com.example.DPMHC_backend.dto.PostDTO;
 import com.example.DPMHC_backend.dto.cache.PageCacheWrapper;
@@ -8,16 +11,21 @@ import com.example.DPMHC_backend.repository.BookmarkRepository;
 import com.example.DPMHC_backend.repository.CommentRepository;
 import com.example.DPMHC_backend.repository.LikeRepository;
 import com.example.DPMHC_backend.repository.PostRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -35,21 +43,41 @@ public class PostBatchService {
     private final CommentRepository commentRepository;
     private final BookmarkRepository bookmarkRepository;
     private final PostService postService; // For DTO mapping
+    private final CacheLoadCoordinator cacheLoadCoordinator;
+    private final ApplicationContext applicationContext;
+
+    private static final TypeReference<PageCacheWrapper<PostDTO>> POST_PAGE_TYPE = new TypeReference<>() {};
+
+    @Value("${app.cache.stampede.posts.fresh-seconds:240}")
+    private long postsFreshSeconds;
     
     /**
      * OPTIMIZED: Load posts with all related data using only 4 queries total
      * Instead of N+1 queries, this uses exactly 4 queries regardless of post count
+     * The first 10 pages go through the stampede-protected cache so an expiring hot page is rebuilt once.
+     * Runs outside the class-level transaction: callers waiting on another node's rebuild hold no connection,
+     * only the loader opens one.
      */
     @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.ROUND_ROBIN)
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<PostDTO> getOptimizedPostsWithMetadata(Pageable pageable, String currentUserEmail) {
-        // Try to get from cache first using wrapper
-        PageCacheWrapper<PostDTO> cachedWrapper = getCachedPosts(pageable, currentUserEmail);
-        if (cachedWrapper != null) {
-            return cachedWrapper.toPage(pageable);
+        if (pageable.getPageNumber() >= 10) {
+            return getSelf().loadPostsWithMetadata(pageable, currentUserEmail);
         }
-        
-        // Cache miss - fetch from database
+
+        String key = pageable.getPageNumber() + "-" + pageable.getPageSize() + "-" + currentUserEmail;
+        PageCacheWrapper<PostDTO> wrapper = cacheLoadCoordinator.getOrLoad("posts", key, POST_PAGE_TYPE,
+                Duration.ofSeconds(postsFreshSeconds),
+                () -> PageCacheWrapper.of(getSelf().loadPostsWithMetadata(pageable, currentUserEmail)));
+        return wrapper.toPage(pageable);
+    }
+
+    /**
+     * Uncached feed hydration; also used by background refreshes, hence its own read-only transaction
+     */
+    @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.ROUND_ROBIN)
+    @Transactional(readOnly = true)
+    public Page<PostDTO> loadPostsWithMetadata(Pageable pageable, String currentUserEmail) {
         // Query 1: Get posts with users (1 query with JOIN FETCH)
         Page<Post> posts = postRepository.findAllWithUser(pageable);
         
@@ -80,32 +108,7 @@ public class PostBatchService {
                         likeCountMap, commentCountMap, userLikedPosts, userBookmarkedPosts))
                 .collect(Collectors.toList());
         
-        Page<PostDTO> result = new PageImpl<>(postDTOs, pageable, posts.getTotalElements());
-        
-        // Cache the result using wrapper (only cache first 10 pages)
-        if (pageable.getPageNumber() < 10) {
-            cachePosts(pageable, currentUserEmail, result);
-        }
-        
-        return result;
-    }
-    
-    /**
-     * Get cached posts using cache wrapper to avoid Page serialization issues
-     */
-    @Cacheable(value = "posts", key = "#pageable.pageNumber + '-' + #pageable.pageSize + '-' + #currentUserEmail", 
-               condition = "#pageable.pageNumber < 10", unless = "#result == null")
-    public PageCacheWrapper<PostDTO> getCachedPosts(Pageable pageable, String currentUserEmail) {
-        // This method will only be called if cache is empty - return null to indicate cache miss
-        return null;
-    }
-    
-    /**
-     * Cache posts using wrapper to avoid Page serialization issues
-     */
-    @CachePut(value = "posts", key = "#pageable.pageNumber + '-' + #pageable.pageSize + '-' + #currentUserEmail")
-    public PageCacheWrapper<PostDTO> cachePosts(Pageable pageable, String currentUserEmail, Page<PostDTO> page) {
-        return PageCacheWrapper.of(page);
+        return new PageImpl<>(postDTOs, pageable, posts.getTotalElements());
     }
     
     /**
@@ -195,6 +198,7 @@ public class PostBatchService {
     
     /**
      * Evict all post-related caches when post data changes
+     * These caches are generational, so allEntries is one INCR per cache rather than a key scan
      */
     @CacheEvict(value = {"posts", "user-posts", "public-posts", "post-details"}, allEntries = true)
     public void evictAllPostCaches() {
@@ -204,7 +208,7 @@ public class PostBatchService {
     /**
      * Evict user-specific post caches
      */
-    @CacheEvict(value = "user-posts", key = "#userId + '-*'", beforeInvocation = true)
+    @EvictCacheTag(type = CacheTagIndex.TAG_USER_POSTS, id = "#userId")
     public void evictUserPostCaches(Long userId) {
         // Called when user's posts are modified
     }
@@ -292,4 +296,11 @@ public class PostBatchService {
                 .isBookmarkedByCurrentUser(userBookmarkedPosts.contains(postId))
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the Spring-managed proxy instance for transaction support
+     */
+    private PostBatchService getSelf() {
+        return applicationContext.getBean(PostBatchService.class);
+    }
+}
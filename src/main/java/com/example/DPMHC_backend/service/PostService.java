@@ -1,10 +1,13 @@
 package com.example.DPMHC_backend.service;
 
+import com.example.DPMHC_backend.config.cache.CacheTagIndex;
+import com.example.DPMHC_backend.config.cache.annotation.EvictCacheTag;
 import com.example.DPMHC_backend.config.database.DatabaseContextHolder;
 import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
 import com.example.DPMHC_backend.config.database.annotation.WriteDB;
 import com.example.DPMHC_backend.dto.PostDTO;
 import com.example.DPMHC_backend.dto.cache.PageCacheWrapper;
+import com.example.DPMHC_backend.event.PostLikedEvent;
 import com.example.DPMHC_backend.model.*;
 import com.example.DPMHC_backend.repository.*;
 import com.example.DPMHC_backend.service.MediaService;
@@ -46,7 +49,7 @@ public class PostService {
     private final CommentRepository commentRepository;
     private final BookmarkRepository bookmarkRepository;
     private final RealTimeService realTimeService;
-    private final NotificationService notificationService; // Add notification service
+    private final DomainEventPublisher domainEventPublisher;
     private final MediaService mediaService;
 
     /**
@@ -54,7 +57,7 @@ public class PostService {
      */
     @WriteDB(type = WriteDB.OperationType.CREATE)
     @Transactional
-    @CacheEvict(value = "postsByUser", key = "#result.user.id + '_0_*'")
+    @EvictCacheTag(type = CacheTagIndex.TAG_USER_POSTS, id = "#result.user.id")
     public Post createPost(String content, MultipartFile image, MultipartFile video,
                            MultipartFile pdf, boolean isPublic, String userEmail) {
         // Set user context for routing
@@ -271,6 +274,9 @@ public class PostService {
             likeRepository.delete(existingLike.get());
             post.setLikesCount(Math.max(0, post.getLikesCount() - 1));
             postRepository.save(post);
+
+            domainEventPublisher.publish(new PostLikedEvent(postId, post.getUser().getEmail(), userEmail,
+                    false, post.getLikesCount()));
             return new LikeResponse(false, post.getLikesCount());
         } else {
             Like like = Like.builder()
@@ -282,8 +288,9 @@ public class PostService {
             post.setLikesCount(post.getLikesCount() + 1);
             postRepository.save(post);
 
-            // Trigger notification for post like
-            notificationService.handlePostLike(post.getUser().getEmail(), userEmail, postId);
+            // Notification and cache eviction run after commit
+            domainEventPublisher.publish(new PostLikedEvent(postId, post.getUser().getEmail(), userEmail,
+                    true, post.getLikesCount()));
 
             return new LikeResponse(true, post.getLikesCount());
         }
@@ -0,0 +1,39 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.event.DomainEvent;
+import com.example.DPMHC_backend.event.DomainEventConsumer;
+import com.example.DPMHC_backend.event.MessageSentEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * WebSocket fan-out for committed domain events on the realtime event executor
+ * A message is acknowledged once broadcast; a failed broadcast is retried by the outbox relay.
+ */
+@Component
+@RequiredArgsConstructor
+public class RealtimeEventHandler implements DomainEventConsumer {
+
+    private final WebSocketService webSocketService;
+    private final DomainEventPublisher domainEventPublisher;
+
+    @Override
+    public Set<Class<? extends DomainEvent>> consumedEvents() {
+        return Set.of(MessageSentEvent.class);
+    }
+
+    @Async("realtimeEventExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        domainEventPublisher.deliver(event, "realtime", () -> {
+            webSocketService.broadcastNewMessage(event.message());
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.exception.RefreshTokenNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis-backed refresh token store with token families
+ * Every login starts a family; each rotation issues the next token of the family and marks the old one as used.
+ * Presenting a used token again (outside a short grace window for concurrent refreshes) revokes the whole family.
+ * Tokens expire through key TTLs, "revoke all" is a single INCR of the user's generation, and only SHA-256
+ * hashes of tokens are stored.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RedisRefreshTokenStore {
+
+    private static final String TOKEN_KEY = "socialmedia:refresh:token:";
+    private static final String FAMILY_KEY = "socialmedia:refresh:family:";
+    private static final String USER_GEN_KEY = "socialmedia:refresh:user-gen:";
+    private static final String USER_FAMILIES_KEY = "socialmedia:refresh:user-families:";
+
+    /**
+     * KEYS: old token, family, user generation, new token
+     * ARGV: now, grace ms, new token ttl ms, new token expiry
+     */
+    private static final DefaultRedisScript<String> ROTATE_SCRIPT = new DefaultRedisScript<>("""
+            local t = redis.call('HMGET', KEYS[1], 'userId', 'family', 'gen', 'rotatedAt')
+            if not t[1] then return 'MISSING' end
+            if redis.call('EXISTS', KEYS[2]) == 0 then return 'REVOKED' end
+            if (redis.call('GET', KEYS[3]) or '0') ~= t[3] then return 'REVOKED' end
+            if t[4] then
+              if tonumber(ARGV[1]) - tonumber(t[4]) <= tonumber(ARGV[2]) then return 'RACE' end
+              redis.call('DEL', KEYS[2])
+              return 'REUSED'
+            end
+            redis.call('HSET', KEYS[1], 'rotatedAt', ARGV[1])
+            redis.call('HSET', KEYS[4], 'userId', t[1], 'family', t[2], 'gen', t[3], 'expiresAt', ARGV[4])
+            redis.call('PEXPIRE', KEYS[4], ARGV[3])
+            redis.call('PEXPIRE', KEYS[2], ARGV[3])
+            return 'ROTATED'
+            """, String.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${app.jwt.refresh-expiration:2592000000}")
+    private long refreshTokenExpiration;
+
+    @Value("${app.refresh-token.max-per-user:5}")
+    private int maxTokensPerUser;
+
+    @Value("${app.refresh-token.reuse-grace-seconds:10}")
+    private long reuseGraceSeconds;
+
+    /**
+     * Start a new token family for the user and return its first token
+     */
+    public String issue(Long userId) {
+        long now = System.currentTimeMillis();
+        String familyId = UUID.randomUUID().toString();
+        String token = newToken();
+        String gen = currentGeneration(userId);
+
+        stringRedisTemplate.opsForValue().set(FAMILY_KEY + familyId, userId.toString(),
+                refreshTokenExpiration, TimeUnit.MILLISECONDS);
+        writeToken(hash(token), userId, familyId, gen, now + refreshTokenExpiration);
+
+        String familiesKey = USER_FAMILIES_KEY + userId;
+        stringRedisTemplate.opsForZSet().add(familiesKey, familyId, now);
+        stringRedisTemplate.opsForZSet().removeRangeByScore(familiesKey, 0, now - refreshTokenExpiration);
+        stringRedisTemplate.expire(familiesKey, refreshTokenExpiration, TimeUnit.MILLISECONDS);
+        trimFamilies(userId);
+
+        log.debug("Issued refresh token family {} for user {}", familyId, userId);
+        return token;
+    }
+
+    /**
+     * Exchange a refresh token for the next token of its family
+     * Throws RefreshTokenNotFoundException when Redis has no record of the token (e.g. one issued by the SQL store).
+     *
+     * @return user id and the new refresh token
+     */
+    public RefreshTokenService.Rotation rotate(String token) {
+        String tokenHash = hash(token);
+        List<Object> record = stringRedisTemplate.opsForHash()
+                .multiGet(TOKEN_KEY + tokenHash, List.of("userId", "family"));
+        if (record.get(0) == null || record.get(1) == null) {
+            count("missing");
+            throw new RefreshTokenNotFoundException();
+        }
+        Long userId = Long.valueOf(record.get(0).toString());
+        String familyId = record.get(1).toString();
+
+        long now = System.currentTimeMillis();
+        String newToken = newToken();
+        String outcome = stringRedisTemplate.execute(ROTATE_SCRIPT,
+                List.of(TOKEN_KEY + tokenHash, FAMILY_KEY + familyId, USER_GEN_KEY + userId, TOKEN_KEY + hash(newToken)),
+                String.valueOf(now),
+                String.valueOf(TimeUnit.SECONDS.toMillis(reuseGraceSeconds)),
+                String.valueOf(refreshTokenExpiration),
+                String.valueOf(now + refreshTokenExpiration));
+        count(outcome != null ? outcome.toLowerCase() : "missing");
+
+        if ("ROTATED".equals(outcome)) {
+            return new RefreshTokenService.Rotation(userId, newToken);
+        }
+        if ("REUSED".equals(outcome)) {
+            stringRedisTemplate.opsForZSet().remove(USER_FAMILIES_KEY + userId, familyId);
+            log.warn("🚨 Refresh token reuse detected for user {} - revoked token family {}", userId, familyId);
+            throw new RuntimeException("Refresh token is revoked. Please login again.");
+        }
+        if ("RACE".equals(outcome)) {
+            throw new RuntimeException("Refresh token was already used. Please retry with the latest token.");
+        }
+        if ("REVOKED".equals(outcome)) {
+            throw new RuntimeException("Refresh token is revoked. Please login again.");
+        }
+        throw new RefreshTokenNotFoundException();
+    }
+
+    /**
+     * Revoke the family the token belongs to (logout of one session)
+     */
+    public void revoke(String token) {
+        List<Object> record = stringRedisTemplate.opsForHash()
+                .multiGet(TOKEN_KEY + hash(token), List.of("userId", "family"));
+        if (record.get(0) == null || record.get(1) == null) {
+            return;
+        }
+        stringRedisTemplate.delete(FAMILY_KEY + record.get(1));
+        stringRedisTemplate.opsForZSet().remove(USER_FAMILIES_KEY + record.get(0), record.get(1).toString());
+    }
+
+    /**
+     * Revoke every token of the user by moving to the next generation
+     */
+    public void revokeAll(Long userId) {
+        stringRedisTemplate.opsForValue().increment(USER_GEN_KEY + userId);
+        stringRedisTemplate.delete(USER_FAMILIES_KEY + userId);
+    }
+
+    public long countActive(Long userId) {
+        return activeFamilies(userId).size();
+    }
+
+    private void trimFamilies(Long userId) {
+        List<String> active = activeFamilies(userId);
+        int excess = active.size() - maxTokensPerUser;
+        for (int i = 0; i < excess; i++) {
+            String familyId = active.get(i); // oldest first
+            stringRedisTemplate.delete(FAMILY_KEY + familyId);
+            stringRedisTemplate.opsForZSet().remove(USER_FAMILIES_KEY + userId, familyId);
+            log.info("User {} has reached maximum refresh tokens limit, revoked oldest family {}", userId, familyId);
+        }
+    }
+
+    private List<String> activeFamilies(Long userId) {
+        Set<String> families = stringRedisTemplate.opsForZSet().range(USER_FAMILIES_KEY + userId, 0, -1);
+        List<String> active = new ArrayList<>();
+        if (families == null) {
+            return active;
+        }
+        for (String familyId : families) {
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(FAMILY_KEY + familyId))) {
+                active.add(familyId);
+            } else {
+                stringRedisTemplate.opsForZSet().remove(USER_FAMILIES_KEY + userId, familyId);
+            }
+        }
+        return active;
+    }
+
+    private void writeToken(String tokenHash, Long userId, String familyId, String gen, long expiresAt) {
+        String key = TOKEN_KEY + tokenHash;
+        stringRedisTemplate.opsForHash().putAll(key, Map.of(
+                "userId", userId.toString(),
+                "family", familyId,
+                "gen", gen,
+                "expiresAt", String.valueOf(expiresAt)));
+        stringRedisTemplate.expire(key, refreshTokenExpiration, TimeUnit.MILLISECONDS);
+    }
+
+    private String currentGeneration(Long userId) {
+        String gen = stringRedisTemplate.opsForValue().get(USER_GEN_KEY + userId);
+        return gen != null ? gen : "0";
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("auth.refresh.rotations")
+                .description("Refresh token rotations by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,29 +1,36 @@
 package com.example.DPMHC_backend.service;
 
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import com.example.DPMHC_backend.exception.RefreshTokenNotFoundException;
 import com.example.DPMHC_backend.model.RefreshToken;
 import com.example.DPMHC_backend.model.User;
 import com.example.DPMHC_backend.repository.RefreshTokenRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Refresh token lifecycle
+ * app.refresh-token.store selects the backend: redis (token families, TTL expiry, reuse detection)
+ * or sql (the refresh_tokens table, swept by DatabaseCleanupBatchService).
+ * With the redis store, tokens Redis has never seen are looked up in refresh_tokens and migrated on their
+ * next rotation (app.refresh-token.sql-fallback), so switching stores does not log everyone out.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
-    
-    // Add a concurrent map for token-level locking
-    private final ConcurrentHashMap<String, Object> tokenLocks = new ConcurrentHashMap<>();
+    private final RedisRefreshTokenStore redisRefreshTokenStore;
+    private final ApplicationContext applicationContext;
 
     @Value("${app.jwt.refresh-expiration:2592000000}") // 30 days in milliseconds
     private long refreshTokenExpiration;
@@ -31,11 +38,88 @@ public class RefreshTokenService {
     @Value("${app.refresh-token.max-per-user:5}") // Maximum refresh tokens per user
     private int maxTokensPerUser;
 
+    @Value("${app.refresh-token.store:redis}")
+    private String store;
+
+    @Value("${app.refresh-token.sql-fallback:true}")
+    private boolean sqlFallback;
+
+    /**
+     * Result of a refresh: the token owner and the refresh token that replaces the presented one
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    public boolean isSqlBacked() {
+        return "sql".equalsIgnoreCase(store);
+    }
+
+    /**
+     * Create a new refresh token for a user, returns the token value
+     */
+    public String createRefreshToken(User user) {
+        if (!isSqlBacked()) {
+            return redisRefreshTokenStore.issue(user.getId());
+        }
+        return getSelf().createSqlRefreshToken(user).getToken();
+    }
+
+    /**
+     * Verify a refresh token and replace it with a new one
+     * Throws RuntimeException when the token is unknown, expired or revoked.
+     */
+    public Rotation rotate(String token) {
+        if (isSqlBacked()) {
+            return getSelf().rotateSqlToken(token);
+        }
+        try {
+            return redisRefreshTokenStore.rotate(token);
+        } catch (RefreshTokenNotFoundException e) {
+            if (!sqlFallback) {
+                throw e;
+            }
+            return getSelf().migrateSqlToken(token);
+        }
+    }
+
     /**
-     * Create a new refresh token for a user
+     * Rotate a SQL token. The conditional revoke is the lock: of two concurrent refreshes with the same
+     * token only one updates the row, the other fails without issuing a token.
      */
+    @WriteDB(type = WriteDB.OperationType.UPDATE)
     @Transactional
-    public RefreshToken createRefreshToken(User user) {
+    public Rotation rotateSqlToken(String token) {
+        User user = revokeForRotation(token);
+        RefreshToken newToken = createSqlRefreshToken(user);
+        return new Rotation(user.getId(), newToken.getToken());
+    }
+
+    /**
+     * Exchange a token issued before the switch to Redis for the first token of a new Redis family
+     */
+    @WriteDB(type = WriteDB.OperationType.UPDATE)
+    @Transactional
+    public Rotation migrateSqlToken(String token) {
+        User user = revokeForRotation(token);
+        log.info("Migrating SQL refresh token of user {} to the Redis store", user.getId());
+        return new Rotation(user.getId(), redisRefreshTokenStore.issue(user.getId()));
+    }
+
+    private User revokeForRotation(String token) {
+        if (refreshTokenRepository.revokeIfActive(token, LocalDateTime.now()) == 1) {
+            return refreshTokenRepository.findUserByToken(token)
+                    .orElseThrow(RefreshTokenNotFoundException::new);
+        }
+        RefreshToken existingToken = refreshTokenRepository.findByToken(token)
+                .orElseThrow(RefreshTokenNotFoundException::new);
+        if (existingToken.isRevoked()) {
+            throw new RuntimeException("Refresh token is revoked. Please login again.");
+        }
+        throw new RuntimeException("Refresh token has expired. Please login again.");
+    }
+
+    @Transactional
+    public RefreshToken createSqlRefreshToken(User user) {
         log.info("Creating refresh token for user: {}", user.getEmail());
         
         // Check if user has reached maximum tokens limit
@@ -59,67 +143,19 @@ public class RefreshTokenService {
     }
 
     /**
-     * Find refresh token by token string (thread-safe)
-     */
-    public Optional<RefreshToken> findByToken(String token) {
-        // Use token-specific lock to prevent race conditions
-        Object lock = tokenLocks.computeIfAbsent(token, k -> new Object());
-        
-        synchronized (lock) {
-            try {
-                return refreshTokenRepository.findByTokenAndIsRevokedFalse(token);
-            } finally {
-                // Clean up lock if no longer needed (optional optimization)
-                tokenLocks.remove(token, lock);
-            }
-        }
-    }
-
-    /**
-     * Verify if refresh token is valid (not expired and not revoked)
-     */
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.isExpired()) {
-            log.warn("Refresh token {} has expired", token.getToken());
-            // Mark as revoked instead of deleting immediately
-            token.revoke();
-            refreshTokenRepository.save(token);
-            throw new RuntimeException("Refresh token was expired. Please make a new signin request");
-        }
-        
-        if (token.isRevoked()) {
-            log.warn("Refresh token {} has been revoked", token.getToken());
-            throw new RuntimeException("Refresh token is revoked. Please make a new signin request");
-        }
-        
-        return token;
-    }
-
-    /**
-     * Revoke a specific refresh token (thread-safe)
+     * Revoke a specific refresh token
      */
     @Transactional
     public void revokeToken(String token) {
-        log.info("Revoking refresh token: {}", token);
-        
-        Object lock = tokenLocks.computeIfAbsent(token, k -> new Object());
-        
-        synchronized (lock) {
-            try {
-                refreshTokenRepository.findByToken(token)
-                        .ifPresent(refreshToken -> {
-                            if (!refreshToken.isRevoked()) { // Double-check
-                                refreshToken.revoke();
-                                refreshTokenRepository.save(refreshToken);
-                                log.info("Successfully revoked refresh token: {}", token);
-                            } else {
-                                log.info("Refresh token already revoked: {}", token);
-                            }
-                        });
-            } finally {
-                tokenLocks.remove(token, lock);
+        if (!isSqlBacked()) {
+            redisRefreshTokenStore.revoke(token);
+            if (!sqlFallback) {
+                return;
             }
         }
+        if (refreshTokenRepository.revokeIfActive(token, LocalDateTime.now()) == 1) {
+            log.info("Successfully revoked refresh token");
+        }
     }
 
     /**
@@ -128,6 +164,12 @@ public class RefreshTokenService {
     @Transactional
     public void revokeAllTokensForUser(User user) {
         log.info("Revoking all refresh tokens for user: {}", user.getEmail());
+        if (!isSqlBacked()) {
+            redisRefreshTokenStore.revokeAll(user.getId());
+            if (!sqlFallback) {
+                return;
+            }
+        }
         refreshTokenRepository.revokeAllByUser(user, LocalDateTime.now());
     }
 
@@ -152,6 +194,9 @@ public class RefreshTokenService {
     @Scheduled(fixedDelay = 86400000) // Run every 24 hours
     @Transactional
     public void cleanupExpiredTokens() {
+        if (!isSqlBacked() && !sqlFallback) {
+            return; // Redis tokens expire on their own
+        }
         try {
             log.info("Starting cleanup of expired refresh tokens");
             refreshTokenRepository.deleteExpiredTokens(LocalDateTime.now());
@@ -165,6 +210,16 @@ public class RefreshTokenService {
      * Get active tokens count for a user
      */
     public long getActiveTokensCount(User user) {
+        if (!isSqlBacked()) {
+            return redisRefreshTokenStore.countActive(user.getId());
+        }
         return refreshTokenRepository.countActiveTokensByUser(user);
     }
+
+    /**
+     * Gets the Spring-managed proxy instance for transaction support
+     */
+    private RefreshTokenService getSelf() {
+        return applicationContext.getBean(RefreshTokenService.class);
+    }
 }
\ No newline at end of file
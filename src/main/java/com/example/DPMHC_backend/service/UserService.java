@@ -5,8 +5,8 @@ import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
 import com.example.DPMHC_backend.config.database.annotation.WriteDB;
 import com.example.DPMHC_backend.dto.LoginResponse;
 import com.example.DPMHC_backend.dto.PostDTO;
+import com.example.DPMHC_backend.dto.TokenRefreshResponse;
 import com.example.DPMHC_backend.model.PasswordResetToken;
-import com.example.DPMHC_backend.model.RefreshToken;
 import com.example.DPMHC_backend.model.Role;
 import com.example.DPMHC_backend.dto.UserDTO;
 import com.example.DPMHC_backend.model.User;
@@ -15,6 +15,7 @@ import com.example.DPMHC_backend.repository.PostRepository;
 import com.example.DPMHC_backend.repository.UserRepository;
 import com.example.DPMHC_backend.repository.UserBlockRepository;
 import com.example.DPMHC_backend.security.JwtService;
+import com.example.DPMHC_backend.security.TokenVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -57,6 +58,7 @@ public class UserService {
     private final PostService postService; // Add this dependency
     private final UserBlockRepository userBlockRepository;
     private final RefreshTokenService refreshTokenService;
+    private final TokenVersionService tokenVersionService;
 
     @Value("${app.base.url}")
     private String baseUrl;
@@ -197,12 +199,12 @@ public class UserService {
         String accessToken = jwtService.generateToken(user);
         
         // Create refresh token
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
+        String refreshToken = refreshTokenService.createRefreshToken(user);
         
         // JWT expiration time in seconds (5 minutes)
         Long expiresIn = 300L;
         
-        return new LoginResponse(accessToken, refreshToken.getToken(), expiresIn);
+        return new LoginResponse(accessToken, refreshToken, expiresIn);
     }
 
     @WriteDB(type = WriteDB.OperationType.CREATE)
@@ -279,7 +281,7 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(new Date());
 
-        userRepository.save(user);
+        tokenVersionService.revokeTokens(user); // sessions opened with the old password end here
         resetTokenRepository.delete(resetToken); // Remove token after use
 
         return "Password reset successful.";
@@ -456,14 +458,18 @@ public class UserService {
     }
 
     /**
-     * Generate new access token from refresh token
+     * Rotate the refresh token and issue a new access token
+     * With the Redis token store the user comes from the Hibernate entity cache, so a warm refresh touches no database.
      */
     @ReadOnlyDB(strategy = ReadOnlyDB.LoadBalanceStrategy.USER_SPECIFIC, userSpecific = true, fallbackToMaster = true)
-    public String generateNewAccessToken(String refreshToken) {
-        RefreshToken storedRefreshToken = refreshTokenService.findByToken(refreshToken)
-                .orElseThrow(() -> new RuntimeException("Refresh token not found"));
-        RefreshToken verifiedToken = refreshTokenService.verifyExpiration(storedRefreshToken);
-        User user = verifiedToken.getUser();
-        return jwtService.generateToken(user);
+    public TokenRefreshResponse refreshAccessToken(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.isBanned()) {
+            refreshTokenService.revokeToken(rotation.refreshToken());
+            throw new RuntimeException("This user is banned.");
+        }
+        return new TokenRefreshResponse(jwtService.generateToken(user), rotation.refreshToken(), 300);
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.example.DPMHC_backend.config.cache;
+
+import com.example.DPMHC_backend.dto.PostDTO;
+import com.example.DPMHC_backend.dto.cache.PageCacheWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a cached feed page under each cache value codec
+ * json is the GenericJackson2JsonRedisSerializer selected by app.cache.codec=json, smile is CompactCacheSerializer
+ * with compression off and smile-deflate is the default configuration (deflate from 2048 bytes). The encoded size
+ * of each page is printed once per trial, since Redis memory and bandwidth are what the codec is for.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CacheCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"json", "smile", "smile-deflate"})
+    public String codec;
+
+    @Param({"20", "100"})
+    public int postsPerPage;
+
+    private RedisSerializer<Object> serializer;
+    private PageCacheWrapper<PostDTO> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper redisObjectMapper = new ObjectMapper();
+        redisObjectMapper.registerModule(new JavaTimeModule());
+        redisObjectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        serializer = switch (codec) {
+            case "json" -> new GenericJackson2JsonRedisSerializer(redisObjectMapper);
+            case "smile" -> new CompactCacheSerializer(redisObjectMapper, 0, 1);
+            case "smile-deflate" -> new CompactCacheSerializer(redisObjectMapper, 2048, 1);
+            default -> throw new IllegalArgumentException("Unknown codec " + codec);
+        };
+
+        List<PostDTO> posts = new ArrayList<>(postsPerPage);
+        for (int i = 0; i < postsPerPage; i++) {
+            posts.add(PostDTO.builder()
+                    .id((long) i + 1)
+                    .content("Post " + i + ": weekend hike photos from the ridge trail, the view was worth the climb")
+                    .imageUrl("https://res.cloudinary.com/demo/image/upload/v1712345678/posts/post-" + i + ".jpg")
+                    .isPublic(true)
+                    .likes(i * 7)
+                    .commentsCount(i * 3)
+                    .isLikedByCurrentUser(i % 2 == 0)
+                    .createdAt(new Date(1_700_000_000_000L + i * 60_000L))
+                    .username("user" + (i % 10))
+                    .userId((long) (i % 10) + 1)
+                    .avatar("https://res.cloudinary.com/demo/image/upload/avatars/user" + (i % 10) + ".png")
+                    .build());
+        }
+        page = new PageCacheWrapper<>(posts, 0, postsPerPage, 1000, 1000 / postsPerPage, true, false);
+        encoded = serializer.serialize(page);
+        System.out.printf("%n%s page of %d posts: %d bytes%n", codec, postsPerPage, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(page);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.DPMHC_backend.config.database.routing;
+
+import com.example.DPMHC_backend.config.database.DatabaseProperties;
+import com.example.DPMHC_backend.config.database.annotation.ReadOnlyDB;
+import com.example.DPMHC_backend.config.database.annotation.WriteDB;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call overhead of DatabaseRoutingAspect around a repository-style method
+ * direct calls the target without a proxy; the other cases go through a proxy carrying only the routing aspect,
+ * so the difference is what routing adds to every call: replica selection, context switching, connection
+ * counting and the Micrometer timer. classLevelRead also covers the cached method-level annotation lookup.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RoutingAspectBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingAspectBenchmark {
+
+    private RoutedRepository direct;
+    private RoutedRepository routed;
+    private ClassLevelRepository classLevel;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        DatabaseProperties properties = new DatabaseProperties();
+        properties.setLoadBalancing(new DatabaseProperties.LoadBalancing());
+        properties.setSlaves(List.of(new DatabaseProperties.Slave(), new DatabaseProperties.Slave()));
+
+        DatabaseLoadBalancer loadBalancer = new DatabaseLoadBalancer(properties);
+        loadBalancer.init();
+        // No authenticated user, so the tracker never reaches Redis
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(properties, null, loadBalancer);
+        tracker.init();
+        DatabaseRoutingAspect aspect = new DatabaseRoutingAspect(loadBalancer, tracker, properties, new SimpleMeterRegistry());
+        aspect.init();
+
+        direct = new RoutedRepository();
+        routed = proxy(new RoutedRepository(), aspect);
+        classLevel = proxy(new ClassLevelRepository(), aspect);
+    }
+
+    @Benchmark
+    public long direct() {
+        return direct.read(id++);
+    }
+
+    @Benchmark
+    public long methodLevelRead() {
+        return routed.read(id++);
+    }
+
+    @Benchmark
+    public long methodLevelWrite() {
+        return routed.write(id++);
+    }
+
+    @Benchmark
+    public long classLevelRead() {
+        return classLevel.read(id++);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(T target, DatabaseRoutingAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return (T) factory.getProxy();
+    }
+
+    public static class RoutedRepository {
+
+        @ReadOnlyDB
+        public long read(long id) {
+            return id * 31;
+        }
+
+        @WriteDB
+        public long write(long id) {
+            return id * 17;
+        }
+    }
+
+    @ReadOnlyDB
+    public static class ClassLevelRepository {
+
+        public long read(long id) {
+            return id * 31;
+        }
+    }
+}
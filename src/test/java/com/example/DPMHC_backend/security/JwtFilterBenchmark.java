@@ -0,0 +1,104 @@
+package com.example.DPMHC_backend.security;
+
+import com.example.DPMHC_backend.model.Role;
+import com.example.DPMHC_backend.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of JwtAuthenticationFilter on an authenticated request in stateless mode
+ * cachedClaims is the steady state, a token seen before; verifiedClaims clears the claims cache first so every
+ * request pays the single HMAC verification. legacyTripleParse is the token work the filter used to do: three
+ * parses, each with a freshly built parser. Revocation is stubbed as current so only the JWT work is measured.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter filter;
+    private Cache<?, ?> verifiedClaims;
+    private Key key;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 50_000L);
+        jwtService.init();
+        verifiedClaims = (Cache<?, ?>) ReflectionTestUtils.getField(jwtService, "verifiedClaims");
+
+        TokenVersionService tokenVersionService = new TokenVersionService(null, null) {
+            @Override
+            public boolean isCurrent(JwtClaims claims) {
+                return true;
+            }
+        };
+        filter = new JwtAuthenticationFilter(jwtService, null, tokenVersionService);
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+
+        User user = User.builder()
+                .id(42L)
+                .username("benchmark")
+                .email("benchmark@example.com")
+                .role(Role.USER)
+                .build();
+        token = jwtService.generateToken(user);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+    }
+
+    @Benchmark
+    public Object cachedClaims() throws Exception {
+        return authenticate();
+    }
+
+    @Benchmark
+    public Object verifiedClaims() throws Exception {
+        verifiedClaims.invalidateAll();
+        return authenticate();
+    }
+
+    @Benchmark
+    public Object legacyTripleParse() {
+        String email = parse().getSubject();
+        boolean expired = parse().getExpiration().before(new Date());
+        String role = parse().get("role", String.class);
+        return expired ? null : email + role;
+    }
+
+    private Object authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private Claims parse() {
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+}
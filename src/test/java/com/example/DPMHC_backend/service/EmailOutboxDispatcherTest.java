@@ -0,0 +1,154 @@
+package com.example.DPMHC_backend.service;
+
+import com.example.DPMHC_backend.model.EmailOutbox;
+import com.example.DPMHC_backend.model.EmailOutboxStatus;
+import com.example.DPMHC_backend.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTest {
+
+    private final EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+    private final ApplicationContext applicationContext = mock(ApplicationContext.class);
+    private final FakeSmtpServer smtp = new FakeSmtpServer();
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new EmailOutboxDispatcher(repository, smtp, applicationContext, Runnable::run,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffSeconds", 30L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffSeconds", 3600L);
+        ReflectionTestUtils.setField(dispatcher, "claimLeaseSeconds", 120L);
+        when(applicationContext.getBean(EmailOutboxDispatcher.class)).thenReturn(dispatcher);
+    }
+
+    @Test
+    void deliversClaimedBatchOverOneConnectionAndMarksSent() {
+        EmailOutbox first = email(1L, "alice@example.com", 0);
+        EmailOutbox second = email(2L, "bob@example.com", 0);
+        givenDue(first, second);
+
+        dispatcher.wakeUp();
+
+        assertEquals(1, smtp.connections);
+        assertEquals(List.of("alice@example.com", "bob@example.com"), smtp.delivered);
+        assertEquals(EmailOutboxStatus.SENT, first.getStatus());
+        assertEquals(EmailOutboxStatus.SENT, second.getStatus());
+        assertNotNull(first.getSentAt());
+        assertNull(first.getClaimToken());
+    }
+
+    @Test
+    void reschedulesOnlyTheRecipientsTheServerRejected() {
+        EmailOutbox delivered = email(1L, "alice@example.com", 0);
+        EmailOutbox rejected = email(2L, "bounce@example.com", 0);
+        smtp.rejecting.add("bounce@example.com");
+        givenDue(delivered, rejected);
+
+        long before = System.currentTimeMillis();
+        dispatcher.wakeUp();
+
+        assertEquals(EmailOutboxStatus.SENT, delivered.getStatus());
+        assertEquals(EmailOutboxStatus.PENDING, rejected.getStatus());
+        assertEquals(1, rejected.getAttempts());
+        assertNotNull(rejected.getLastError());
+        assertTrue(rejected.getNextAttemptAt().getTime() >= before + 30_000, "first retry backs off 30s");
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        EmailOutbox email = email(1L, "bounce@example.com", 2);
+        smtp.rejecting.add("bounce@example.com");
+        givenDue(email);
+
+        dispatcher.wakeUp();
+
+        assertEquals(EmailOutboxStatus.FAILED, email.getStatus());
+        assertEquals(3, email.getAttempts());
+    }
+
+    @Test
+    void nothingDueSendsNothing() {
+        when(repository.findDueIds(any(), any())).thenReturn(List.of());
+
+        dispatcher.poll();
+
+        assertEquals(0, smtp.connections);
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    private void givenDue(EmailOutbox... emails) {
+        List<Long> ids = Arrays.stream(emails).map(EmailOutbox::getId).toList();
+        when(repository.findDueIds(any(), any())).thenReturn(ids);
+        when(repository.claim(eq(ids), anyString(), any(), any())).thenReturn(emails.length);
+        when(repository.findByClaimToken(anyString())).thenReturn(List.of(emails));
+    }
+
+    private EmailOutbox email(Long id, String recipient, int attempts) {
+        return EmailOutbox.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Subject " + id)
+                .body("Body " + id)
+                .status(EmailOutboxStatus.SENDING)
+                .attempts(attempts)
+                .nextAttemptAt(new Date())
+                .claimToken("claimed")
+                .build();
+    }
+
+    /**
+     * SMTP stand-in at the transport boundary: records what one connection would deliver and rejects
+     * configured recipients the way a partial SMTP failure surfaces from JavaMailSenderImpl
+     */
+    private static class FakeSmtpServer extends JavaMailSenderImpl {
+
+        private final Set<String> rejecting = new HashSet<>();
+        private final List<String> delivered = new ArrayList<>();
+        private int connections;
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            connections++;
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (MimeMessage message : mimeMessages) {
+                String recipient = firstRecipient(message);
+                if (rejecting.contains(recipient)) {
+                    failed.put(message, new MessagingException("550 mailbox unavailable: " + recipient));
+                } else {
+                    delivered.add(recipient);
+                }
+            }
+            if (!failed.isEmpty()) {
+                throw new MailSendException(failed);
+            }
+        }
+
+        private String firstRecipient(MimeMessage message) {
+            try {
+                Address[] recipients = message.getAllRecipients();
+                return recipients[0].toString();
+            } catch (MessagingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.DPMHC_backend.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.DPMHC_backend.model.Notification;
+import com.example.DPMHC_backend.model.NotificationChangeType;
+import com.example.DPMHC_backend.model.NotificationPriority;
+import com.example.DPMHC_backend.model.NotificationType;
+import com.example.DPMHC_backend.model.User;
+import com.example.DPMHC_backend.repository.CommentRepository;
+import com.example.DPMHC_backend.repository.NotificationRepository;
+import com.example.DPMHC_backend.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Notification creation throughput with many threads creating for distinct recipients at once
+ * Every insert round trip - one per row inline, one per batch from the writer - answers from memory after
+ * dbLatencyMicros. path=SYNCHRONIZED is the old code: one shared monitor, the way synchronized (this) did, around
+ * an inline save. path=INLINE is the lock-free path with the writer off, path=BATCHED the lock-free path with
+ * NotificationBatchWriter running; once its queue is full, callers fall back to inline saves, so the score is the
+ * rate the writer sustains rather than how fast the queue fills.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=NotificationCreationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class NotificationCreationBenchmark {
+
+    @Param({"SYNCHRONIZED", "INLINE", "BATCHED"})
+    public String path;
+
+    @Param({"1000"})
+    public int dbLatencyMicros;
+
+    @Param({"10000"})
+    public int recipients;
+
+    private final Object globalLock = new Object();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong dedupKeys = new AtomicLong();
+    private NotificationService notificationService;
+    private NotificationBatchWriter batchWriter;
+    private User[] users;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(NotificationService.class)).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger(NotificationBatchWriter.class)).setLevel(Level.ERROR);
+
+        users = new User[recipients];
+        Map<String, User> usersByEmail = new HashMap<>();
+        for (int i = 0; i < recipients; i++) {
+            User user = User.builder()
+                    .id((long) i + 1)
+                    .username("user" + i)
+                    .email("user" + i + "@example.com")
+                    .build();
+            users[i] = user;
+            usersByEmail.put(user.getEmail(), user);
+        }
+
+        UserRepository userRepository = stub(UserRepository.class, Map.of(
+                "findByEmail", args -> Optional.ofNullable(usersByEmail.get((String) args[0]))));
+
+        NotificationRepository notificationRepository = stub(NotificationRepository.class, Map.of(
+                "save", args -> {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+                    Notification notification = (Notification) args[0];
+                    notification.setId(ids.incrementAndGet());
+                    notification.setCreatedAt(new Date());
+                    notification.setLastActorAt(notification.getCreatedAt());
+                    return notification;
+                }));
+
+        NotificationDedupService dedupService = new NotificationDedupService(null, null, null) {
+            @Override
+            public boolean tryAcquireWindow(User recipient, NotificationBuilder builder) {
+                return true;
+            }
+
+            @Override
+            public String buildDedupKey(User recipient, NotificationBuilder builder) {
+                return "benchmark:" + dedupKeys.incrementAndGet();
+            }
+
+            @Override
+            public boolean isPersistedDuplicate(String dedupKey) {
+                return false;
+            }
+        };
+
+        NotificationChangeLogService changeLogService = new NotificationChangeLogService(null, null, null) {
+            @Override
+            public long record(Long userId, Long notificationId, NotificationChangeType type) {
+                return 0L;
+            }
+
+            @Override
+            public void recordAll(List<Notification> notifications, NotificationChangeType type) {
+            }
+        };
+
+        // The writer's multi-row insert: one round trip for the whole batch
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int[] batchUpdate(PreparedStatementCreator psc, BatchPreparedStatementSetter pss, KeyHolder keyHolder) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(dbLatencyMicros));
+                int size = pss.getBatchSize();
+                for (int i = 0; i < size; i++) {
+                    keyHolder.getKeyList().add(Map.of("id", ids.incrementAndGet()));
+                }
+                return new int[size];
+            }
+        };
+
+        NotificationBatchWriter[] writer = new NotificationBatchWriter[1];
+        batchWriter = new NotificationBatchWriter(jdbcTemplate, notificationRepository, changeLogService,
+                stub(ApplicationEventPublisher.class, Map.of()),
+                stub(ApplicationContext.class, Map.of("getBean", args -> writer[0])));
+        writer[0] = batchWriter;
+        ReflectionTestUtils.setField(batchWriter, "enabled", "BATCHED".equals(path));
+        ReflectionTestUtils.setField(batchWriter, "queueCapacity", 10_000);
+        ReflectionTestUtils.setField(batchWriter, "batchSize", 200);
+        ReflectionTestUtils.setField(batchWriter, "maxWaitMs", 50L);
+        batchWriter.start();
+
+        // Aggregation disabled, so every creation inserts a row
+        notificationService = new NotificationService(
+                notificationRepository,
+                userRepository,
+                stub(CommentRepository.class, Map.of()),
+                new SimpMessagingTemplate((message, timeout) -> true),
+                dedupService,
+                batchWriter,
+                new NotificationAggregationService(null, null, null),
+                null,
+                changeLogService);
+    }
+
+    @TearDown
+    public void tearDown() {
+        batchWriter.stop();
+    }
+
+    @Benchmark
+    public void createForRandomRecipient() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        User recipient = users[random.nextInt(users.length)];
+        User actor = users[random.nextInt(users.length)];
+        NotificationBuilder builder = NotificationBuilder.builder()
+                .recipientEmail(recipient.getEmail())
+                .actor(actor)
+                .type(NotificationType.LIKE)
+                .entityId(random.nextLong(1, 1_000_000))
+                .entityType("POST")
+                .priority(NotificationPriority.NORMAL)
+                .checkDuplicates(true)
+                .build();
+
+        if ("SYNCHRONIZED".equals(path)) {
+            synchronized (globalLock) {
+                notificationService.createNotification(builder);
+            }
+        } else {
+            notificationService.createNotification(builder);
+        }
+    }
+
+    /**
+     * In-memory collaborator: named methods answer from the map, everything else returns an empty default.
+     * A plain proxy rather than a mock, so concurrent calls do not serialize on the mocking framework.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> type.getSimpleName();
+                default -> emptyValue(method.getReturnType());
+            };
+        });
+    }
+
+    private static Object emptyValue(Class<?> returnType) {
+        if (returnType == long.class) {
+            return 0L;
+        }
+        if (returnType == int.class) {
+            return 0;
+        }
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == Optional.class) {
+            return Optional.empty();
+        }
+        return null;
+    }
+}